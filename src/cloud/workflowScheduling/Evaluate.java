@@ -75,7 +75,7 @@ public class Evaluate {
 	private static void test(String file, int di, int fi, int si, double[][][] successResult,
 			double[][][] NCResult, double[] refValues){
 		//fileļеĹ
-		Workflow wf = new Workflow(file);	
+		Workflow wf = WorkflowFile.load(file);	
 		
 		Benchmarks benSched = new Benchmarks(wf); //õǰBenchmark⣬Ϊ˼max mindeadline
 		System.out.println("Benchmark-FastSchedule" + benSched.getFastSchedule());
@@ -0,0 +1,64 @@
+package cloud.workflowScheduling;
+
+import java.io.*;
+import java.util.*;
+
+import cloud.workflowScheduling.methods.*;
+import cloud.workflowScheduling.setting.*;
+
+/**
+ * measures the time of copying a schedule of each DAX file (*.xml) in a directory: the serialization round trip
+ * (DeepCopyUtil.copyBySerialization), the member-wise copy (DeepCopyUtil.copy), the same with VMs copied, and a
+ * copy-on-write fork changed on one VM (Solution.fork). The schedule is the fast one of Benchmarks
+ * usage: EvaluateCopyTime [daxDirectory] [repeatTimes]
+ */
+public class EvaluateCopyTime {
+	private static final String DAX_LOCATION = "dax";
+	private static final int WARMUP_TIMES = 200;
+	private static final int REPEAT_TIMES = 1000;
+
+	public static void main(String[] args) throws Exception {
+		File dir = new File(args.length > 0 ? args[0] : DAX_LOCATION);
+		int repeatTimes = args.length > 1 ? Integer.parseInt(args[1]) : REPEAT_TIMES;
+		File[] files = dir.listFiles((d, name) -> name.endsWith(".xml"));
+		if(files == null)
+			throw new RuntimeException("Can not list DAX files in " + dir);
+		Arrays.sort(files);
+
+		PrintStream out = System.out;
+		PrintStream silent = new PrintStream(OutputStream.nullOutputStream());	//Workflow prints a message for each file
+		out.println("file\ttasks\tVMs\tserializationMicros\tcopyMicros\tcopyWithVMsMicros\tforkMicros");
+		for(File file : files){
+			System.setOut(silent);
+			Solution sol;
+			try{
+				Workflow wf = new Workflow(file.getPath());
+				sol = new Benchmarks(wf).getFastSchedule();
+			}catch(RuntimeException e){		//e.g., a cyclic DAX file
+				System.setOut(out);
+				out.println(file.getName() + "\tfailed: " + e.getMessage());
+				continue;
+			}
+			System.setOut(out);
+			VM firstVm = sol.keySet().iterator().next();
+
+			double serialization = time(repeatTimes, () -> DeepCopyUtil.copyBySerialization(sol));
+			double copy = time(repeatTimes, () -> DeepCopyUtil.copy(sol));
+			double copyWithVMs = time(repeatTimes, () -> Solution.deepcopy(sol, new HashMap<VM, VM>()));
+			double fork = time(repeatTimes, () -> sol.fork().own(firstVm));
+			out.printf("%s\t%d\t%d\t%.2f\t%.2f\t%.2f\t%.2f\n", file.getName(), sol.getRevMapping().size(), sol.size(),
+					serialization, copy, copyWithVMs, fork);
+		}
+	}
+
+	//average microseconds of a copy; the copies are kept until the end, as a scheduler keeps its candidates
+	private static double time(int repeatTimes, java.util.function.Supplier<Object> copier){
+		Object[] copies = new Object[repeatTimes];
+		for(int i = 0; i < WARMUP_TIMES; i++)
+			copies[i % repeatTimes] = copier.get();
+		long t1 = System.nanoTime();
+		for(int i = 0; i < repeatTimes; i++)
+			copies[i] = copier.get();
+		return (System.nanoTime() - t1) / 1e3 / repeatTimes;
+	}
+}
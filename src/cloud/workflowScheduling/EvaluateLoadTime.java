@@ -0,0 +1,75 @@
+package cloud.workflowScheduling;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+
+import cloud.workflowScheduling.setting.*;
+
+/**
+ * measures the time of reading each DAX file (*.xml or *.xml.gz) in a directory, i.e., parsing, binding and topological sort
+ * (new Workflow(file)), and the peak heap used by reading it once, in bytes per task
+ * usage: EvaluateLoadTime [daxDirectory] [repeatTimes]
+ */
+public class EvaluateLoadTime {
+	private static final String DAX_LOCATION = "dax";
+	private static final int WARMUP_TIMES = 3;
+	private static final int REPEAT_TIMES = 10;
+
+	public static void main(String[] args) throws Exception {
+		File dir = new File(args.length > 0 ? args[0] : DAX_LOCATION);
+		int repeatTimes = args.length > 1 ? Integer.parseInt(args[1]) : REPEAT_TIMES;
+		File[] files = dir.listFiles((d, name) -> name.endsWith(".xml") || name.endsWith(".xml.gz"));
+		if(files == null)
+			throw new RuntimeException("Can not list DAX files in " + dir);
+		Arrays.sort(files);
+
+		PrintStream out = System.out;
+		PrintStream silent = new PrintStream(OutputStream.nullOutputStream());	//Workflow prints a message for each file
+		out.println("file\ttasks\tedges\tavgMillis\tpeakHeapBytesPerTask");
+		double totalMillis = 0;
+		for(File file : files){
+			System.setOut(silent);
+			Workflow wf = null;
+			long t1 = 0;
+			double heapPerTask;
+			try{
+				heapPerTask = peakHeapPerTask(file.getPath());
+				for(int i = 0; i < WARMUP_TIMES; i++)
+					wf = new Workflow(file.getPath());
+				t1 = System.nanoTime();
+				for(int i = 0; i < repeatTimes; i++)
+					wf = new Workflow(file.getPath());
+			}catch(RuntimeException e){		//e.g., a cyclic DAX file
+				System.setOut(out);
+				out.println(file.getName() + "\tfailed: " + e.getMessage());
+				continue;
+			}
+			double millis = (System.nanoTime() - t1) / 1e6 / repeatTimes;
+			System.setOut(out);
+
+			totalMillis += millis;
+			out.printf("%s\t%d\t%d\t%.3f\t%.0f\n", file.getName(), wf.size(), wf.getGraph().edgeCount(), millis, heapPerTask);
+		}
+		out.printf("total\t\t\t%.3f\n", totalMillis);
+	}
+
+	//peak of the used heap while reading a file, above the heap used before it (after a GC); garbage not collected yet is included
+	private static double peakHeapPerTask(String file){
+		List<MemoryPoolMXBean> pools = new ArrayList<MemoryPoolMXBean>();
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if(pool.getType() == MemoryType.HEAP && pool.isValid())
+				pools.add(pool);
+		System.gc();
+		long before = 0;
+		for(MemoryPoolMXBean pool : pools){
+			pool.resetPeakUsage();
+			before += pool.getUsage().getUsed();
+		}
+		Workflow wf = new Workflow(file);
+		long peak = 0;
+		for(MemoryPoolMXBean pool : pools)
+			peak += pool.getPeakUsage().getUsed();
+		return (double)(peak - before) / wf.size();
+	}
+}
@@ -30,7 +30,7 @@ public class EvaluateRuntime {
 						String file = Evaluate.WORKFLOW_LOCATION + "\\" + workflow + 
 								"\\" + workflow + ".n." + size + "." + fileNumIndex + ".dax";
 
-						Workflow wf = new Workflow(file);	
+						Workflow wf = WorkflowFile.load(file);	
 						Benchmarks benSched = new Benchmarks(wf);
 						double deadline = benSched.getFastSchedule().calcMakespan() + (benSched.getCheapSchedule().calcMakespan()
 								- benSched.getFastSchedule().calcMakespan())* DEADLINE_FACTOR;
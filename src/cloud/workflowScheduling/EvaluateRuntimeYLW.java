@@ -32,7 +32,7 @@ public class EvaluateRuntimeYLW {
 					for(int i = 0;i<REPEATED_TIMES;i++){
 						String file = EvaluateYLW.WORKFLOW_LOCATION + "\\" + workflow + "_" + size + ".xml";
 
-						Workflow wf = new Workflow(file);	
+						Workflow wf = WorkflowFile.load(file);	
 						Benchmarks benSched = new Benchmarks(wf);
 						double deadline = benSched.getFastSchedule().calcMakespan() + (benSched.getCheapSchedule().calcMakespan()
 								- benSched.getFastSchedule().calcMakespan())* DEADLINE_FACTOR;
@@ -41,10 +41,13 @@ public class EvaluateYLW {
 	public static ExcelManage em;
 	public static String sheetName;
 	public static boolean isPrintExcel = false; //true false
+	//each DAX file is read once; the runs get copies of it
+	private static final WorkflowRepository REPOSITORY = new WorkflowRepository();
 	public static boolean onlyCalCostOfFeasible = false; //Ƿнcost֮ǰܵĶfalse
 	
 	public static void main(String[] args)throws Exception{
 		
+		REPOSITORY.preload(WORKFLOW_LOCATION);
 		if(isPrintExcel)
 			ExcelManage.clearExecl(ExcelFilePath);
 		int deadlineNum = (int)((DF_END-DF_START)/DF_INCR + 1);
@@ -101,7 +104,7 @@ public class EvaluateYLW {
 	private static void test(String file, int di, int fi, int si, double[][][] successResult,
 			double[][][] NCResult, double[] refValues, double[][][] usedVMNum){
 		//fileļеĹ
-		Workflow wf = new Workflow(file);	
+		Workflow wf = REPOSITORY.get(file);	
 		
 		Benchmarks benSched = new Benchmarks(wf); //õǰBenchmark⣬Ϊ˼max mindeadline
 		System.out.print("Benchmark-FastSchedule" + benSched.getFastSchedule());
@@ -116,7 +119,7 @@ public class EvaluateYLW {
 
 		System.out.println();
 		for(int mi=0;mi<METHODS.length;mi++){		//method index
-			Workflow wf1 = new Workflow(file);
+			Workflow wf1 = REPOSITORY.get(file);		//a fresh copy for each run
 			Scheduler method = METHODS[mi];
 			wf1.setDeadline(deadline);	
 			wf1.setDeadlineFactor(deadlineFactor); //ΪHGSA
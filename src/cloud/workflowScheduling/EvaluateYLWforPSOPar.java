@@ -40,6 +40,8 @@ public class EvaluateYLWforPSOPar {
 	public static ExcelManage em;
 	public static String sheetName;
 	public static boolean isPrintExcel = false; //true false
+	//each DAX file is read once; the runs get copies of it
+	private static final WorkflowRepository REPOSITORY = new WorkflowRepository();
 	//PSOѡʵ
 	public static ArrayList<List<Double>> psoParameter = new ArrayList<List<Double>>(); 	
 	
@@ -61,6 +63,7 @@ public class EvaluateYLWforPSOPar {
 		psoParameter.add(Arrays.asList(200.0,	0.8,	1.8));//15
 		psoParameter.add(Arrays.asList(200.0,	1.1,	1.6));//16
 		
+		REPOSITORY.preload(WORKFLOW_LOCATION);
 		if(isPrintExcel)
 			ExcelManage.clearExecl(ExcelFilePath);
 		int deadlineNum = (int)((DF_END-DF_START)/DF_INCR + 1);
@@ -115,7 +118,7 @@ public class EvaluateYLWforPSOPar {
 	private static void test(String file, int di, int fi, int si, double[][][] successResult,
 			double[][][] NCResult, double[] refValues, double[][][] usedVMNum){
 		//fileļеĹ
-		Workflow wf = new Workflow(file);	
+		Workflow wf = REPOSITORY.get(file);	
 		
 		Benchmarks benSched = new Benchmarks(wf); //õǰBenchmark⣬Ϊ˼max mindeadline
 		System.out.print("Benchmark-FastSchedule" + benSched.getFastSchedule());
@@ -131,7 +134,7 @@ public class EvaluateYLWforPSOPar {
 		System.out.println();
 //		for(int mi=0;mi<METHODS.length;mi++){		//method index
 		for(int parIndex=0; parIndex < psoParameter.size(); parIndex++) {
-			Workflow wf1 = new Workflow(file);
+			Workflow wf1 = REPOSITORY.get(file);		//a fresh copy for each run
 			Scheduler method = new PCPandPSO2_4plus1(psoParameter.get(parIndex));
 			wf1.setDeadline(deadline);	
 			wf1.setDeadlineFactor(deadlineFactor); //ΪHGSA
@@ -77,7 +77,7 @@ public class PrintWorkflow {
 	private static void test(String file, int di, int fi, int si, double[][][] successResult,
 			double[][][] NCResult, double[] refValues, String workflowName) throws IOException{
 		//fileļеĹ
-		Workflow wf = new Workflow(file);	
+		Workflow wf = WorkflowFile.load(file);	
 		
 		Benchmarks benSched = new Benchmarks(wf); //õǰBenchmark⣬Ϊ˼max mindeadline
 		System.out.print("Benchmark-FastSchedule" + benSched.getFastSchedule());
@@ -54,11 +54,6 @@ public class Benchmarks { //
 	private Solution bLevelEST(Workflow wf) {//HEFT㷨õL-ACOеblevel
 		Solution solution = new Solution();
 		
-		//ԲҪworkflow
-		List<Task> tasks = new ArrayList<Task>(wf);
-		Collections.sort(tasks, new Task.BLevelComparator()); 	//sort based on bLevel
-		Collections.reverse(tasks); 	// larger first	
-		
 		//ԭȵ
 //		for(Task task : tasks){				//select VM based on EST
 //			double minEST = Double.MAX_VALUE;
@@ -97,11 +92,9 @@ public class Benchmarks { //
 	private Solution minCostOfSingleTask(Workflow wf) {
 		Solution solution = new Solution();
 		
-		List<Task> tasks = new ArrayList<Task>(wf);
-		Collections.sort(tasks, new Task.BLevelComparator()); 	//sort based on bLevel
-		Collections.reverse(tasks); 	// larger first
-		
-		for(Task task : tasks){				//select VM based on EST
+		WorkflowGraph graph = wf.getGraph();
+		for(int index : wf.getBLevelOrder()){		//select VM based on EST; sort based on bLevel, larger first
+			Task task = graph.getTask(index);
 			double minCost = Double.MAX_VALUE;
 			int selectedVMType = -1;
 			for(int k = 0 ; k < VM.TYPE_NO; k++){				// calculate EST of task on all the used VMs
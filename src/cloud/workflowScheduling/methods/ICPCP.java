@@ -13,14 +13,16 @@ public class ICPCP implements Scheduler {
 	private final double bestVMSpeed = VM.SPEEDS[VM.FASTEST];
 	private Workflow wf;
 	private Solution solution ;
+	private ScheduleContext context;		//per-run state of tasks
 	private int num;
 	
 	public Solution schedule(Workflow wf) {
 		this.wf = wf;
+		this.context = new ScheduleContext(wf);
 		//taskisAssignedΪfalse
 		for(int i = 0; i < wf.size(); i++) {
 			Task t = wf.get(i);
-//			t.setAssigned(false);
+//			context.setAssigned(t, false);
 		}
 		this.solution = new Solution();
 		try{
@@ -42,9 +44,9 @@ public class ICPCP implements Scheduler {
 	
 	private void init(){					//Algorithm 1 in the paper; for cases of initialization and update
 		Task entryTask = wf.get(0);
-		entryTask.setAST(0);
-		entryTask.setAFT(0);
-		entryTask.setAssigned(true);
+		context.setAST(entryTask, 0);
+		context.setAFT(entryTask, 0);
+		context.setAssigned(entryTask, true);
 		
 		for(int i=1; i<wf.size(); i++){		// compute EST, EFT, critical parent via Eqs. 1 and 2; skip entry task
 			Task task = wf.get(i);
@@ -57,51 +59,51 @@ public class ICPCP implements Scheduler {
 				Task parent = e.getSource();
 				double startTime = e.getDataSize()/VM.NETWORK_SPEED;
 				//if assigned, use AFT; otherwise, use EFT
-				startTime += parent.isAssigned() ? parent.getAFT() : parent.getEFT();
+				startTime += context.isAssigned(parent) ? context.getAFT(parent) : context.getEFT(parent);
 				EST = Math.max(EST, startTime);				//determine EST
-				if(startTime > ESTForCritical && parent.isAssigned()==false){	//determine critical parent
+				if(startTime > ESTForCritical && context.isAssigned(parent)==false){	//determine critical parent
 					ESTForCritical = startTime;
 					criticalParent = parent;
 				}
 			}
-			if(task.isAssigned() == false){
-				task.setEST(EST);
-				task.setEFT(EST + task.getTaskSize() / bestVMSpeed);
+			if(context.isAssigned(task) == false){
+				context.setEST(task, EST);
+				context.setEFT(task, EST + task.getTaskSize() / bestVMSpeed);
 			}
 			//˵ĻҪcritical parent:Ϊtask aassignParentsparent bcԱҪ
-			task.setCriticalParent(criticalParent);	
+			context.setCriticalParent(task, criticalParent);	
 		}
 
 		Task exitTask = wf.get(wf.size()-1);	//Note, EST, EFT, critialParent of exitTask have been set above
-		exitTask.setAFT(wf.getDeadline());
-		exitTask.setAST(wf.getDeadline());
-		exitTask.setAssigned(true);
+		context.setAFT(exitTask, wf.getDeadline());
+		context.setAST(exitTask, wf.getDeadline());
+		context.setAssigned(exitTask, true);
 		for(int j = wf.size() - 2; j>=0; j--){	// compute LFT via Eq. 3; reverse order, skip exit node
 			Task task = wf.get(j);
-			if(task.isAssigned())
+			if(context.isAssigned(task))
 				continue;
 			
 			double lft = Double.MAX_VALUE;
 			for(Edge e : task.getOutEdges()){
 				Task child = e.getDestination();
 				double finishTime;
-				if(child.isAssigned())	
-					finishTime = child.getAST() - e.getDataSize() / VM.NETWORK_SPEED; //вͬе
+				if(context.isAssigned(child))	
+					finishTime = context.getAST(child) - e.getDataSize() / VM.NETWORK_SPEED; //вͬе
 				else
-					finishTime = child.getLFT() - child.getTaskSize()/bestVMSpeed - e.getDataSize() / VM.NETWORK_SPEED;
+					finishTime = context.getLFT(child) - child.getTaskSize()/bestVMSpeed - e.getDataSize() / VM.NETWORK_SPEED;
 				lft = Math.min(lft, finishTime);
 			}
-			task.setLFT(lft);
+			context.setLFT(task, lft);
 		}
 	}
 	
 	private void assignParents(Task task){			//Algorithm 2 in the paper
-		while(task.getCriticalParent() != null){	
+		while(context.getCriticalParent(task) != null){	
 			List<Task> PCP = new ArrayList<Task>();
 			Task ti = task;
-			while(ti.getCriticalParent() != null){		// while (there exists an unassigned parent of ti)
-				PCP.add(0, ti.getCriticalParent());   	//add CriticalParent(ti) to the beginning of PCP
-				ti = ti.getCriticalParent();
+			while(context.getCriticalParent(ti) != null){		// while (there exists an unassigned parent of ti)
+				PCP.add(0, context.getCriticalParent(ti));   	//add CriticalParent(ti) to the beginning of PCP
+				ti = context.getCriticalParent(ti);
 			}
 			
 //			if(PCP.get(0).getId() == 25)
@@ -129,13 +131,13 @@ aa:		for(VM vm : solution.keySet()){			//search from existing VMs. 
 			List<Allocation> tmpList = new ArrayList<Allocation>();
 			for(int i = 0; i<PCP.size(); i++){		
 				Task task = PCP.get(i);
-				double taskEST = task.getEST();	
+				double taskEST = context.getEST(task);	
 				if(i > 0)
 					taskEST = Math.max(taskEST, tmpList.get(i-1).getFinishTime()); //PCPеûдʱ
-				if(taskEST + task.getTaskSize() / vm.getSpeed() > task.getLFT() + Evaluate.E)//lft is not met, skip vm
+				if(taskEST + task.getTaskSize() / vm.getSpeed() > context.getLFT(task) + Evaluate.E)//lft is not met, skip vm
 					continue aa;
 				
-				double startTime = searchStartTime(vm, task, taskEST, task.getLFT());	//how to put task onto vm
+				double startTime = searchStartTime(vm, task, taskEST, context.getLFT(task));	//how to put task onto vm
 				if(startTime != -1)
 					tmpList.add(new Allocation(vm, task, startTime));
 				else
@@ -157,10 +159,10 @@ aa:		for(VM vm : solution.keySet()){			//search from existing VMs. 
 			boolean isSatisfied = true;
 			for(int k = 0; k<PCP.size(); k++){
 				Task task = PCP.get(k);
-				double taskEST = task.getEST();	
+				double taskEST = context.getEST(task);	
 				if(k > 0)
 					taskEST = Math.max(taskEST, tmpList.get(k-1).getFinishTime());
-				if(taskEST + task.getTaskSize() / VM.SPEEDS[i] > task.getLFT() + Evaluate.E){	//lft is not met
+				if(taskEST + task.getTaskSize() / VM.SPEEDS[i] > context.getLFT(task) + Evaluate.E){	//lft is not met
 					isSatisfied = false;
 					break;
 				}
@@ -189,9 +191,9 @@ aa:		for(VM vm : solution.keySet()){			//search from existing VMs. 
 			alloc.setFinishTime(alloc.getStartTime() + alloc.getTask().getTaskSize()/alloc.getVM().getSpeed());
 			
 			Task task = alloc.getTask();
-			task.setAssigned(true);		// set all tasks of P as assigned
-			task.setAST(alloc.getStartTime());
-			task.setAFT(alloc.getFinishTime());	
+			context.setAssigned(task, true);		// set all tasks of P as assigned
+			context.setAST(task, alloc.getStartTime());
+			context.setAFT(task, alloc.getFinishTime());	
 			solution.addTaskToVM(alloc.getVM(), alloc.getTask(), alloc.getStartTime(), true);
 		}
 		
@@ -205,34 +207,14 @@ aa:		for(VM vm : solution.keySet()){			//search from existing VMs. 
 				return 0;
 			}
 		});	
+		solution.markDirty(bestList.get(0).getVM());
 	}
 	
 	//search a time slot in vm between EST and LFT for task allocation
 	//returning -1 means this task can not be placed to this vm between EST and LFT, in the target solution
 	private double searchStartTime(VM vm, Task task, double EST, double LFT){
-		LinkedList<Allocation> list = solution.get(vm);
-		
-		for(int i = 0;i<list.size()+1;i++){
-			double timeSlotStart, timeSlotEnd;
-			if(i == 0){ 
-				timeSlotStart = 0;
-				timeSlotEnd	= list.get(i).getStartTime();
-			}else if(i==list.size()){
-				timeSlotStart = list.get(i-1).getFinishTime();
-				timeSlotEnd = Double.MAX_VALUE;
-			}else{
-				timeSlotStart = list.get(i-1).getFinishTime();
-				timeSlotEnd	= list.get(i).getStartTime();
-			}
-			double slackTime = LFT - EST - task.getTaskSize()/vm.getSpeed();
-			if(EST + slackTime >= timeSlotStart){			//condition1startTime satisfies
-				double startTime = Math.max(timeSlotStart, EST);
-				//condition2slot is large enough to support this task
-				if(timeSlotEnd - startTime >= task.getTaskSize() / vm.getSpeed())	
-					return startTime;
-			}
-		}
-		return -1;
+		double slackTime = LFT - EST - task.getTaskSize()/vm.getSpeed();
+		return solution.searchStartTime(vm, EST, task.getTaskSize() / vm.getSpeed(), EST + slackTime);
 	}
 	private VM getEarliestVM(){
 		VM ealiestVM = null;
@@ -21,13 +21,27 @@ public class LACO implements Scheduler {
 	private double[][] pheromone; 
 	private double[] heuristic;
 	private Workflow wf;
+	private ScheduleContext context;		//per-run state of tasks, e.g., pURank
 	private ProLiS pds = new ProLiS(1.5);
+	private PURankSampler sampler;
+	private double[][] pURanks;		//pURanks of the ants of an iteration, one row for each ant
+	private Random rnd;
 	
 	private double epsilonDeadline;
 	
+	public LACO(){
+		this.rnd = new Random();
+	}
+	public LACO(long seed){		//a repeatable run
+		this.rnd = new Random(seed);
+	}
+	
 	@Override
 	public Solution schedule(Workflow wf) {
 		this.wf = wf;
+		this.context = new ScheduleContext(wf);
+		this.sampler = new PURankSampler(wf, pds.getTheta(), rnd);
+		this.pURanks = sampler.newRanks(NO_OF_ANTS);
 		int size = wf.size();
 		heuristic = new double[size];
 		pheromone = new double[size][size];
@@ -41,7 +55,7 @@ public class LACO implements Scheduler {
 		for(int iterIndex = 0; iterIndex<NO_OF_ITE; iterIndex++){	 //iteration index
 			Ant[] ants = new Ant[NO_OF_ANTS]; //new Ant();
 			for(Task t : wf)	//initialize heuristic information
-				heuristic[t.getId()] = t.getpURank();
+				heuristic[t.getId()] = context.getpURank(t);
 			
 			
 //			/*ӡӺϢ*/
@@ -104,8 +118,9 @@ public class LACO implements Scheduler {
 				epsilonDeadline = wf.getDeadline() +
 					(maxMakespan-wf.getDeadline())* Math.pow((1-(double)iterIndex/NO_OF_EPSILON_ITE), 4);
 			Ant lbAnt = null;	//localBestAnt
+			sampler.sample(pURanks);
 			for(int antId = 0;antId<NO_OF_ANTS;antId++){
-				ants[antId] = new Ant();
+				ants[antId] = new Ant(pURanks[antId]);
 				ants[antId].constructASolution();
 				if(lbAnt==null || ants[antId].solution.isBetterThan(lbAnt.solution, epsilonDeadline))
 					lbAnt = ants[antId];
@@ -115,7 +130,7 @@ public class LACO implements Scheduler {
 			for(int j =0;j<size;j++)	
 				for(int i=0;i<size;i++)
 					pheromone[j][i] *= EVAP_RATIO;
-			if(gbAnt!=null && random()>0.9)
+			if(gbAnt!=null && rnd.nextDouble()>0.9)
 				gbAnt.releasePheromone();
 			else
 				lbAnt.releasePheromone();
@@ -143,9 +158,10 @@ public class LACO implements Scheduler {
     private class Ant {
 		private Solution solution;
 		private int[] taskIdList = new int[wf.size()];
+		private double[] pURanks;		//a row sampled by PURankSampler
 		
-		public Ant(){
-			wf.calcPURank(pds.getTheta());
+		public Ant(double[] pURanks){
+			this.pURanks = pURanks;
 		}
 		
 		public Solution constructASolution(){
@@ -154,7 +170,7 @@ public class LACO implements Scheduler {
     		S.add(wf.get(0));		
 
     		for(Task t : wf)		//set topoCount to 0
-    			t.setTopoCount(0);
+    			context.setTopoCount(t, 0);
     		
     		int tIndex = 0;			//task index in task ordering L
     		while(S.size()>0){
@@ -171,19 +187,21 @@ public class LACO implements Scheduler {
         		
     			for(Edge e : task.getOutEdges()){	// for each node m with an edge e from n to m do
     				Task child = e.getDestination();
-    				child.setTopoCount(child.getTopoCount()+1);//remove edge e from the graph--achieved by setting TopoCount here
-    				if(child.getTopoCount() == child.getInEdges().size())	//  if m has no other incoming edges then
+    				context.setTopoCount(child, context.getTopoCount(child)+1);//remove edge e from the graph--achieved by setting TopoCount here
+    				if(context.getTopoCount(child) == child.getInEdges().size())	//  if m has no other incoming edges then
     					S.add(child);					// insert m into S			
     			}
     		}
 
-    		solution =  pds.buildViaTaskList(wf, L, epsilonDeadline);
+    		//pURanks of this ant; the last ant's are also the heuristic information of the next iteration
+    		System.arraycopy(pURanks, 0, context.getpURanks(), 0, pURanks.length);
+    		solution =  pds.buildViaTaskList(context, L, epsilonDeadline);
     		return solution;
     	}
         
         private Task chooseNextTask(int curTaskId, List<Task> S) {
         	int chosenIndex = 0;
-        	if(Math.random()<0.9) { //ѡcurTaskIdϢԴ
+        	if(rnd.nextDouble()<0.9) { //ѡcurTaskIdϢԴ
         		double maxPheromone = -1;
         		int indexInS = 0;
         		for (Task t : S) {
@@ -200,7 +218,7 @@ public class LACO implements Scheduler {
             for (Task t : S) 
                 sum += pow(pheromone[curTaskId][t.getId()], ALPHA) * pow(heuristic[t.getId()], BETA);
             
-            double slice = sum * random();
+            double slice = sum * rnd.nextDouble();
             double k = 0;			
 //            int chosenIndex = 0;			//the chosen index in S
             for (int indexInS = 0; k < slice; indexInS++) {	
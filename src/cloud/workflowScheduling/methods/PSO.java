@@ -2,6 +2,7 @@ package cloud.workflowScheduling.methods;
 
 import java.util.*;
 
+import cloud.workflowScheduling.*;
 import cloud.workflowScheduling.setting.*;
 
 /*Rodriguez, Maria Alejandra, and Rajkumar Buyya. "Deadline based resource provisioning and scheduling
@@ -11,13 +12,40 @@ public class PSO implements Scheduler {
 	private static final int POPSIZE = 100;
 	private static final int NO_OF_ITE = 400;
 	private static final double W = 0.5f, C1 = 2f, C2 = 2f;		//parameters for PSO are from the paper
+	private static final double BOUND_MARGIN = 1e-9;	//relative margin of lower bounds summed in a different order
+	private static final int DEFAULT_CACHE_CAPACITY = 1024;
 	
 	private Workflow wf;
 	private int range;
-	private Random rnd = new Random();
+	private Random rnd;
 	
 	private int dimension;	//number of tasks
 	private VM[] vmPool;
+	private WorkflowGraph graph;		//particles decode into ArraySolutions on graph and vmPool
+	private boolean isInsertion;		//whether a task may be decoded into an idle gap of its VM
+	private boolean isEarlyAbort = true;	//whether decoding stops once a particle can not beat its best solution
+	private double[] tails;		//the longest path after a task at the fastest speed of vmPool, up to the makespan
+	private int cacheCapacity = DEFAULT_CACHE_CAPACITY;
+	private DecodingCache cache;		//cost and makespan of assignments decoded in this run; null if cacheCapacity is 0
+	
+	public PSO(){
+		this.rnd = new Random();
+	}
+	public PSO(long seed){		//a repeatable run
+		this.rnd = new Random(seed);
+	}
+	public PSO(boolean isInsertion){
+		this();
+		this.isInsertion = isInsertion;
+	}
+	public PSO(long seed, boolean isInsertion){
+		this(seed);
+		this.isInsertion = isInsertion;
+	}
+	public PSO(long seed, boolean isInsertion, boolean isEarlyAbort){	//the same results either way; for comparison
+		this(seed, isInsertion);
+		this.isEarlyAbort = isEarlyAbort;
+	}
 	
 	@Override
 	public Solution schedule(Workflow wf) {
@@ -34,21 +62,26 @@ public class PSO implements Scheduler {
 		for(int i = 0; i < vmPool.length; i++){
 			vmPool[i] = new VM(i/wf.getMaxParallel()); // in vmPool, VMType ascends
 		}
+		this.graph = wf.getGraph();
+		this.tails = calcTails();
+		this.cache = cacheCapacity > 0 ? new DecodingCache(vmPool, cacheCapacity) : null;
 		
 		double xMin = 0,  xMax = range - 1;	//boundary
 		double vMax = xMax;					//maximum velocity
 		double[] globalBestPos = new double[dimension];	//global Best Position
-		Solution globalBestSol = null;		
+		ArraySolution globalBestSol = null;
 		
 		Particle[] particles = new Particle[POPSIZE];
 		for (int i = 0; i < POPSIZE; i++){		//initialize particles 
 			particles[i] = new Particle(vMax, xMin, xMax);
-			particles[i].generateSolution();
+			particles[i].generateSolution();		//complete, as the particle has no best solution yet
 			
 			if (globalBestSol == null || particles[i].sol.isBetterThan(globalBestSol, wf.getDeadline())) {
 				for (int j = 0; j < dimension; j++)
 					globalBestPos[j] = particles[i].position[j];
-				globalBestSol= particles[i].sol;	// ﲻҪcloneΪparticlesolÿεʱnew
+				if(globalBestSol == null)
+					globalBestSol = new ArraySolution(graph, vmPool, isInsertion);
+				globalBestSol.copyFrom(particles[i].sol);	// copied, as the particle decodes into its sol again
 			}
 		}
 //		System.out.println("the best initial solution:"+globalBestSol.calcCost()+";\t"+globalBestSol.calcMakespan());
@@ -67,12 +100,12 @@ public class PSO implements Scheduler {
 					particles[i].position[j] = Math.max(particles[i].position[j], xMin);	//bound
 					particles[i].position[j] = Math.min(particles[i].position[j], xMax);
 				}
-				particles[i].generateSolution();
-				//record a better solution
-				if (globalBestSol == null || particles[i].sol.isBetterThan(globalBestSol, wf.getDeadline())) {
+				boolean isComplete = particles[i].generateSolution();
+				//record a better solution; an incomplete one is not better than the particle's best, nor the global best
+				if (isComplete && particles[i].sol.isBetterThan(globalBestSol, wf.getDeadline())) {
 					for (int j = 0; j < dimension; j++)
 						globalBestPos[j] = particles[i].position[j];
-					globalBestSol= particles[i].sol;
+					globalBestSol.copyFrom(particles[i].sol);
 //					System.out.printf("Iteration index%3d\t%5.2f\t%5.2f\n",iteIndex,
 //							globalBestSol.calcCost(),	globalBestSol.calcMakespan());
 				}
@@ -81,14 +114,46 @@ public class PSO implements Scheduler {
 //					globalBestSol.calcCost(),	globalBestSol.calcMakespan());
 		}
 //		System.out.println("Globle best is :" + globalBestSol.calcCost()+";\t"+globalBestSol.calcMakespan());
-		return globalBestSol;
+		return globalBestSol.toSolution();
+	}
+	
+	//the number of assignments whose cost and makespan are kept, so particles meeting them again are not decoded;
+	//0 turns the cache off. The results are the same either way
+	public void setCacheCapacity(int cacheCapacity) {
+		this.cacheCapacity = cacheCapacity;
+	}
+	//the cache of the last run, e.g., for its hit ratio; null if it is off
+	public DecodingCache getCache() {
+		return cache;
+	}
+	
+	//tails[j]: the longest path of the descendants of graph index j, each run at the fastest speed without transfers;
+	//a task finishing at time t makes the makespan at least t + tails[j]
+	private double[] calcTails(){
+		double maxSpeed = 0;
+		for(VM vm : vmPool)
+			maxSpeed = Math.max(maxSpeed, vm.getSpeed());
+		double[] tails = new double[dimension];
+		for(int j = dimension - 1; j >= 0; j--){		//children have larger indices
+			for(int k = graph.getChildOffset(j); k < graph.getChildOffset(j+1); k++){
+				int child = graph.getChild(k);
+				tails[j] = Math.max(tails[j], graph.getTaskSize(child) / maxSpeed + tails[child]);
+			}
+		}
+		return tails;
 	}
 	
 	private class Particle{
 		private double[] position = new double[dimension];
 		private double[] speed = new double[dimension];
 		private double[] bestPos = new double[dimension];
-		private Solution sol, bestSol = null;
+		private ArraySolution sol = new ArraySolution(graph, vmPool, isInsertion), bestSol = null;	//reused by every decoding
+		private double bestCost, bestMakespan;		//of bestSol
+		private int[] vms = new int[dimension];		//VM indices of position
+		private int[] decodedVms = new int[dimension];		//VM indices of the last decoding into sol
+		private double[] cached = new double[2];		//cost and makespan found in the cache
+		private double[] makespanBounds = new double[dimension];	//[i]: lower bound on makespan from tasks 0 ... i
+		private double[] vmCostBounds = new double[range];		//sol.calcVMCostLowerBound of each VM
 		
 		//initialize a particle
 		public Particle(double vMax, double xMin, double xMax){
@@ -97,24 +162,77 @@ public class PSO implements Scheduler {
 				this.speed[i] = vMax * rnd.nextDouble() - vMax/2;			
 				this.bestPos[i] = this.position[i];	
 			}
+			Arrays.fill(decodedVms, -1);
 		}
 		
-		public void generateSolution() {		//generate solution from position
-			this.sol = new Solution();	
-			for(int i=0;i<position.length;i++){
-				Task task = wf.get(i);		// tasks in wf is a topological sort
-				int vmIndex = (int)(Math.floor(position[i])); //ȡ
-				VM vm = vmPool[vmIndex];
-				double startTime = sol.calcEST(task, vm);
-				sol.addTaskToVM(vm, task, startTime, true);
+		//generate solution from position; returns false if it is not decoded (or decoding stopped early), as its solution
+		//could not be better than bestSol
+		public boolean generateSolution() {
+			for(int i = 0; i < dimension; i++)
+				vms[i] = (int)(Math.floor(position[i])); //ȡ
+			boolean isCached = cache != null && cache.get(vms, cached);
+			if(isCached && bestSol != null && !BatchEvaluator.isBetterThan(cached[0], cached[1], bestCost, bestMakespan,
+					wf.getDeadline()))
+				return false;		//sol and decodedVms are kept as they are
+			
+			//the tasks before the first one whose VM has changed are decoded as last time; only the others are decoded again
+			int first = 0;
+			while(first < dimension && decodedVms[first] == vms[first])
+				first++;
+			this.sol.removeTasks(first);
+			boolean isBounded = isEarlyAbort && bestSol != null;
+			double costBound = 0;
+			if(isBounded){
+				for(int v = 0; v < vmPool.length; v++){
+					vmCostBounds[v] = sol.calcVMCostLowerBound(v);
+					costBound += vmCostBounds[v];
+				}
 			}
+			for(int i=first;i<position.length;i++){		// graph indices are a topological sort
+				int vmIndex = vms[i];
+				decodedVms[i] = vmIndex;
+				double startTime = sol.calcEST(i, vmIndex);
+				sol.addTask(i, vmIndex, startTime);
+				
+				//bounds of the solution after the remaining tasks are added
+				double bound = sol.getFinishTime(i);
+				if(tails[i] > 0)		//the sum may round up; allowed for by a small margin
+					bound = (bound + tails[i]) * (1 - BOUND_MARGIN) - Evaluate.E;
+				makespanBounds[i] = Math.max(i > 0 ? makespanBounds[i-1] : 0, bound);
+				if(isBounded){
+					double vmCostBound = sol.calcVMCostLowerBound(vmIndex);
+					costBound += vmCostBound - vmCostBounds[vmIndex];
+					vmCostBounds[vmIndex] = vmCostBound;
+					if(isDominated(costBound, makespanBounds[i])){
+						Arrays.fill(decodedVms, i + 1, dimension, -1);	//not in sol
+						return false;
+					}
+				}
+			}
+			if(cache != null && !isCached)
+				cache.put(vms, sol.calcCost(), sol.calcMakespan());
 			
 			//record the best solution this particle has found
 			if (bestSol==null || this.sol.isBetterThan(bestSol, wf.getDeadline())){
 				for (int j = 0; j < dimension; j++)
 					this.bestPos[j] = this.position[j];	
-				this.bestSol = this.sol;	
+				if(bestSol == null)
+					bestSol = new ArraySolution(graph, vmPool, isInsertion);
+				this.bestSol.copyFrom(this.sol);	
+				this.bestCost = bestSol.calcCost();
+				this.bestMakespan = bestSol.calcMakespan();
 			}
+			return true;
+		}
+		
+		//whether any solution with these lower bounds is not better than bestSol under the rule of isBetterThan.
+		//costBound is a running sum, so it is checked again by the exact sum in the order of calcCost
+		private boolean isDominated(double costBound, double makespanBound){
+			double deadline = wf.getDeadline();
+			if(bestMakespan <= deadline)		//only a cheaper solution meeting the deadline is better
+				return makespanBound > deadline
+						|| (costBound >= bestCost * (1 - BOUND_MARGIN) && sol.calcCostLowerBound() >= bestCost);
+			return makespanBound >= bestMakespan;	//only a shorter one is better, as bestMakespan misses the deadline
 		}
 
 		public String toString() {
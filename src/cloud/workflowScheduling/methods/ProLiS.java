@@ -16,24 +16,26 @@ public class ProLiS implements Scheduler {
 	}
 	
 	public Solution schedule(Workflow wf) {
-		wf.calcPURank(theta);
-		List<Task> tasks = new ArrayList<Task>(wf);
-		Collections.sort(tasks, new Task.PURankComparator()); 	
-		Collections.reverse(tasks);	//sort based on pURank, larger first
+		ScheduleContext context = new ScheduleContext(wf);
+		int[] order = wf.calcPURankOrder(theta, context);	//sort based on pURank, larger first
+		List<Task> tasks = new ArrayList<Task>(order.length);
+		for(int index : order)
+			tasks.add(context.getGraph().getTask(index));
 		
-		return buildViaTaskList(wf, tasks, wf.getDeadline());
+		return buildViaTaskList(context, tasks, wf.getDeadline());
 	}
 	
 	//build a solution based on a task ordering.
-	//that is, for a given task ordering, distribute deadline and select services here
-	public Solution buildViaTaskList(Workflow wf, List<Task> tasks, double deadline) {
+	//that is, for a given task ordering, distribute deadline and select services here; pURank is read from context
+	public Solution buildViaTaskList(ScheduleContext context, List<Task> tasks, double deadline) {
+		Workflow wf = context.getWorkflow();
 		int violationCount = 0;		// test code
 		Solution solution = new Solution();
-		double CPLength = wf.get(0).getpURank(); 	//critical path
+		double CPLength = context.getpURank(wf.get(0)); 	//critical path
 		
 		for(int i = 1; i < tasks.size(); i++){		
 			Task task = tasks.get(i);
-			double proSubDeadline = (CPLength - task.getpURank() + task.getTaskSize()/VM.SPEEDS[VM.FASTEST])
+			double proSubDeadline = (CPLength - context.getpURank(task) + task.getTaskSize()/VM.SPEEDS[VM.FASTEST])
 							/CPLength * deadline;
 			Allocation alloc = getMinCostVM(task, solution,proSubDeadline, i);
 
@@ -43,7 +45,9 @@ public class ProLiS implements Scheduler {
 				
 				VM vm = alloc.getVM();
 				while(alloc.getFinishTime() > proSubDeadline + Evaluate.E && vm.getType() < VM.FASTEST){
-					solution.updateVM(vm);			//upgradeĸ£ӶȽ̫ࡣ
+					//updateVM returns the upgraded VM, which is a copy taking the place of vm if solution is a fork
+					vm = solution.updateVM(vm);			//upgradeĸ£ӶȽ̫ࡣ
+					alloc.setVM(vm);
 					alloc.setStartTime(solution.calcEST(task, vm));
 					alloc.setFinishTime(solution.calcEST(task, vm) + task.getTaskSize()/vm.getSpeed());
 				}
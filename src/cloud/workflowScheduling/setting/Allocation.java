@@ -8,6 +8,7 @@ public class Allocation implements Serializable{
 	private VM vm;
 	private double startTime; //ylw190426 Ŀʼʱͽʱ
 	private double finishTime;
+	private int slot;		//of a multi-slot VM; 0 otherwise
 	
 	public Allocation() {}
 	public Allocation(VM vm, Task task, double startTime, double finishTime) { //
@@ -37,6 +38,9 @@ public class Allocation implements Serializable{
 	public double getFinishTime() {
 		return finishTime;
 	}
+	public int getSlot() {
+		return slot;
+	}
 	public void setVM(VM vm) {
 		this.vm = vm;
 	}
@@ -49,6 +53,9 @@ public class Allocation implements Serializable{
 	public void setFinishTime(double finishTime) {
 		this.finishTime = finishTime;
 	}
+	public void setSlot(int slot) {
+		this.slot = slot;
+	}
 	
 	//-------------------------------------overrides--------------------------------
 	public String toString() {
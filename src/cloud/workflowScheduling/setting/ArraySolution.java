@@ -0,0 +1,365 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import cloud.workflowScheduling.*;
+
+//a schedule kept in primitive arrays, for decoders which build many solutions (e.g., a particle of PSO in each iteration).
+//Tasks are WorkflowGraph indices and VMs are indices into a fixed pool; the VM of a task, its start and finish time are
+//arrays indexed by the task, and the tasks of a VM are an int list in the order they were added, like the Allocation list
+//of Solution. A decoder reuses one instance by reset(), so decoding allocates nothing.
+//In the insertion mode, a task may also be placed into an idle gap between the tasks of a VM (found by FreeSlots), and
+//the task list of a VM is kept in time order.
+//Queries give the same values as the same schedule in Solution: calcCost sums the VMs in the order they were first used,
+//as Solution (a LinkedHashMap) does, and transfer times are those of WorkflowGraph
+public class ArraySolution {
+
+	private final WorkflowGraph graph;
+	private final VM[] vms;
+	private final IdentityHashMap<VM, Integer> vmIndex = new IdentityHashMap<VM, Integer>();
+
+	private final int[] taskToVm;			//-1: not assigned
+	private final double[] startTime, finishTime;
+	private final int[][] vmTasks;			//tasks of VM v are vmTasks[v][0] ... vmTasks[v][vmTaskNum[v]-1]; allocated on first use
+	private final int[] vmTaskNum;
+	private final int[] usedVms;			//VMs with tasks, in the order they were first used
+	private int usedVmNum;
+	private int assignedNum;
+	private final FreeSlots[] slots;		//insertion mode: idle gaps of each VM, allocated on first use; null otherwise
+
+	public ArraySolution(WorkflowGraph graph, VM[] vms) {
+		this(graph, vms, false);
+	}
+	public ArraySolution(WorkflowGraph graph, VM[] vms, boolean isInsertion) {
+		this.graph = graph;
+		this.vms = vms;
+		this.slots = isInsertion ? new FreeSlots[vms.length] : null;
+		for(int v = 0; v < vms.length; v++){
+			if(vms[v].getSlotNum() > 1)
+				throw new RuntimeException("Multi-slot " + vms[v] + " is not supported by ArraySolution");
+			vmIndex.put(vms[v], v);
+		}
+		int n = graph.size();
+		taskToVm = new int[n];
+		Arrays.fill(taskToVm, -1);
+		startTime = new double[n];
+		finishTime = new double[n];
+		vmTasks = new int[vms.length][];
+		vmTaskNum = new int[vms.length];
+		usedVms = new int[vms.length];
+	}
+
+	//removes all tasks; the VM pool is kept
+	public void reset(){
+		for(int k = 0; k < usedVmNum; k++){
+			vmTaskNum[usedVms[k]] = 0;
+			if(slots != null)
+				slots[usedVms[k]].clear();
+		}
+		usedVmNum = 0;
+		assignedNum = 0;
+		Arrays.fill(taskToVm, -1);
+	}
+
+	//a copy of s into this solution; both must be on the same graph and VM pool
+	public void copyFrom(ArraySolution s){
+		if(s.graph != graph || s.vms != vms || (s.slots == null) != (slots == null))
+			throw new RuntimeException("Solutions on different workflows, VM pools or modes");
+		reset();
+		System.arraycopy(s.taskToVm, 0, taskToVm, 0, taskToVm.length);
+		System.arraycopy(s.startTime, 0, startTime, 0, startTime.length);
+		System.arraycopy(s.finishTime, 0, finishTime, 0, finishTime.length);
+		for(int k = 0; k < s.usedVmNum; k++){
+			int v = s.usedVms[k];
+			ensureCapacity(v, s.vmTaskNum[v]);
+			System.arraycopy(s.vmTasks[v], 0, vmTasks[v], 0, s.vmTaskNum[v]);
+			vmTaskNum[v] = s.vmTaskNum[v];
+			usedVms[k] = v;
+			if(slots != null){
+				if(slots[v] == null)
+					slots[v] = new FreeSlots();
+				slots[v].copyFrom(s.slots[v]);
+			}
+		}
+		usedVmNum = s.usedVmNum;
+		assignedNum = s.assignedNum;
+	}
+
+	//----------------------------------------add a task-------------------------------------------
+	//places task on vm: at the end, where it must not start before the last task of vm finishes;
+	//or in the insertion mode, between the tasks of vm in time order, where it must not overlap them
+	public void addTask(int task, int vm, double startTime){
+		if(taskToVm[task] >= 0)
+			throw new RuntimeException("Task " + graph.getId(task) + " has been assigned");
+		int num = vmTaskNum[vm];
+		double finishTime = startTime + graph.getTaskSize(task) / vms[vm].getSpeed();
+		int position = slots == null ? num : upperBound(vm, startTime);
+		if(position > 0 && startTime + Evaluate.E < this.finishTime[vmTasks[vm][position-1]])
+			throw new RuntimeException("Critical Error: Allocation conflicts");
+		if(position < num && finishTime > this.startTime[vmTasks[vm][position]] + Evaluate.E)
+			throw new RuntimeException("Critical Error: Allocation conflicts");
+		if(num == 0)
+			usedVms[usedVmNum++] = vm;
+		ensureCapacity(vm, num + 1);
+		System.arraycopy(vmTasks[vm], position, vmTasks[vm], position + 1, num - position);
+		vmTasks[vm][position] = task;
+		vmTaskNum[vm] = num + 1;
+		taskToVm[task] = vm;
+		this.startTime[task] = startTime;
+		this.finishTime[task] = finishTime;
+		assignedNum++;
+		if(slots != null){
+			if(slots[vm] == null)
+				slots[vm] = new FreeSlots();
+			if(slots[vm].isOrdered())
+				slots[vm].occupy(startTime, finishTime);
+			if(slots[vm].isOrdered() == false)		//tasks overlap by up to Evaluate.E; the gaps follow the task list
+				slots[vm].reset(this.startTime, this.finishTime, vmTasks[vm], vmTaskNum[vm]);
+		}
+	}
+
+	//----------------------------------------remove tasks-------------------------------------------
+	//removes the tasks from index from on, which must have been added after the others, e.g., by a decoder going
+	//through the graph in order; decoding them again gives the same solution as decoding all the tasks
+	public void removeTasks(int from){
+		for(int task = taskToVm.length - 1; task >= from; task--){
+			int vm = taskToVm[task];
+			if(vm < 0)
+				continue;
+			int num = vmTaskNum[vm], position = num - 1;
+			while(slots != null && vmTasks[vm][position] != task)		//inserted before later tasks
+				position--;
+			if(vmTasks[vm][position] != task)
+				throw new RuntimeException("Task " + graph.getId(task) + " is not the last task of its VM");
+			System.arraycopy(vmTasks[vm], position + 1, vmTasks[vm], position, num - position - 1);
+			vmTaskNum[vm] = num - 1;
+			taskToVm[task] = -1;
+			assignedNum--;
+			if(slots != null && slots[vm].isOrdered())
+				slots[vm].release(position);
+			else if(slots != null)
+				slots[vm].reset(startTime, finishTime, vmTasks[vm], vmTaskNum[vm]);
+		}
+		int k = 0;
+		for(int j = 0; j < usedVmNum; j++)		//in the order of first use, as the remaining tasks were added first
+			if(vmTaskNum[usedVms[j]] > 0)
+				usedVms[k++] = usedVms[j];
+		usedVmNum = k;
+	}
+
+	//the number of tasks of vm starting at or before time
+	private int upperBound(int vm, double time){
+		int low = 0, high = vmTaskNum[vm];
+		if(high == 0 || startTime[vmTasks[vm][high-1]] <= time)		//the usual case: after the last task
+			return high;
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(startTime[vmTasks[vm][mid]] <= time)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	private void ensureCapacity(int vm, int capacity){
+		if(vmTasks[vm] == null)
+			vmTasks[vm] = new int[Math.max(8, capacity)];
+		else if(vmTasks[vm].length < capacity)
+			vmTasks[vm] = Arrays.copyOf(vmTasks[vm], Math.max(capacity, vmTasks[vm].length * 2));
+	}
+
+	//----------------------------------------calculations-------------------------------------------
+	//Earliest Starting Time of task on vm; vm = -1 for a new VM. All parents must have been assigned.
+	//In the insertion mode, the earliest time in an idle gap of vm which fits the task
+	public double calcEST(int task, int vm){
+		double EST = 0;
+		for(int k = graph.getParentOffset(task), end = graph.getParentOffset(task+1); k < end; k++){
+			int parent = graph.getParent(k);
+			double arrivalTime = finishTime[parent];
+			if(taskToVm[parent] != vm)
+				arrivalTime += graph.getParentTransferTime(k);
+			EST = Math.max(EST, arrivalTime);
+		}
+		if(vm < 0 || vmTaskNum[vm] == 0)
+			EST = Math.max(EST, VM.LAUNCH_TIME);
+		else if(slots != null)
+			EST = slots[vm].search(EST, graph.getTaskSize(task) / vms[vm].getSpeed(), Double.MAX_VALUE);
+		else
+			EST = Math.max(EST, getVMReadyTime(vm));
+		return EST;
+	}
+	public double calcEST(Task task, VM vm){
+		return calcEST(checkedIndexOf(task), vm == null ? -1 : checkedIndexOf(vm));
+	}
+
+	public double calcCost(){
+		double totalCost = 0;
+		for(int k = 0; k < usedVmNum; k++)
+			totalCost += calcVMCost(usedVms[k]);
+		return totalCost;
+	}
+	public double calcVMCost(int vm){
+		return vms[vm].getUnitCost() * Math.ceil((getVMLeaseEndTime(vm) - getVMLeaseStartTime(vm))/VM.INTERVAL);
+	}
+	//a lower bound on the cost of this solution after more tasks are added: each VM leased only from the start of its
+	//first task to the finish of its last one, summed in the order of calcCost. Adding a task never makes it smaller
+	public double calcCostLowerBound(){
+		double totalCost = 0;
+		for(int k = 0; k < usedVmNum; k++)
+			totalCost += calcVMCostLowerBound(usedVms[k]);
+		return totalCost;
+	}
+	public double calcVMCostLowerBound(int vm){
+		if(vmTaskNum[vm] == 0)
+			return 0;
+		double leaseTime = getVMReadyTime(vm) - startTime[vmTasks[vm][0]];
+		return vms[vm].getUnitCost() * Math.ceil(leaseTime/VM.INTERVAL);
+	}
+
+	public double calcMakespan(){
+		double makespan = -1;
+		for(int k = 0; k < usedVmNum; k++)
+			makespan = Math.max(makespan, getVMReadyTime(usedVms[k]));
+		return makespan;
+	}
+
+	//the same rule as Solution.isBetterThan; if ==, returns false
+	public boolean isBetterThan(ArraySolution s, double epsilonDeadline){
+		return BatchEvaluator.isBetterThan(calcCost(), calcMakespan(), s.calcCost(), s.calcMakespan(), epsilonDeadline);
+	}
+
+	//check whether every task is assigned and every edge is respected, as Solution.validate
+	public boolean validate(Workflow wf){
+		if(assignedNum != wf.size())
+			return false;
+		for(int j = 0; j < graph.size(); j++){
+			for(int k = graph.getChildOffset(j), end = graph.getChildOffset(j+1); k < end; k++){
+				int child = graph.getChild(k);
+				double arrivalTime = finishTime[j] + (taskToVm[j] != taskToVm[child] ? graph.getChildTransferTime(k) : 0);
+				if(arrivalTime > startTime[child] + Evaluate.E)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	//----------------------------------------conversions-------------------------------------------
+	//the same schedule as a Solution, with new Allocations on the VMs of the pool
+	public Solution toSolution(){
+		Solution sol = new Solution();		//resets VM ids as the decoders building Solutions did
+		for(int k = 0; k < usedVmNum; k++){
+			int v = usedVms[k];
+			LinkedList<Allocation> list = new LinkedList<Allocation>();
+			for(int i = 0; i < vmTaskNum[v]; i++){
+				int task = vmTasks[v][i];
+				Allocation alloc = new Allocation(vms[v], graph.getTask(task), startTime[task], finishTime[task]);
+				list.add(alloc);
+				sol.getRevMapping().put(alloc.getTask(), alloc);
+			}
+			sol.put(vms[v], list);
+		}
+		return sol;
+	}
+	//the same schedule as an ArraySolution on graph; the VM pool consists of the VMs of sol, in its order
+	public static ArraySolution of(Solution sol, WorkflowGraph graph){
+		ArraySolution s = new ArraySolution(graph, sol.keySet().toArray(new VM[sol.size()]));
+		for(int v = 0; v < s.vms.length; v++){
+			for(Allocation alloc : sol.get(s.vms[v])){
+				int task = s.checkedIndexOf(alloc.getTask());
+				if(s.taskToVm[task] >= 0)
+					throw new RuntimeException("Task " + alloc.getTask().getId() + " has been assigned");
+				if(s.vmTaskNum[v] == 0)
+					s.usedVms[s.usedVmNum++] = v;
+				s.ensureCapacity(v, s.vmTaskNum[v] + 1);
+				s.vmTasks[v][s.vmTaskNum[v]++] = task;
+				s.taskToVm[task] = v;
+				s.startTime[task] = alloc.getStartTime();
+				s.finishTime[task] = alloc.getFinishTime();
+				s.assignedNum++;
+			}
+		}
+		return s;
+	}
+
+	private int checkedIndexOf(Task task){
+		int index = graph.indexOf(task);
+		if(index < 0)
+			throw new RuntimeException("Task " + task.getId() + " does not belong to the workflow of this solution");
+		return index;
+	}
+	private int checkedIndexOf(VM vm){
+		Integer index = vmIndex.get(vm);
+		if(index == null)
+			throw new RuntimeException(vm + " is not in the VM pool of this solution");
+		return index;
+	}
+
+	//----------------------------------------getters-------------------------------------------
+	//VM's lease start time and finish time are calculated based on the first and last task, as in Solution
+	public double getVMLeaseStartTime(int vm){
+		if(vmTaskNum[vm] == 0)
+			return VM.LAUNCH_TIME;
+		int firstTask = vmTasks[vm][0];
+		double maxTransferTime = 0;
+		for(int k = graph.getParentOffset(firstTask), end = graph.getParentOffset(firstTask+1); k < end; k++)
+			if(taskToVm[graph.getParent(k)] != vm)		// parentTask's VM != vm
+				maxTransferTime = Math.max(maxTransferTime, graph.getParentTransferTime(k));
+		return startTime[firstTask] - maxTransferTime;
+	}
+	public double getVMLeaseEndTime(int vm){
+		if(vmTaskNum[vm] == 0)
+			return VM.LAUNCH_TIME;
+		int lastTask = vmTasks[vm][vmTaskNum[vm]-1];
+		double maxTransferTime = 0;
+		for(int k = graph.getChildOffset(lastTask), end = graph.getChildOffset(lastTask+1); k < end; k++)
+			if(taskToVm[graph.getChild(k)] != vm)		// childTask's VM != vm
+				maxTransferTime = Math.max(maxTransferTime, graph.getChildTransferTime(k));
+		return finishTime[lastTask] + maxTransferTime;
+	}
+	public double getVMReadyTime(int vm){		//finish time of the last task
+		if(vmTaskNum[vm] == 0)
+			return VM.LAUNCH_TIME;
+		return finishTime[vmTasks[vm][vmTaskNum[vm]-1]];
+	}
+	public WorkflowGraph getGraph() {
+		return graph;
+	}
+	public VM getVMOfPool(int vm) {
+		return vms[vm];
+	}
+	public int getVMNum() {
+		return vms.length;
+	}
+	//-1 if task has not been assigned
+	public int getVM(int task) {
+		return taskToVm[task];
+	}
+	public double getStartTime(int task) {
+		return startTime[task];
+	}
+	public double getFinishTime(int task) {
+		return finishTime[task];
+	}
+	public int getVMTaskNum(int vm) {
+		return vmTaskNum[vm];
+	}
+	public int getVMTask(int vm, int i) {
+		return vmTasks[vm][i];
+	}
+	public boolean isInsertion() {
+		return slots != null;
+	}
+	public int getUsedVMNum() {
+		return usedVmNum;
+	}
+	//the k-th VM used
+	public int getUsedVM(int k) {
+		return usedVms[k];
+	}
+
+	//----------------------------------------override-------------------------------------------
+	public String toString() {
+		return "required cost：" + this.calcCost() + "\trequired time：" + this.calcMakespan() + "\r\n";
+	}
+}
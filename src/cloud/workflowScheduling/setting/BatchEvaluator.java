@@ -0,0 +1,120 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.concurrent.*;
+
+//fitness of many particles of a swarm scheduler at once. The positions of n particles are rows of one array
+//positions[n * dimension]: position[i * dimension + j] is the VM (its floor, an index into the pool) of graph index j in
+//particle i. A particle is decoded as PSO does, i.e., the tasks in graph order, each at its earliest start time on its VM,
+//and its cost, makespan and whether it meets the deadline are written into the output arrays at i.
+//Each thread decodes into its own ArraySolution, so a batch allocates nothing after the first one; large batches are
+//split on a ForkJoinPool. The results do not depend on the split
+public class BatchEvaluator {
+	//batches with fewer tasks in total are evaluated sequentially; package-private for tests
+	static int parallelThreshold = 20000;
+
+	private final WorkflowGraph graph;
+	private final VM[] vmPool;
+	private final boolean isInsertion;
+	private final double deadline;
+	private final int dimension;
+	private final ForkJoinPool pool;			//null: always sequential
+	private final ThreadLocal<ArraySolution> scratch;
+
+	public BatchEvaluator(WorkflowGraph graph, VM[] vmPool, boolean isInsertion, double deadline) {
+		this(graph, vmPool, isInsertion, deadline, ForkJoinPool.commonPool());
+	}
+	public BatchEvaluator(WorkflowGraph graph, VM[] vmPool, boolean isInsertion, double deadline, ForkJoinPool pool) {
+		this.graph = graph;
+		this.vmPool = vmPool;
+		this.isInsertion = isInsertion;
+		this.deadline = deadline;
+		this.dimension = graph.size();
+		this.pool = pool;
+		this.scratch = ThreadLocal.withInitial(() -> new ArraySolution(graph, vmPool, isInsertion));
+	}
+
+	//evaluates particles 0 ... n-1
+	public void evaluate(double[] positions, int n, double[] costs, double[] makespans, boolean[] feasible){
+		if(positions.length < n * dimension || costs.length < n || makespans.length < n || feasible.length < n)
+			throw new RuntimeException("Arrays are too short for " + n + " particles");
+		if(pool == null || (long)n * dimension < parallelThreshold || n < 2){
+			for(int i = 0; i < n; i++)
+				evaluateRow(positions, i, costs, makespans, feasible);
+		}else{
+			pool.invoke(new Chunk(positions, 0, n, costs, makespans, feasible));
+		}
+	}
+
+	//evaluates particle i only, e.g., by a scheduler which updates the swarm one particle at a time
+	public void evaluateRow(double[] positions, int i, double[] costs, double[] makespans, boolean[] feasible){
+		ArraySolution sol = scratch.get();
+		decode(positions, i * dimension, sol);
+		costs[i] = sol.calcCost();
+		makespans[i] = sol.calcMakespan();
+		feasible[i] = makespans[i] <= deadline;
+	}
+
+	//decodes the position at positions[offset ... offset+dimension-1] into sol, which is reset first
+	public void decode(double[] positions, int offset, ArraySolution sol){
+		sol.reset();
+		for(int j = 0; j < dimension; j++){		//graph indices are a topological sort
+			int vm = (int)Math.floor(positions[offset + j]);
+			if(vm < 0 || vm >= vmPool.length)
+				throw new RuntimeException("Position " + positions[offset + j] + " is out of the VM pool");
+			sol.addTask(j, vm, sol.calcEST(j, vm));
+		}
+	}
+	//the schedule of a position as a Solution, e.g., of the global best particle at the end
+	public Solution toSolution(double[] positions, int offset){
+		ArraySolution sol = new ArraySolution(graph, vmPool, isInsertion);
+		decode(positions, offset, sol);
+		return sol.toSolution();
+	}
+
+	//the rule of Solution.isBetterThan on evaluated values: a feasible solution is better than an infeasible one;
+	//of two feasible ones, the cheaper; of two infeasible ones, the shorter. If ==, returns false
+	public static boolean isBetterThan(double cost1, double makespan1, double cost2, double makespan2,
+			double epsilonDeadline){
+		if(makespan1 <= epsilonDeadline && makespan2 <= epsilonDeadline)	//both satisfy deadline
+			return cost1 < cost2;
+		else if(makespan1 > epsilonDeadline && makespan2 > epsilonDeadline)	//both does not satisfy
+			return makespan1 < makespan2;
+		else if(makespan1 > epsilonDeadline && makespan2 <= epsilonDeadline)	//1 doesn't, 2 satisfies
+			return false;
+		return true;
+	}
+
+	private class Chunk extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+		private final double[] positions, costs, makespans;
+		private final boolean[] feasible;
+		private final int from, to;
+
+		Chunk(double[] positions, int from, int to, double[] costs, double[] makespans, boolean[] feasible){
+			this.positions = positions;
+			this.from = from;
+			this.to = to;
+			this.costs = costs;
+			this.makespans = makespans;
+			this.feasible = feasible;
+		}
+		protected void compute(){
+			if(to - from < 2 || (long)(to - from) * dimension < parallelThreshold){
+				for(int i = from; i < to; i++)
+					evaluateRow(positions, i, costs, makespans, feasible);
+			}else{
+				int mid = (from + to) >>> 1;
+				invokeAll(new Chunk(positions, from, mid, costs, makespans, feasible),
+						new Chunk(positions, mid, to, costs, makespans, feasible));
+			}
+		}
+	}
+
+	//-------------------------------------getters--------------------------------
+	public int getDimension() {
+		return dimension;
+	}
+	public double getDeadline() {
+		return deadline;
+	}
+}
@@ -0,0 +1,202 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import javax.xml.parsers.*;
+import org.xml.sax.*;
+import org.xml.sax.helpers.*;
+
+//streaming reader of DAX files, used by the constructor of Workflow; files ending with ".gz" are read as gzip.
+//Job ids and file names are interned to ints while parsing, and jobs, "uses" and "parent" elements go to primitive arrays;
+//no per-file objects are created. All parse-only data are dropped by bind(), after which the loader holds nothing.
+//The two HashMaps get the same keys in the same order as the former HashMap<String, Task> and HashMap<String, TransferData>,
+//so tasks and data flows are visited in the same order as before and the resulting workflow is identical
+class DaxLoader extends DefaultHandler{
+
+	private HashMap<String, Integer> jobIndex = new HashMap<String, Integer>();
+	private HashMap<String, Integer> fileIndex = new HashMap<String, Integer>();	//前提： fileName必须可作为标示
+
+	private String[] jobNames = new String[16];
+	private double[] runtimes = new double[16];
+	private int jobNum = 0;
+
+	private long[] fileSizes = new long[16];		//size in the first "uses" element of a file
+	private int[] fileSources = new int[16];		//the job outputting a file; -1 if none
+	private int fileNum = 0;
+
+	private int[] inputFiles = new int[16], inputJobs = new int[16];	//"uses" elements with link="input", in document order
+	private int inputNum = 0;
+
+	private int[] edgeParents = new int[16], edgeChildren = new int[16];	//control flows, in document order
+	private int edgeNum = 0;
+
+	private Task[] tasks;
+
+	//state of parsing, instead of a stack of tag names
+	private int depth = 0;
+	private int jobDepth = -1;		//depth of the current "job" element; -1 if outside a job
+	private int lastJob = -1;
+	private int childJob = -1;
+
+	void parse(String file) throws Exception {
+		InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+		try{
+			if(file.endsWith(".gz"))
+				in = new GZIPInputStream(in, 1 << 16);
+			SAXParser sp = SAXParserFactory.newInstance().newSAXParser();
+			sp.parse(new InputSource(in), this);
+		}finally{
+			in.close();
+		}
+	}
+
+	//creates tasks and control flows; tasks are returned in the iteration order of the job ids (same as before)
+	List<Task> createTasks(){
+		tasks = new Task[jobNum];
+		for(int i = 0; i < jobNum; i++)		//task ids follow the document order
+			tasks[i] = new Task(jobNames[i], runtimes[i]);
+		jobNames = null;
+		runtimes = null;
+		for(int k = 0; k < edgeNum; k++){
+			Edge e = new Edge(tasks[edgeParents[k]], tasks[edgeChildren[k]]);		//control flow
+			tasks[edgeParents[k]].insertOutEdge(e);
+			tasks[edgeChildren[k]].insertInEdge(e);
+		}
+		edgeParents = null;
+		edgeChildren = null;
+
+		List<Task> list = new ArrayList<Task>(jobNum);
+		for(int index : jobIndex.values())
+			list.add(tasks[index]);
+		jobIndex = null;
+		return list;
+	}
+
+	// Bind data flow to control flow; entry and exit have been connected to the tasks without parents/children
+	void bind(Task tentry, Task texit){
+		//group inputs by file (stable counting sort), i.e., the destinations of each file in document order
+		int[] offsets = new int[fileNum + 1];
+		for(int k = 0; k < inputNum; k++)
+			offsets[inputFiles[k] + 1]++;
+		for(int f = 0; f < fileNum; f++)
+			offsets[f + 1] += offsets[f];
+		int[] destinations = new int[inputNum];
+		int[] next = Arrays.copyOf(offsets, fileNum);
+		for(int k = 0; k < inputNum; k++)
+			destinations[next[inputFiles[k]]++] = inputJobs[k];
+		inputFiles = null;
+		inputJobs = null;
+
+		for(int f : fileIndex.values()){	//Bind data flow to control flow, in the iteration order of file names
+			long size = fileSizes[f];
+			Task source = fileSources[f] < 0 ? null : tasks[fileSources[f]];
+			if(source == null){ //task的输入文件中有本地文件，真正的入口可能不在里面
+				source = tentry; //这些task下面建立了和dummy entry的链接，传输数据没有设置为0
+				size = 0;		//a setting: transfer time of input data is omitted --- setting to 0
+			}
+			int from = offsets[f], to = offsets[f + 1];
+			if(from == to)	//task的输出文件未被其他任务使用（本地文件），真正的出口可能不在里面
+				size = 0;		//传输数据修改为0 190905ylw
+			for(int k = from; k < Math.max(to, from + 1); k++){
+				Task destination = from == to ? texit : tasks[destinations[k]];	//这些task下面建立了和dummy exit的链接
+				boolean flag = true;
+				for(Edge outEdge : source.getOutEdges()){
+					if(outEdge.getDestination() == destination){
+						outEdge.setDataSize(size);			//bind here
+						flag = false;
+					}
+				}
+				//an annoying problem in some DAX files: a data flow cannot be bound to existing control flows
+				//flag to indicate whether this problem exists
+				//因为本地文件的存在造成了这种problem, 下面其实添加了本地文件的控制流，源是虚拟入口，目的地是本地文件的目的task;
+				//																或者源是本地文件产生的task, 目的地是虚拟出口
+				if(flag == true){
+					Edge e = new Edge(source, destination);
+					e.setDataSize(size);
+					source.insertOutEdge(e);
+					destination.insertInEdge(e);
+				}
+			}
+		}
+		fileIndex = null;
+		fileSizes = null;
+		fileSources = null;
+		tasks = null;
+	}
+
+	//--------------------------SAX callbacks--------------------------------------------
+	public void startElement(String uri, String localName, String qName, Attributes attrs) {
+		if(qName.equals("job")){
+			String id = attrs.getValue("id");
+			if(jobIndex.containsKey(id))		//id conflicts
+				throw new RuntimeException("Duplicate job id: " + id);
+			double runtime = Double.parseDouble(attrs.getValue("runtime"));
+			if(runtime < 0) //ID00622的runtime=-0.18
+				runtime = 0-runtime;
+			if(runtime == 0) //ID00616的runtime=0
+				runtime = 0.0000001;
+			if(jobNum == runtimes.length){
+				jobNames = Arrays.copyOf(jobNames, jobNum * 2);
+				runtimes = Arrays.copyOf(runtimes, jobNum * 2);
+			}
+			jobNames[jobNum] = id;
+			runtimes[jobNum] = runtime;
+			jobIndex.put(id, jobNum);
+			lastJob = jobNum++;
+			jobDepth = depth;
+		}else if(qName.equals("uses") && jobDepth >= 0 && depth == jobDepth + 1){
+			//After reading the element "job", the element "uses" means a trasferData (i.e., data flow)
+			String filename = attrs.getValue("file");
+			long fileSize = Long.parseLong(attrs.getValue("size"));
+			if(fileSize < 0)
+				fileSize = 0-fileSize;
+			Integer f = fileIndex.get(filename);
+			if(f == null){
+				if(fileNum == fileSizes.length){
+					fileSizes = Arrays.copyOf(fileSizes, fileNum * 2);
+					fileSources = Arrays.copyOf(fileSources, fileNum * 2);
+				}
+				fileSizes[fileNum] = fileSize;
+				fileSources[fileNum] = -1;
+				f = fileNum++;
+				fileIndex.put(filename, f);
+			}
+			if(attrs.getValue("link").equals("input")){
+				if(inputNum == inputFiles.length){
+					inputFiles = Arrays.copyOf(inputFiles, inputNum * 2);
+					inputJobs = Arrays.copyOf(inputJobs, inputNum * 2);
+				}
+				inputFiles[inputNum] = f;
+				inputJobs[inputNum++] = lastJob;
+			}else{									//output
+				fileSources[f] = lastJob;
+			}
+		}else if(qName.equals("child") ){
+			Integer child = jobIndex.get(attrs.getValue("ref"));
+			childJob = child == null ? -1 : child;
+		}else if(qName.equals("parent") ){
+			//After reading the element "child", the element "parent" means an edge (i.e., control flow)
+			if(edgeNum == edgeParents.length){
+				edgeParents = Arrays.copyOf(edgeParents, edgeNum * 2);
+				edgeChildren = Arrays.copyOf(edgeChildren, edgeNum * 2);
+			}
+			if(childJob < 0)
+				throw new RuntimeException("Unknown child job of parent " + attrs.getValue("ref"));
+			edgeParents[edgeNum] = indexOfJob(attrs.getValue("ref"));
+			edgeChildren[edgeNum++] = childJob;
+		}
+		depth++;
+	}
+	public void endElement(String uri, String localName, String qName) {
+		depth--;
+		if(depth == jobDepth)
+			jobDepth = -1;
+	}
+	private int indexOfJob(String id){
+		Integer index = jobIndex.get(id);
+		if(index == null)
+			throw new RuntimeException("Unknown job id: " + id);
+		return index;
+	}
+}
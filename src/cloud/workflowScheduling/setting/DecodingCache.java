@@ -0,0 +1,135 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+//cost and makespan of decoded VM assignments, for decoders which often meet an assignment again (e.g., particles of a
+//swarm late in a run). An assignment is an array of indices into a VM pool, one per graph index. VMs of the same type
+//are interchangeable: relabelling them gives the same schedule, with the VMs used (and summed) in the same order.
+//So an assignment is canonicalized first: the VMs of a type are relabelled to the VMs of that type in pool order, in
+//the order they are first used. Keys keep a 64-bit hash, so unequal keys are rarely compared element by element.
+//The cache keeps the most recently used capacity entries
+public class DecodingCache {
+
+	private final int[] group;				//group[v]: the type group of pool index v
+	private final int[][] members;			//pool indices of each group, in pool order
+	private final int[] relabels;			//canonical label of each pool index in the current assignment; -1: not used yet
+	private final int[] nextMembers;		//the next canonical label to give in each group
+	private final int[] used;				//pool indices relabelled in the current assignment
+	private final int capacity;
+	private final LinkedHashMap<Key, double[]> entries;
+	private final Key probe = new Key(new int[0]);		//reused by every lookup
+	private long hits, misses;
+
+	public DecodingCache(VM[] vmPool, int capacity) {
+		if(capacity <= 0)
+			throw new RuntimeException("Invalid cache capacity: " + capacity);
+		this.capacity = capacity;
+		this.group = new int[vmPool.length];
+		Map<Integer, List<Integer>> types = new LinkedHashMap<Integer, List<Integer>>();
+		for(int v = 0; v < vmPool.length; v++)
+			types.computeIfAbsent(vmPool[v].getType(), t -> new ArrayList<Integer>()).add(v);
+		this.members = new int[types.size()][];
+		int g = 0;
+		for(List<Integer> list : types.values()){
+			members[g] = new int[list.size()];
+			for(int k = 0; k < list.size(); k++){
+				members[g][k] = list.get(k);
+				group[list.get(k)] = g;
+			}
+			g++;
+		}
+		this.relabels = new int[vmPool.length];
+		Arrays.fill(relabels, -1);
+		this.nextMembers = new int[members.length];
+		this.used = new int[vmPool.length];
+		this.entries = new LinkedHashMap<Key, double[]>(16, 0.75f, true){	//access order: the eldest is least recent
+			private static final long serialVersionUID = 1L;
+			protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+				return size() > DecodingCache.this.capacity;
+			}
+		};
+	}
+
+	//writes the cost and makespan of the assignment vms into result and returns true, if it is cached
+	public boolean get(int[] vms, double[] result){
+		canonicalize(vms, probe);
+		double[] values = entries.get(probe);
+		if(values == null){
+			misses++;
+			return false;
+		}
+		hits++;
+		result[0] = values[0];
+		result[1] = values[1];
+		return true;
+	}
+
+	public void put(int[] vms, double cost, double makespan){
+		Key key = new Key(new int[vms.length]);
+		canonicalize(vms, key);
+		entries.put(key, new double[]{cost, makespan});
+	}
+
+	//the canonical assignment of vms and its hash, written into key
+	private void canonicalize(int[] vms, Key key){
+		if(key.labels.length != vms.length)
+			key.labels = new int[vms.length];
+		int usedNum = 0;
+		long hash = vms.length;
+		for(int i = 0; i < vms.length; i++){
+			int v = vms[i];
+			if(relabels[v] < 0){
+				int g = group[v];
+				relabels[v] = members[g][nextMembers[g]++];
+				used[usedNum++] = v;
+			}
+			key.labels[i] = relabels[v];
+			hash = (hash ^ relabels[v]) * 0x9E3779B97F4A7C15L;
+		}
+		key.hash = hash ^ (hash >>> 31);
+		for(int k = 0; k < usedNum; k++){
+			relabels[used[k]] = -1;
+			nextMembers[group[used[k]]] = 0;
+		}
+	}
+
+	private static class Key{
+		private int[] labels;
+		private long hash;
+
+		Key(int[] labels) {
+			this.labels = labels;
+		}
+		public int hashCode() {
+			return (int)(hash ^ (hash >>> 32));
+		}
+		public boolean equals(Object obj) {
+			Key key = (Key) obj;
+			return hash == key.hash && Arrays.equals(labels, key.labels);
+		}
+	}
+
+	public void clear(){
+		entries.clear();
+		hits = misses = 0;
+	}
+
+	//-------------------------------------getters--------------------------------
+	public long getHits() {
+		return hits;
+	}
+	public long getMisses() {
+		return misses;
+	}
+	//hits / lookups; 0 before the first lookup
+	public double getHitRatio() {
+		return hits + misses == 0 ? 0 : hits / (double)(hits + misses);
+	}
+	public int size() {
+		return entries.size();
+	}
+	public String toString() {
+		return "DecodingCache [size=" + size() + ", hits=" + hits + ", misses=" + misses
+				+ String.format(", hitRatio=%.4f]", getHitRatio());
+	}
+}
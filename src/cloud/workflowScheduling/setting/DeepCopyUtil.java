@@ -5,33 +5,92 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
+//deep copies of scheduling state. Solutions, Allocations, lists and arrays are copied member by member; Tasks and Edges
+//(and VMs, unless Solution.deepcopy is given a map for their copies) are not changed by schedulers and are shared.
+//Other Serializable objects go through a serialization round trip, in which these shared objects are kept by reference
 public class DeepCopyUtil {
-	
-    public static <T> List<T> copy(List<T> srcs) throws IOException, ClassNotFoundException {  
-		List<T> dests = new ArrayList<T>();  
-		for(T src:srcs ){
-			   
-			T dest =  copy(src) ;
-			dests.add(dest);
-		} 
-	    return dests;          
-	}  
-    
-    public static <T> T copy(T src) throws IOException, ClassNotFoundException {  
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();  
-        ObjectOutputStream out;
-		
-		out = new ObjectOutputStream(byteOut);
-		out.writeObject(src);  
 
-        ByteArrayInputStream byteIn = new ByteArrayInputStream(byteOut.toByteArray());  
-        ObjectInputStream in = new ObjectInputStream(byteIn);  
-        @SuppressWarnings("unchecked")  
-        T dest = (T) in.readObject();  
-        return dest;  
-    }  
-    
-}
\ No newline at end of file
+    public static <T> List<T> copy(List<T> srcs) {
+		List<T> dests = srcs instanceof LinkedList ? new LinkedList<T>() : new ArrayList<T>(srcs.size());
+		for(T src : srcs)
+			dests.add(copy(src));
+	    return dests;
+	}
+
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(T src) {
+		if(src == null || src instanceof Task || src instanceof Edge || src instanceof VM
+				|| src instanceof Number || src instanceof String || src instanceof Boolean)
+			return src;
+		if(src instanceof Solution)
+			return (T) Solution.deepcopy((Solution) src);
+		if(src instanceof Allocation){
+			Allocation alloc = (Allocation) src;
+			Allocation copy = new Allocation(alloc.getVM(), alloc.getTask(), alloc.getStartTime(), alloc.getFinishTime());
+			copy.setSlot(alloc.getSlot());
+			return (T) copy;
+		}
+		if(src instanceof List)
+			return (T) copy((List<Object>) src);
+		if(src instanceof double[])
+			return (T) ((double[]) src).clone();
+		if(src instanceof int[])
+			return (T) ((int[]) src).clone();
+		if(src instanceof Object[]){
+			Object[] dest = ((Object[]) src).clone();
+			for(int i = 0; i < dest.length; i++)
+				dest[i] = copy(dest[i]);
+			return (T) dest;
+		}
+		if(src instanceof Serializable)
+			return copyBySerialization(src);
+		throw new RuntimeException("Can not copy " + src.getClass().getName());
+    }
+
+    //the former copy: writes src to a byte array and reads it back. Tasks, Edges and VMs are written as handles,
+    //so the copy refers to the same ones
+    public static <T> T copyBySerialization(T src) {
+		try{
+			List<Object> shared = new ArrayList<Object>();
+			ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(byteOut){
+				{ enableReplaceObject(true); }
+				protected Object replaceObject(Object obj) {
+					if(obj instanceof Task || obj instanceof Edge || obj instanceof VM){
+						shared.add(obj);
+						return new Handle(shared.size() - 1);
+					}
+					return obj;
+				}
+			};
+			out.writeObject(src);
+			out.close();
+
+			ByteArrayInputStream byteIn = new ByteArrayInputStream(byteOut.toByteArray());
+			ObjectInputStream in = new ObjectInputStream(byteIn){
+				{ enableResolveObject(true); }
+				protected Object resolveObject(Object obj) {
+					return obj instanceof Handle ? shared.get(((Handle) obj).index) : obj;
+				}
+			};
+			@SuppressWarnings("unchecked")
+			T dest = (T) in.readObject();
+			return dest;
+		}catch(IOException | ClassNotFoundException e){
+			throw new RuntimeException("Can not copy " + src.getClass().getName(), e);
+		}
+    }
+
+    private static class Handle implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final int index;
+		Handle(int index) {
+			this.index = index;
+		}
+    }
+}
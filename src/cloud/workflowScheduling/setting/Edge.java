@@ -35,19 +35,19 @@ public class Edge {
 	}
 	
 	//-------------------------------------comparator--------------------------------
-	//used by Workflow
+	//used by Workflow; compares edges by the position of their sources (or destinations) in a topological sort
 	static class EComparator implements Comparator<Edge>{
 		boolean isDestination;	// if true, compare destinations; otherwise, compare sources
-		List<Task> topoSort;
-		public EComparator(boolean isDestination, List<Task> topoSort){	
+		int[] topoPosition;		// position of each task in the topological sort, indexed by task id
+		public EComparator(boolean isDestination, int[] topoPosition){	
 			this.isDestination = isDestination;
-			this.topoSort = topoSort;
+			this.topoPosition = topoPosition;
 		}
 		public int compare(Edge o1, Edge o2) {
 			Task task1 = isDestination ? o1.getDestination() : o1.getSource();
 			Task task2 = isDestination ? o2.getDestination() : o2.getSource();
-			int index1 = topoSort.indexOf(task1);
-			int index2 = topoSort.indexOf(task2); 
+			int index1 = topoPosition[task1.getId()];
+			int index2 = topoPosition[task2.getId()]; 
 			if(index1 > index2)
 				return 1;
 			else if(index1 < index2)
@@ -0,0 +1,308 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+//the idle gaps of a VM, for insertion-based scheduling: "the earliest start time >= EST at which a task of a given duration
+//fits into a gap, starting no later than latestStart". A VM with allocations a_1 ... a_m (in time order) has the m+1 gaps
+//[0, a_1.start], [a_1.finish, a_2.start], ..., [a_m.finish, Double.MAX_VALUE], as scanned by ICPCP.searchStartTime.
+//The gaps are kept in a treap ordered by position, where every node also keeps the longest gap of its subtree; as both
+//the starts and the ends of the gaps ascend, a search is a few descents, O(log m), and so is occupying a part of a gap.
+//If the allocations are not in time order (e.g., overlapping by Evaluate.E), the gaps are scanned one by one, which gives
+//the same result as the scan
+public class FreeSlots {
+
+	//nodes 1 ... nodeNum; node 0 is null
+	private int[] left, right, size, priority;
+	private double[] start, end, maxLength;
+	private int nodeNum, root;
+	private int freeNode;				//nodes released by release, linked by left
+	private boolean isOrdered;
+	private int seed = 0x2545F491;		//for priorities; fixed, so a search does not depend on the order of runs
+	private int splitLeft, splitRight;	//results of split
+
+	//a VM without allocations: one gap [0, Double.MAX_VALUE]
+	public FreeSlots() {
+		allocate(16);
+		clear();
+	}
+	//the gaps around the allocations of list, in the order of list
+	public FreeSlots(List<Allocation> list) {
+		allocate(list.size() + 2);
+		reset(list);
+	}
+
+	private void allocate(int capacity){
+		left = new int[capacity];
+		right = new int[capacity];
+		size = new int[capacity];
+		priority = new int[capacity];
+		start = new double[capacity];
+		end = new double[capacity];
+		maxLength = new double[capacity];
+		maxLength[0] = Double.NEGATIVE_INFINITY;
+	}
+
+	//removes all allocations, keeping the memory
+	public void clear(){
+		nodeNum = 0;
+		freeNode = 0;
+		root = newNode(0, Double.MAX_VALUE);
+		isOrdered = true;
+	}
+	//the gaps around tasks[0 ... num-1], in this order, whose times are indexed by task
+	public void reset(double[] startTimes, double[] finishTimes, int[] tasks, int num){
+		nodeNum = 0;
+		freeNode = 0;
+		root = 0;
+		isOrdered = true;
+		double gapStart = 0;
+		for(int i = 0; i < num; i++){
+			append(gapStart, startTimes[tasks[i]]);
+			gapStart = finishTimes[tasks[i]];
+		}
+		append(gapStart, Double.MAX_VALUE);
+	}
+	//the gaps around the allocations of list, in the order of list
+	public void reset(List<Allocation> list){
+		nodeNum = 0;
+		freeNode = 0;
+		root = 0;
+		isOrdered = true;
+		double gapStart = 0;
+		for(Allocation alloc : list){
+			append(gapStart, alloc.getStartTime());
+			gapStart = alloc.getFinishTime();
+		}
+		append(gapStart, Double.MAX_VALUE);
+	}
+	private void append(double gapStart, double gapEnd){
+		if(root != 0){
+			int last = nodeAt(size[root] - 1);
+			if(gapStart < start[last] || gapEnd < end[last])
+				isOrdered = false;
+		}
+		root = merge(root, newNode(gapStart, gapEnd));
+	}
+	//this becomes a copy of slots
+	public void copyFrom(FreeSlots slots){
+		if(left.length < slots.nodeNum + 1)
+			allocate(slots.left.length);
+		int n = slots.nodeNum + 1;
+		System.arraycopy(slots.left, 0, left, 0, n);
+		System.arraycopy(slots.right, 0, right, 0, n);
+		System.arraycopy(slots.size, 0, size, 0, n);
+		System.arraycopy(slots.priority, 0, priority, 0, n);
+		System.arraycopy(slots.start, 0, start, 0, n);
+		System.arraycopy(slots.end, 0, end, 0, n);
+		System.arraycopy(slots.maxLength, 0, maxLength, 0, n);
+		nodeNum = slots.nodeNum;
+		root = slots.root;
+		freeNode = slots.freeNode;
+		isOrdered = slots.isOrdered;
+		seed = slots.seed;
+	}
+
+	//----------------------------------------search-------------------------------------------
+	//the earliest start time >= EST in a gap which is long enough for duration, among the gaps which start no later
+	//than latestStart; -1 if there is none. The conditions are evaluated as in ICPCP.searchStartTime
+	public double search(double EST, double duration, double latestStart){
+		if(!isOrdered)
+			return scan(root, EST, duration, latestStart);
+		//gaps starting at or before EST: the task starts at EST, and the first gap ending late enough is the answer
+		int beforeEST = countStartsAtMost(Math.min(EST, latestStart));
+		int i = firstEndFit(EST, duration);
+		if(i < beforeEST)
+			return EST;
+		//gaps starting after EST (and no later than latestStart): the task starts at the gap start; the first long enough
+		int from = countStartsAtMost(EST), to = countStartsAtMost(latestStart);
+		if(from < to){
+			i = firstLengthFit(root, 0, from, duration);
+			if(i >= 0 && i < to)
+				return start[nodeAt(i)];
+		}
+		return -1;
+	}
+
+	//the gap containing [startTime, finishTime] becomes the gaps before and after it
+	public void occupy(double startTime, double finishTime){
+		if(!isOrdered)
+			throw new RuntimeException("Free slots of unordered allocations can not be changed");
+		int i = Math.max(0, countStartsAtMost(startTime) - 1);	//the last gap starting at or before startTime
+		split(root, i);
+		int before = splitLeft;
+		split(splitRight, 1);
+		int gap = splitLeft, after = splitRight;
+		double gapEnd = end[gap];
+		if(startTime < start[gap] || startTime > gapEnd || (before != 0 && end[nodeAt(before, size[before] - 1)] > startTime)
+				|| (after != 0 && finishTime > start[nodeAt(after, 0)]))
+			isOrdered = false;	//the task overlaps others, the starts or ends of the gaps no longer ascend; later searches scan
+		end[gap] = startTime;
+		update(gap);
+		root = merge(merge(before, gap), merge(newNode(finishTime, gapEnd), after));
+	}
+	//the allocation between gap index and gap index+1 is removed: they become one gap
+	public void release(int index){
+		split(root, index);
+		int before = splitLeft;
+		split(splitRight, 2);
+		int pair = splitLeft, after = splitRight;
+		int first = nodeAt(pair, 0), second = nodeAt(pair, 1);
+		start[second] = start[first];
+		left[second] = right[second] = 0;
+		update(second);
+		root = merge(merge(before, second), after);
+		left[first] = freeNode;		//node first is reused by newNode
+		freeNode = first;
+	}
+
+	//the same loop as ICPCP.searchStartTime, over the gaps in order
+	private double scan(int t, double EST, double duration, double latestStart){
+		if(t == 0)
+			return -1;
+		double result = scan(left[t], EST, duration, latestStart);
+		if(result != -1)
+			return result;
+		if(latestStart >= start[t]){
+			double startTime = Math.max(start[t], EST);
+			if(end[t] - startTime >= duration)
+				return startTime;
+		}
+		return scan(right[t], EST, duration, latestStart);
+	}
+
+	//number of gaps starting at or before time
+	private int countStartsAtMost(double time){
+		int t = root, count = 0;
+		while(t != 0){
+			if(start[t] <= time){
+				count += size[left[t]] + 1;
+				t = right[t];
+			}else{
+				t = left[t];
+			}
+		}
+		return count;
+	}
+	//the first gap i with end_i - EST >= duration
+	private int firstEndFit(double EST, double duration){
+		int t = root, base = 0, result = size[root];
+		while(t != 0){
+			if(end[t] - EST >= duration){
+				result = base + size[left[t]];
+				t = left[t];
+			}else{
+				base += size[left[t]] + 1;
+				t = right[t];
+			}
+		}
+		return result;
+	}
+	//the first gap i >= from in subtree t (whose first gap is base) with end_i - start_i >= duration; -1 if none
+	private int firstLengthFit(int t, int base, int from, double duration){
+		if(t == 0 || maxLength[t] < duration)
+			return -1;
+		int index = base + size[left[t]];
+		if(from < index){
+			int result = firstLengthFit(left[t], base, from, duration);
+			if(result >= 0)
+				return result;
+		}
+		if(index >= from && end[t] - start[t] >= duration)
+			return index;
+		return firstLengthFit(right[t], index + 1, from, duration);
+	}
+
+	//----------------------------------------treap-------------------------------------------
+	private int newNode(double gapStart, double gapEnd){
+		int t;
+		if(freeNode != 0){
+			t = freeNode;
+			freeNode = left[t];
+		}else{
+			t = newNode();
+		}
+		seed ^= seed << 13;		//xorshift
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		priority[t] = seed;
+		left[t] = right[t] = 0;
+		start[t] = gapStart;
+		end[t] = gapEnd;
+		update(t);
+		return t;
+	}
+	private int newNode(){
+		if(nodeNum + 1 >= left.length){
+			int capacity = left.length * 2;
+			left = Arrays.copyOf(left, capacity);
+			right = Arrays.copyOf(right, capacity);
+			size = Arrays.copyOf(size, capacity);
+			priority = Arrays.copyOf(priority, capacity);
+			start = Arrays.copyOf(start, capacity);
+			end = Arrays.copyOf(end, capacity);
+			maxLength = Arrays.copyOf(maxLength, capacity);
+		}
+		return ++nodeNum;
+	}
+	private void update(int t){
+		size[t] = size[left[t]] + size[right[t]] + 1;
+		maxLength[t] = Math.max(end[t] - start[t], Math.max(maxLength[left[t]], maxLength[right[t]]));
+	}
+	private int merge(int a, int b){
+		if(a == 0)
+			return b;
+		if(b == 0)
+			return a;
+		if(priority[a] > priority[b]){
+			right[a] = merge(right[a], b);
+			update(a);
+			return a;
+		}
+		left[b] = merge(a, left[b]);
+		update(b);
+		return b;
+	}
+	//splits t into its first k gaps (splitLeft) and the others (splitRight)
+	private void split(int t, int k){
+		if(t == 0){
+			splitLeft = splitRight = 0;
+			return;
+		}
+		if(size[left[t]] >= k){
+			split(left[t], k);
+			left[t] = splitRight;
+			update(t);
+			splitRight = t;
+		}else{
+			split(right[t], k - size[left[t]] - 1);
+			right[t] = splitLeft;
+			update(t);
+			splitLeft = t;
+		}
+	}
+	private int nodeAt(int index){
+		return nodeAt(root, index);
+	}
+	private int nodeAt(int t, int index){
+		while(true){
+			int leftSize = size[left[t]];
+			if(index < leftSize){
+				t = left[t];
+			}else if(index == leftSize){
+				return t;
+			}else{
+				index -= leftSize + 1;
+				t = right[t];
+			}
+		}
+	}
+
+	//-------------------------------------getters--------------------------------
+	//number of gaps, i.e., allocations + 1
+	public int size() {
+		return size[root];
+	}
+	public boolean isOrdered() {
+		return isOrdered;
+	}
+}
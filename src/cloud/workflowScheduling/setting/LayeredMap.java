@@ -0,0 +1,115 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+//a map as the changes (overlay) to a base map which is shared with other LayeredMaps and never changed, e.g., the
+//revMapping of a forked Solution: forking costs the size of the changes, not of the base. A key removed from the base
+//is kept in the overlay with value null; thus null values are not supported.
+//The views (entrySet etc.) are read-only; put, remove and clear change the overlay only
+class LayeredMap<K, V> extends AbstractMap<K, V> {
+
+	private final Map<K, V> base;
+	private final HashMap<K, V> overlay;
+	private int size;
+
+	//a map with the content of base, which must not be changed any more
+	LayeredMap(Map<K, V> base) {
+		this.base = base;
+		this.overlay = new HashMap<K, V>();
+		this.size = base.size();
+	}
+	private LayeredMap(LayeredMap<K, V> m) {
+		this.base = m.base;
+		this.overlay = new HashMap<K, V>(m.overlay);
+		this.size = m.size;
+	}
+
+	//a map of the same content, sharing the base with this one; O(number of changes)
+	LayeredMap<K, V> copy(){
+		return new LayeredMap<K, V>(this);
+	}
+	//whether the overlay has grown to the size of the base, so that a plain copy costs no more than the changes so far
+	boolean isLarge(){
+		return overlay.size() >= base.size();
+	}
+
+	public V get(Object key) {
+		V value = overlay.get(key);
+		if(value != null || overlay.containsKey(key))
+			return value;
+		return base.get(key);
+	}
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+	public V put(K key, V value) {
+		if(value == null)
+			throw new NullPointerException("Null values are not supported");
+		V old = get(key);
+		overlay.put(key, value);
+		if(old == null)
+			size++;
+		return old;
+	}
+	@SuppressWarnings("unchecked")
+	public V remove(Object key) {
+		V old = get(key);
+		if(old == null)
+			return null;
+		if(base.containsKey(key))
+			overlay.put((K)key, null);
+		else
+			overlay.remove(key);
+		size--;
+		return old;
+	}
+	public void clear() {
+		overlay.clear();
+		for(K key : base.keySet())
+			overlay.put(key, null);
+		size = 0;
+	}
+	public int size() {
+		return size;
+	}
+
+	//the entries of the overlay, then those of the base not overridden
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			public Iterator<Map.Entry<K, V>> iterator() {
+				return new Iterator<Map.Entry<K, V>>() {
+					private final Iterator<Map.Entry<K, V>> overlayIt = overlay.entrySet().iterator();
+					private final Iterator<Map.Entry<K, V>> baseIt = base.entrySet().iterator();
+					private Map.Entry<K, V> next = advance();
+
+					private Map.Entry<K, V> advance(){
+						while(overlayIt.hasNext()){
+							Map.Entry<K, V> e = overlayIt.next();
+							if(e.getValue() != null)
+								return new AbstractMap.SimpleImmutableEntry<K, V>(e);
+						}
+						while(baseIt.hasNext()){
+							Map.Entry<K, V> e = baseIt.next();
+							if(overlay.containsKey(e.getKey()) == false)
+								return new AbstractMap.SimpleImmutableEntry<K, V>(e);
+						}
+						return null;
+					}
+					public boolean hasNext() {
+						return next != null;
+					}
+					public Map.Entry<K, V> next() {
+						if(next == null)
+							throw new NoSuchElementException();
+						Map.Entry<K, V> e = next;
+						next = advance();
+						return e;
+					}
+				};
+			}
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
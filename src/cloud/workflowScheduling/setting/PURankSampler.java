@@ -0,0 +1,70 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+//samples probabilistic upward ranks (pURank) of a workflow in batches, e.g., one row for each ant of an iteration in LACO.
+//The distribution is the same as Workflow.calcPURank: the transfer time of edge k counts with probability
+//d_k = 1 - theta^(-et/tt), where et is the execution time of the child on the fastest VM and tt the transfer time.
+//d_k only depends on the workflow and theta, so it is computed once here instead of by Math.pow for every edge and sample;
+//the random numbers come from the given Random, so that a run can be repeated with a seed
+public class PURankSampler {
+
+	private final WorkflowGraph graph;
+	private final double[] taskTime;		//execution time on the fastest VM, indexed by graph index
+	private final double[] keepProbability;	//d_k of each edge in the order of WorkflowGraph children
+	private final Random random;
+
+	public PURankSampler(Workflow wf, double theta, Random random) {
+		double speed = VM.SPEEDS[VM.FASTEST];
+		this.graph = wf.getGraph();
+		this.random = random;
+		int n = graph.size();
+		double[] taskSize = graph.getTaskSizes();
+		int[] childOffsets = graph.getChildOffsets(), children = graph.getChildren();
+		double[] childTT = graph.getChildTransferTimes();
+
+		taskTime = new double[n];
+		for(int j = 0; j < n; j++)
+			taskTime[j] = taskSize[j] / speed;
+		keepProbability = new double[graph.edgeCount()];
+		for(int j = 0; j < n; j++){
+			for(int k = childOffsets[j]; k < childOffsets[j+1]; k++){
+				if(theta == Double.MAX_VALUE)		// same as flag = 1 in calcPURank
+					keepProbability[k] = 1;
+				else
+					keepProbability[k] = 1 - Math.pow(theta, -(taskSize[children[k]] / speed) / childTT[k]);
+			}
+		}
+	}
+
+	//fills pURanks[row][index] for every row (e.g., ant) and graph index, one reverse topological pass for each row
+	public void sample(double[][] pURanks){
+		int n = graph.size();
+		int[] childOffsets = graph.getChildOffsets(), children = graph.getChildren();
+		double[] childTT = graph.getChildTransferTimes();
+		for(double[] ranks : pURanks){
+			if(ranks.length != n)
+				throw new RuntimeException("A row has " + ranks.length + " ranks for " + n + " tasks");
+			for(int j = n-1; j >= 0; j--){
+				double pURank = 0;
+				for(int k = childOffsets[j]; k < childOffsets[j+1]; k++){
+					double d = keepProbability[k];
+					//d >= 1: kept whatever the random number is, so none is drawn; NaN (0/0) is kept as in calcPURank
+					int flag = d >= 1 || !(d < random.nextDouble()) ? 1 : 0;
+					pURank = Math.max(pURank, ranks[children[k]] + flag * childTT[k]);
+				}
+				ranks[j] = pURank + taskTime[j];
+			}
+		}
+	}
+
+	//a matrix of rowNum rows for sample
+	public double[][] newRanks(int rowNum){
+		return new double[rowNum][graph.size()];
+	}
+
+	//-------------------------------------getters--------------------------------
+	public WorkflowGraph getGraph() {
+		return graph;
+	}
+}
@@ -0,0 +1,64 @@
+package cloud.workflowScheduling.setting;
+
+//priority orders of tasks, e.g., by bLevel, tLevel or pURank, as int[] permutations of WorkflowGraph indices.
+//Keys are primitive doubles indexed by WorkflowGraph index; entry (index 0) is always the first and exit (index size-1)
+//always the last, which is what the name checks of the former Comparator<Task> classes did.
+//The result is the same as sorting the tasks in index order by Collections.sort with such a comparator
+public class PriorityOrder {
+
+	private PriorityOrder(){}
+
+	//larger key first; for equal keys the larger index first, i.e., Collections.sort on ascending keys followed by Collections.reverse
+	public static int[] descending(double[] keys){
+		return sort(keys, true);
+	}
+
+	//smaller key first; for equal keys the smaller index first
+	public static int[] ascending(double[] keys){
+		return sort(keys, false);
+	}
+
+	private static int[] sort(double[] keys, boolean descending){
+		int n = keys.length;
+		int[] order = new int[n];
+		if(n <= 2){
+			for(int i = 0; i < n; i++)
+				order[i] = i;
+			return order;
+		}
+
+		int m = n - 2;		//tasks between entry and exit
+		int[] a = new int[m], b = new int[m];
+		for(int i = 0; i < m; i++)
+			a[i] = i + 1;
+		for(int width = 1; width < m; width *= 2){		//bottom-up merge sort
+			for(int lo = 0; lo < m; lo += 2 * width){
+				int mid = Math.min(lo + width, m), hi = Math.min(lo + 2 * width, m);
+				int i = lo, j = mid, k = lo;
+				while(i < mid && j < hi)
+					b[k++] = precedes(keys, a[j], a[i], descending) ? a[j++] : a[i++];
+				while(i < mid)
+					b[k++] = a[i++];
+				while(j < hi)
+					b[k++] = a[j++];
+			}
+			int[] tmp = a;
+			a = b;
+			b = tmp;
+		}
+
+		order[0] = 0;
+		System.arraycopy(a, 0, order, 1, m);
+		order[n - 1] = n - 1;
+		return order;
+	}
+
+	//whether task i is before task j; '>' and '<' rather than Double.compare, the same as the former comparators
+	private static boolean precedes(double[] keys, int i, int j, boolean descending){
+		if(keys[i] > keys[j])
+			return descending;
+		else if(keys[i] < keys[j])
+			return !descending;
+		return descending ? i > j : i < j;
+	}
+}
@@ -0,0 +1,125 @@
+package cloud.workflowScheduling.setting;
+
+//answers whether a task can reach another one (a path of at least one edge) without walking edges.
+//Two representations, the smaller one is used:
+//	bitsets: the descendants of every task as a bit row, n * n/64 longs; a query reads one bit
+//	chains: the tasks are covered by chains (paths in the graph); for every task and chain, the first position in the chain
+//		reached from the task, n * chainNum ints; a query compares two ints. Good for narrow workflows with many tasks
+//Built from a WorkflowGraph in one reverse pass; indices are graph indices
+public class ReachabilityIndex {
+	public static final long MAX_BYTES = 256L << 20;	//a larger index is refused
+
+	private final WorkflowGraph graph;
+	private final int n;
+	private final int words;			//bitsets: longs in a row
+	private final long[] bits;			//bitsets: descendants of i are bits[i*words] ... bits[i*words+words-1]
+	private final int chainNum;
+	private final int[] chainOf, chainPos;	//chains: chain of each task and its position in the chain
+	private final int[] reach;			//chains: reach[i*chainNum+c] is the first position in chain c reached from i
+
+	//useChains: null to choose the smaller representation
+	ReachabilityIndex(WorkflowGraph g, Boolean useChains) {
+		this.graph = g;
+		this.n = g.size();
+		int[] parentOffsets = g.getParentOffsets(), parents = g.getParents();
+		int[] childOffsets = g.getChildOffsets(), children = g.getChildren();
+
+		//greedy chain cover in topological order: a task extends the chain of its first parent which ends with that parent
+		int[] chainOf = new int[n], chainPos = new int[n], chainTail = new int[n];
+		int chainNum = 0;
+		for(int i = 0; i < n; i++){
+			int chain = -1;
+			for(int k = parentOffsets[i]; k < parentOffsets[i+1] && chain < 0; k++)
+				if(chainTail[chainOf[parents[k]]] == parents[k])
+					chain = chainOf[parents[k]];
+			if(chain < 0){
+				chain = chainNum++;
+				chainPos[i] = 0;
+			}else{
+				chainPos[i] = chainPos[chainTail[chain]] + 1;
+			}
+			chainOf[i] = chain;
+			chainTail[chain] = i;
+		}
+
+		this.words = (n + 63) >>> 6;
+		long bitBytes = (long)n * words * 8, chainBytes = (long)n * chainNum * 4;
+		if(useChains == null)
+			useChains = chainBytes < bitBytes;
+		if((useChains ? chainBytes : bitBytes) > MAX_BYTES)
+			throw new RuntimeException("Reachability index of " + n + " tasks needs more than " + MAX_BYTES + " bytes");
+
+		if(useChains){
+			this.bits = null;
+			this.chainNum = chainNum;
+			this.chainOf = chainOf;
+			this.chainPos = chainPos;
+			this.reach = new int[n * chainNum];
+			java.util.Arrays.fill(reach, Integer.MAX_VALUE);
+			for(int i = n-1; i >= 0; i--){
+				int row = i * chainNum;
+				for(int k = childOffsets[i]; k < childOffsets[i+1]; k++){
+					int child = children[k], childRow = child * chainNum;
+					for(int c = 0; c < chainNum; c++)
+						reach[row + c] = Math.min(reach[row + c], reach[childRow + c]);
+					reach[row + chainOf[child]] = Math.min(reach[row + chainOf[child]], chainPos[child]);
+				}
+			}
+		}else{
+			this.chainNum = 0;
+			this.chainOf = null;
+			this.chainPos = null;
+			this.reach = null;
+			this.bits = new long[n * words];
+			for(int i = n-1; i >= 0; i--){
+				int row = i * words;
+				for(int k = childOffsets[i]; k < childOffsets[i+1]; k++){
+					int child = children[k], childRow = child * words;
+					for(int w = 0; w < words; w++)
+						bits[row + w] |= bits[childRow + w];
+					bits[row + (child >>> 6)] |= 1L << child;
+				}
+			}
+		}
+	}
+
+	public static ReachabilityIndex of(WorkflowGraph g){
+		return new ReachabilityIndex(g, null);
+	}
+
+	//whether a path of at least one edge leads from index from to index to
+	public boolean reaches(int from, int to){
+		if(bits != null)
+			return (bits[from * words + (to >>> 6)] & (1L << to)) != 0;
+		return reach[from * chainNum + chainOf[to]] <= chainPos[to];
+	}
+	public boolean reaches(Task from, Task to){
+		return reaches(checkedIndexOf(from), checkedIndexOf(to));
+	}
+	//neither reaches the other, i.e., the two tasks can run in parallel
+	public boolean isIndependent(Task a, Task b){
+		int i = checkedIndexOf(a), j = checkedIndexOf(b);
+		return i != j && !reaches(i, j) && !reaches(j, i);
+	}
+
+	private int checkedIndexOf(Task task){
+		int index = graph.indexOf(task);
+		if(index < 0)
+			throw new RuntimeException("Task " + task.getId() + " does not belong to this index");
+		return index;
+	}
+
+	//-------------------------------------getters--------------------------------
+	public WorkflowGraph getGraph() {
+		return graph;
+	}
+	public boolean usesChains() {
+		return bits == null;
+	}
+	public int getChainNum() {
+		return usesChains() ? chainNum : 0;
+	}
+	public long getBytes() {
+		return bits != null ? bits.length * 8L : reach.length * 4L;
+	}
+}
@@ -0,0 +1,102 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+//per-run state of a scheduler, e.g., topoCount, pURank and the task properties used in ICPCP;
+//it is kept in primitive arrays indexed by the WorkflowGraph index of a task, so that the workflow itself is read-only
+//and one workflow can be scheduled by several schedulers (or threads) at the same time, each with its own context.
+//A context is not thread-safe and must not be shared by concurrent runs
+public class ScheduleContext {
+
+	private final Workflow wf;
+	private final WorkflowGraph graph;
+
+	private final int[] topoCount;			//used for topological sort
+	private final double[] pURank;			//Probabilistic Upward Rank
+
+	//task properties used in ICPCP algorithm; '-1' means the value has not been set
+	private final double[] EST, EFT, LFT, AST, AFT;
+	private final int[] criticalParent;		//'-1' means no critical parent
+	private final boolean[] isAssigned;		//assigned以后EST就表示实际的开始时间了；EFT和LFT都设为   finish time，与论文不同
+
+	public ScheduleContext(Workflow wf) {
+		this.wf = wf;
+		this.graph = wf.getGraph();
+		int size = graph.size();
+		topoCount = new int[size];
+		pURank = new double[size];
+		EST = new double[size];
+		EFT = new double[size];
+		LFT = new double[size];
+		AST = new double[size];
+		AFT = new double[size];
+		criticalParent = new int[size];
+		isAssigned = new boolean[size];
+		reset();
+	}
+
+	//restore the initial state, so that this context can be reused by another run on the same workflow
+	public void reset() {
+		Arrays.fill(topoCount, 0);
+		Arrays.fill(pURank, 0);
+		Arrays.fill(EST, -1);
+		Arrays.fill(EFT, -1);
+		Arrays.fill(LFT, -1);
+		Arrays.fill(AST, -1);
+		Arrays.fill(AFT, -1);
+		Arrays.fill(criticalParent, -1);
+		Arrays.fill(isAssigned, false);
+	}
+
+	private int index(Task task) {
+		int index = graph.indexOf(task);
+		if(index < 0)
+			throw new RuntimeException("Task " + task.getId() + " does not belong to the workflow of this context");
+		return index;
+	}
+
+	//-------------------------------------getters&setters--------------------------------
+	public Workflow getWorkflow() {
+		return wf;
+	}
+	public WorkflowGraph getGraph() {
+		return graph;
+	}
+	public int getTopoCount(Task task) {
+		return topoCount[index(task)];
+	}
+	public void setTopoCount(Task task, int topoCount) {
+		this.topoCount[index(task)] = topoCount;
+	}
+	public double getpURank(Task task) {
+		return pURank[index(task)];
+	}
+	public void setpURank(Task task, double pURank) {
+		this.pURank[index(task)] = pURank;
+	}
+	//shared, not copied; indexed by the WorkflowGraph index
+	public double[] getpURanks() {
+		return pURank;
+	}
+
+	//---------------------task properties used in ICPCP algorithm---------------------------
+	public double getEST(Task task) {		return EST[index(task)];	}
+	public void setEST(Task task, double eST) {		EST[index(task)] = eST;	}
+	public double getEFT(Task task) {		return EFT[index(task)];	}
+	public void setEFT(Task task, double eFT) {		EFT[index(task)] = eFT;	}
+	public double getLFT(Task task) {		return LFT[index(task)];	}
+	public void setLFT(Task task, double lFT) {		LFT[index(task)] = lFT;	}
+	public double getAST(Task task) {		return AST[index(task)];	}
+	public void setAST(Task task, double aST) {		AST[index(task)] = aST;	}
+	public double getAFT(Task task) {		return AFT[index(task)];	}
+	public void setAFT(Task task, double aFT) {		AFT[index(task)] = aFT;	}
+	public boolean isAssigned(Task task) {		return isAssigned[index(task)];	}
+	public void setAssigned(Task task, boolean isAssigned) {		this.isAssigned[index(task)] = isAssigned;	}
+	public Task getCriticalParent(Task task) {
+		int parent = criticalParent[index(task)];
+		return parent < 0 ? null : graph.getTask(parent);
+	}
+	public void setCriticalParent(Task task, Task criticalParent) {
+		this.criticalParent[index(task)] = criticalParent == null ? -1 : index(criticalParent);
+	}
+}
@@ -0,0 +1,368 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+//the full plan of a Solution for an executor: each VM (id, type, slots) and its allocations (task id and name, slot,
+//start and finish time), VM by VM in the order of the solution, the allocations of a VM in list order.
+//Both formats are written while going through the solution and read record by record, so neither side holds more
+//than one record besides its buffers.
+//JSON Lines: a header line, then for each VM a VM line followed by the lines of its allocations, e.g.,
+//	{"schedule":1,"vms":2,"tasks":30,"cost":1.2,"makespan":345.6}
+//	{"vm":0,"type":2,"slots":1}
+//	{"task":0,"name":"ID00000","start":0.0,"finish":12.5}
+//"slot" is written for the allocations of multi-slot VMs only. Doubles are written by Double.toString, so they are
+//read back exactly. Lines are written and read by the streaming JsonWriter and JsonReader of Gson, lenient for the
+//sequence of top-level objects.
+//Binary (big endian, DataOutputStream):
+//	header:	int MAGIC, int VERSION, int VM number, int task number, double cost, double makespan
+//	each VM:	int id, int type, int slotNum, int allocation number, then the allocations:
+//		int task id, int slot, double startTime, double finishTime, UTF task name
+public class ScheduleFile {
+	public static final int MAGIC = 0x53434844;		//"SCHD"
+	public static final int VERSION = 1;
+	public static final String JSON_SUFFIX = ".jsonl";
+	public static final String BINARY_SUFFIX = ".schb";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	//------------------------------------------write------------------------------------------
+	//writes sol to file, in JSON Lines if file ends with JSON_SUFFIX, in binary otherwise
+	public static void write(Solution sol, String file) throws IOException {
+		try(OutputStream out = new FileOutputStream(file)){
+			if(file.endsWith(JSON_SUFFIX))
+				writeJsonLines(sol, out);
+			else
+				writeBinary(sol, out);
+		}
+	}
+
+	//out is flushed, not closed
+	public static void writeJsonLines(Solution sol, OutputStream out) throws IOException {
+		Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		JsonWriter j = new JsonWriter(w);		//writes to w directly, so lines can be ended on w
+		j.setLenient(true);
+		j.beginObject().name("schedule").value(VERSION).name("vms").value(sol.size()).name("tasks").value(taskNum(sol))
+			.name("cost").value(sol.calcCost()).name("makespan").value(sol.calcMakespan()).endObject();
+		w.write('\n');
+		for(Map.Entry<VM, LinkedList<Allocation>> entry : sol.entrySet()){
+			VM vm = entry.getKey();
+			j.beginObject().name("vm").value(vm.getId()).name("type").value(vm.getType())
+				.name("slots").value(vm.getSlotNum()).endObject();
+			w.write('\n');
+			for(Allocation alloc : entry.getValue()){
+				j.beginObject().name("task").value(alloc.getTask().getId()).name("name").value(alloc.getTask().getName());
+				if(vm.getSlotNum() > 1)
+					j.name("slot").value(alloc.getSlot());
+				j.name("start").value(alloc.getStartTime()).name("finish").value(alloc.getFinishTime()).endObject();
+				w.write('\n');
+			}
+		}
+		j.flush();
+	}
+
+	//out is flushed, not closed
+	public static void writeBinary(Solution sol, OutputStream out) throws IOException {
+		DataOutputStream d = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		d.writeInt(MAGIC);
+		d.writeInt(VERSION);
+		d.writeInt(sol.size());
+		d.writeInt(taskNum(sol));
+		d.writeDouble(sol.calcCost());
+		d.writeDouble(sol.calcMakespan());
+		for(Map.Entry<VM, LinkedList<Allocation>> entry : sol.entrySet()){
+			VM vm = entry.getKey();
+			d.writeInt(vm.getId());
+			d.writeInt(vm.getType());
+			d.writeInt(vm.getSlotNum());
+			d.writeInt(entry.getValue().size());
+			for(Allocation alloc : entry.getValue()){
+				d.writeInt(alloc.getTask().getId());
+				d.writeInt(alloc.getSlot());
+				d.writeDouble(alloc.getStartTime());
+				d.writeDouble(alloc.getFinishTime());
+				d.writeUTF(alloc.getTask().getName());
+			}
+		}
+		d.flush();
+	}
+
+	//the number of allocations; VM ids must be unique, as a reader tells VMs by id
+	private static int taskNum(Solution sol){
+		Set<Integer> ids = new HashSet<Integer>(sol.size() * 4 / 3 + 1);
+		int num = 0;
+		for(Map.Entry<VM, LinkedList<Allocation>> entry : sol.entrySet()){
+			if(ids.add(entry.getKey().getId()) == false)
+				throw new RuntimeException("Duplicate VM id " + entry.getKey().getId() + ", e.g., after VM.resetInternalId");
+			num += entry.getValue().size();
+		}
+		return num;
+	}
+
+	//------------------------------------------read------------------------------------------
+	//reads the schedule in file as a Solution of wf: tasks are found by id, and VMs are new ones with the ids, types
+	//and slots in the file
+	public static Solution read(String file, Workflow wf) throws IOException {
+		try(Reader r = new Reader(new FileInputStream(file))){
+			return r.toSolution(wf);
+		}
+	}
+
+	//a cursor over the allocations of a schedule in either format, which is told by MAGIC (a JSON Lines file may start
+	//with a UTF-8 byte order mark and spaces): next() moves to the next allocation; the getters give it and its VM
+	public static class Reader implements Closeable {
+		private static final int END = 0, VM_RECORD = 1, ALLOCATION_RECORD = 2;		//records read by advance()
+
+		private final DataInputStream binary;		//null for JSON Lines
+		private final JsonReader json;				//null for binary
+		private final int vmNum, taskNum;
+		private final double cost, makespan;
+		private final Map<String, String> fields = new HashMap<String, String>();	//of the current JSON object
+
+		private int readVmNum, readTaskNum;
+		private int vmAllocationNum, vmReadNum;		//binary: allocations of the current VM
+		private int vmId = -1, vmType, slotNum;
+		private int taskId, slot;
+		private String taskName;
+		private double startTime, finishTime;
+
+		public Reader(InputStream in) throws IOException {
+			BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+			byte[] head = new byte[4];
+			buffered.mark(head.length);
+			int headLength = buffered.readNBytes(head, 0, head.length);
+			buffered.reset();
+			if(headLength < head.length || ByteBuffer.wrap(head).getInt() != MAGIC){
+				binary = null;
+				if(headLength >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF)
+					buffered.skip(3);		//UTF-8 byte order mark
+				json = new JsonReader(new InputStreamReader(buffered, StandardCharsets.UTF_8));
+				json.setLenient(true);		//one object per line, i.e., a sequence of top-level values
+				try{
+					if(readJsonObject() == false || fields.containsKey("schedule") == false)
+						throw new RuntimeException("Not a schedule file");
+				}catch(RuntimeException e){		//e.g., a binary file of another kind
+					throw new RuntimeException("Not a schedule file", e);
+				}
+				if(intField("schedule") != VERSION)
+					throw new RuntimeException("Unsupported schedule file version: " + fields.get("schedule"));
+				vmNum = intField("vms");
+				taskNum = intField("tasks");
+				cost = doubleField("cost");
+				makespan = doubleField("makespan");
+			}else{
+				json = null;
+				binary = new DataInputStream(buffered);
+				try{
+					binary.readInt();		//MAGIC
+					int version = binary.readInt();
+					if(version != VERSION)
+						throw new RuntimeException("Unsupported schedule file version: " + version);
+					vmNum = binary.readInt();
+					taskNum = binary.readInt();
+					cost = binary.readDouble();
+					makespan = binary.readDouble();
+				}catch(EOFException e){
+					throw new RuntimeException("Truncated schedule file", e);
+				}
+			}
+		}
+
+		//moves to the next allocation; false after the last one
+		public boolean next() throws IOException {
+			int record;
+			do{
+				record = advance();
+			}while(record == VM_RECORD);		//VMs are given with their allocations
+			return record == ALLOCATION_RECORD;
+		}
+
+		//reads the next record, a VM or an allocation; END after the last one
+		private int advance() throws IOException {
+			return binary != null ? advanceBinary() : advanceJson();
+		}
+
+		private int advanceBinary() throws IOException {
+			try{
+				if(vmReadNum == vmAllocationNum){		//the next VM
+					if(readVmNum == vmNum)
+						return finished();
+					vmId = binary.readInt();
+					vmType = binary.readInt();
+					slotNum = binary.readInt();
+					vmAllocationNum = binary.readInt();
+					vmReadNum = 0;
+					readVmNum++;
+					return VM_RECORD;
+				}
+				taskId = binary.readInt();
+				slot = binary.readInt();
+				startTime = binary.readDouble();
+				finishTime = binary.readDouble();
+				taskName = binary.readUTF();
+			}catch(EOFException e){
+				throw new RuntimeException("Truncated schedule file", e);
+			}
+			vmReadNum++;
+			readTaskNum++;
+			return ALLOCATION_RECORD;
+		}
+
+		private int advanceJson() throws IOException {
+			if(readJsonObject() == false)
+				return finished();
+			if(fields.containsKey("vm")){
+				vmId = intField("vm");
+				vmType = intField("type");
+				slotNum = fields.containsKey("slots") ? intField("slots") : 1;
+				readVmNum++;
+				return VM_RECORD;
+			}
+			if(readVmNum == 0)
+				throw new RuntimeException("An allocation before any VM in the schedule file");
+			taskId = intField("task");
+			taskName = fields.get("name");
+			slot = fields.containsKey("slot") ? intField("slot") : 0;
+			startTime = doubleField("start");
+			finishTime = doubleField("finish");
+			readTaskNum++;
+			return ALLOCATION_RECORD;
+		}
+
+		private int finished(){
+			if(readVmNum != vmNum || readTaskNum != taskNum)
+				throw new RuntimeException("Truncated schedule file: " + readVmNum + " of " + vmNum + " VMs, "
+						+ readTaskNum + " of " + taskNum + " tasks");
+			return END;
+		}
+
+		//reads the next object, whose values are numbers and strings, into fields; false at the end
+		private boolean readJsonObject() throws IOException {
+			try{
+				if(json.peek() == JsonToken.END_DOCUMENT)
+					return false;
+				fields.clear();
+				json.beginObject();
+				while(json.hasNext()){
+					String key = json.nextName();
+					JsonToken token = json.peek();
+					if(token == JsonToken.STRING || token == JsonToken.NUMBER)
+						fields.put(key, json.nextString());		//numbers as written, parsed by intField etc.
+					else
+						json.skipValue();		//e.g., a field added by a later version
+				}
+				json.endObject();
+				return true;
+			}catch(EOFException e){
+				throw new RuntimeException("Truncated schedule file", e);
+			}catch(IOException | IllegalStateException | NumberFormatException e){	//malformed, not an object, a bad \\u escape
+				throw new RuntimeException("Invalid schedule record: " + e.getMessage(), e);
+			}
+		}
+		private int intField(String key){
+			String value = fields.get(key);
+			if(value == null)
+				throw new RuntimeException("Missing \"" + key + "\" in schedule record");
+			try{
+				return Integer.parseInt(value);
+			}catch(NumberFormatException e){
+				throw new RuntimeException("Invalid \"" + key + "\" in schedule record: " + value, e);
+			}
+		}
+		private double doubleField(String key){
+			String value = fields.get(key);
+			if(value == null)
+				throw new RuntimeException("Missing \"" + key + "\" in schedule record");
+			try{
+				return Double.parseDouble(value);
+			}catch(NumberFormatException e){
+				throw new RuntimeException("Invalid \"" + key + "\" in schedule record: " + value, e);
+			}
+		}
+
+		//the remaining VMs (including ones without allocations) and allocations as a Solution of wf
+		public Solution toSolution(Workflow wf) throws IOException {
+			Map<Integer, Task> tasks = new HashMap<Integer, Task>(wf.size() * 4 / 3 + 1);
+			for(Task t : wf)
+				tasks.put(t.getId(), t);
+			Map<Integer, VM> vms = new HashMap<Integer, VM>();
+			Solution sol = new Solution(0);
+			int record;
+			while((record = advance()) != END){
+				VM vm = vms.get(vmId);
+				if(record == VM_RECORD && vm != null)
+					throw new RuntimeException("Duplicate VM id " + vmId + " in the schedule file");
+				if(vm == null){		//a VM record, or the VM of the current allocation, read by next() before
+					vm = new VM(vmType, slotNum);
+					vm.setId(vmId);
+					vms.put(vmId, vm);
+					sol.put(vm, new LinkedList<Allocation>());
+				}
+				if(record == VM_RECORD)
+					continue;
+				Task task = tasks.get(taskId);
+				if(task == null)
+					throw new RuntimeException("Task " + taskId + " is not in the workflow");
+				Allocation alloc = new Allocation(vm, task, startTime, finishTime);
+				alloc.setSlot(slot);
+				sol.get(vm).add(alloc);
+				sol.getRevMapping().put(task, alloc);
+			}
+			sol.markDirty();
+			return sol;
+		}
+
+		public void close() throws IOException {
+			if(binary != null)
+				binary.close();
+			else
+				json.close();
+		}
+
+		//-------------------------------------getters--------------------------------
+		//of the header
+		public int getVMNum() {
+			return vmNum;
+		}
+		public int getTaskNum() {
+			return taskNum;
+		}
+		public double getCost() {
+			return cost;
+		}
+		public double getMakespan() {
+			return makespan;
+		}
+		//of the current allocation and its VM
+		public int getVMId() {
+			return vmId;
+		}
+		public int getVMType() {
+			return vmType;
+		}
+		public int getSlotNum() {
+			return slotNum;
+		}
+		public int getTaskId() {
+			return taskId;
+		}
+		public String getTaskName() {
+			return taskName;
+		}
+		public int getSlot() {
+			return slot;
+		}
+		public double getStartTime() {
+			return startTime;
+		}
+		public double getFinishTime() {
+			return finishTime;
+		}
+	}
+}
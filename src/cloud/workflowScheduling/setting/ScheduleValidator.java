@@ -0,0 +1,272 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import cloud.workflowScheduling.*;
+
+//checks a schedule in one pass over the columns of a WorkflowGraph: every task is allocated exactly once, every edge is
+//respected (a child starts after its parent finishes, plus the transfer time if they are on different VMs), and no two
+//allocations on a VM (on a slot of a multi-slot VM) overlap by more than Evaluate.E. All the violations are collected
+//into a Report.
+//In the sampled mode, only the in-edges of a random part of the tasks and the allocations of a random part of the VMs
+//are checked, e.g., inside an optimization loop; coverage is always checked.
+//The buffers are kept between calls, so one validator can check many schedules of a workflow
+public class ScheduleValidator {
+
+	public enum Kind {
+		MISSING,		//a task of the workflow is not allocated
+		DUPLICATE,		//a task is allocated more than once
+		UNKNOWN,		//an allocated task is not in the workflow
+		PRECEDENCE,		//a task starts before the data of a parent arrives
+		OVERLAP			//an allocation starts before another one on its VM finishes
+	}
+
+	public static class Violation {
+		private final Kind kind;
+		private final Task task, other;		//other: the parent of PRECEDENCE, the overlapped task of OVERLAP
+		private final int taskId, otherId;	//-1: none; also set for a graph without Task objects
+		private final double amount;		//how late the data arrives, or how long the allocations overlap
+
+		public Violation(Kind kind, Task task, Task other, double amount) {
+			this(kind, task, other, task == null ? -1 : task.getId(), other == null ? -1 : other.getId(), amount);
+		}
+		Violation(Kind kind, Task task, Task other, int taskId, int otherId, double amount) {
+			this.kind = kind;
+			this.task = task;
+			this.other = other;
+			this.taskId = taskId;
+			this.otherId = otherId;
+			this.amount = amount;
+		}
+		//-------------------------------------getters--------------------------------
+		public Kind getKind() {
+			return kind;
+		}
+		public Task getTask() {
+			return task;
+		}
+		public Task getOther() {
+			return other;
+		}
+		public int getTaskId() {
+			return taskId;
+		}
+		public int getOtherId() {
+			return otherId;
+		}
+		public double getAmount() {
+			return amount;
+		}
+		public String toString() {
+			return kind + " [task=" + taskId + (otherId < 0 ? "" : ", other=" + otherId) + ", amount=" + amount + "]";
+		}
+	}
+
+	public static class Report {
+		private final List<Violation> violations = new ArrayList<Violation>();
+		private final int[] counts = new int[Kind.values().length];
+		private final boolean isSampled;
+		private int checkedEdgeNum, checkedVMNum;
+
+		private Report(boolean isSampled) {
+			this.isSampled = isSampled;
+		}
+		private void add(Violation violation){
+			violations.add(violation);
+			counts[violation.getKind().ordinal()]++;
+		}
+		//no violation among the checked tasks, edges and VMs
+		public boolean isValid() {
+			return violations.isEmpty();
+		}
+		public int count(Kind kind) {
+			return counts[kind.ordinal()];
+		}
+		//-------------------------------------getters--------------------------------
+		public List<Violation> getViolations() {
+			return violations;
+		}
+		public boolean isSampled() {
+			return isSampled;
+		}
+		public int getCheckedEdgeNum() {
+			return checkedEdgeNum;
+		}
+		public int getCheckedVMNum() {
+			return checkedVMNum;
+		}
+		public String toString() {
+			return (isValid() ? "valid" : violations.size() + " violations, e.g., " + violations.get(0))
+					+ (isSampled ? " (sampled: " + checkedEdgeNum + " edges, " + checkedVMNum + " VMs)" : "");
+		}
+	}
+
+	private final WorkflowGraph graph;
+	private final int[] taskToVm;		//indices of VMs in the order of the schedule, -1 for tasks not allocated
+	private final double[] startTime, finishTime;
+	private double sampleRate = 1;
+	private Random rnd;
+	private int[] vmTasks = new int[16];	//the allocations of one VM, for the overlap check
+	private int[] vmSlots = new int[16], slotTasks = new int[16];	//their slots, and the tasks sorted by slot
+	private Integer[] order = new Integer[0];
+
+	public ScheduleValidator(WorkflowGraph graph) {
+		this.graph = graph;
+		this.taskToVm = new int[graph.size()];
+		this.startTime = new double[graph.size()];
+		this.finishTime = new double[graph.size()];
+	}
+
+	//checks each task (its in-edges) and each VM with probability sampleRate; 1 checks all
+	public void setSampling(double sampleRate, long seed){
+		if(sampleRate <= 0 || sampleRate > 1)
+			throw new RuntimeException("Invalid sample rate: " + sampleRate);
+		this.sampleRate = sampleRate;
+		this.rnd = new Random(seed);
+	}
+	private boolean isChecked(){
+		return sampleRate >= 1 || rnd.nextDouble() < sampleRate;
+	}
+
+	public Report validate(Solution sol){
+		Report report = new Report(sampleRate < 1);
+		Arrays.fill(taskToVm, -1);
+		int v = 0;
+		for(VM vm : sol.keySet()){
+			boolean isVMChecked = isChecked();
+			int num = 0;
+			for(Allocation alloc : sol.get(vm)){
+				int task = graph.indexOf(alloc.getTask());
+				if(task < 0){
+					report.add(new Violation(Kind.UNKNOWN, alloc.getTask(), null, 0));
+					continue;
+				}
+				if(taskToVm[task] >= 0){
+					report.add(new Violation(Kind.DUPLICATE, alloc.getTask(), null, 0));
+					continue;
+				}
+				taskToVm[task] = v;
+				startTime[task] = alloc.getStartTime();
+				finishTime[task] = alloc.getFinishTime();
+				if(isVMChecked){
+					if(num == vmTasks.length){
+						vmTasks = Arrays.copyOf(vmTasks, num * 2);
+						vmSlots = Arrays.copyOf(vmSlots, num * 2);
+					}
+					vmSlots[num] = alloc.getSlot();
+					vmTasks[num++] = task;
+				}
+			}
+			if(isVMChecked && vm.getSlotNum() > 1)
+				checkSlotOverlaps(report, vm, num);
+			else if(isVMChecked)
+				checkOverlaps(report, vmTasks, 0, num);
+			if(isVMChecked)
+				report.checkedVMNum++;
+			v++;
+		}
+		checkEdges(report);
+		return report;
+	}
+
+	public Report validate(ArraySolution sol){
+		if(sol.getGraph() != graph)
+			throw new RuntimeException("The solution is on another workflow");
+		Report report = new Report(sampleRate < 1);
+		for(int task = 0; task < graph.size(); task++){
+			taskToVm[task] = sol.getVM(task);
+			startTime[task] = sol.getStartTime(task);
+			finishTime[task] = sol.getFinishTime(task);
+		}
+		for(int k = 0; k < sol.getUsedVMNum(); k++){
+			if(isChecked() == false)
+				continue;
+			int vm = sol.getUsedVM(k), num = sol.getVMTaskNum(vm);
+			if(vmTasks.length < num){
+				vmTasks = new int[num];
+				vmSlots = new int[num];
+			}
+			for(int i = 0; i < num; i++)
+				vmTasks[i] = sol.getVMTask(vm, i);
+			checkOverlaps(report, vmTasks, 0, num);
+			report.checkedVMNum++;
+		}
+		checkEdges(report);
+		return report;
+	}
+
+	//a violation of graph indices task and other (-1: none); the Tasks are null for a graph without Task objects
+	private void add(Report report, Kind kind, int task, int other, double amount){
+		Task t = graph.hasTasks() ? graph.getTask(task) : null;
+		Task o = graph.hasTasks() && other >= 0 ? graph.getTask(other) : null;
+		report.add(new Violation(kind, t, o, graph.getId(task), other < 0 ? -1 : graph.getId(other), amount));
+	}
+
+	//coverage of all tasks, and the in-edges of the (sampled) tasks
+	private void checkEdges(Report report){
+		for(int task = 0; task < graph.size(); task++){
+			if(taskToVm[task] < 0){
+				add(report, Kind.MISSING, task, -1, 0);
+				continue;
+			}
+			if(isChecked() == false)
+				continue;
+			for(int k = graph.getParentOffset(task), end = graph.getParentOffset(task+1); k < end; k++){
+				int parent = graph.getParent(k);
+				if(taskToVm[parent] < 0)		//reported as missing
+					continue;
+				double arrivalTime = finishTime[parent]
+						+ (taskToVm[parent] != taskToVm[task] ? graph.getParentTransferTime(k) : 0);
+				if(arrivalTime > startTime[task] + Evaluate.E)
+					add(report, Kind.PRECEDENCE, task, parent, arrivalTime - startTime[task]);
+			}
+			report.checkedEdgeNum += graph.getParentNum(task);
+		}
+	}
+
+	//vmTasks[0 ... num-1] on a multi-slot vm, with their slots in vmSlots: sorted by slot (stably, so in time order
+	//within a slot), each slot is checked as a VM
+	private void checkSlotOverlaps(Report report, VM vm, int num){
+		int[] offsets = new int[vm.getSlotNum() + 1];
+		for(int i = 0; i < num; i++){
+			if(vmSlots[i] < 0 || vmSlots[i] >= vm.getSlotNum())
+				throw new RuntimeException("Invalid slot " + vmSlots[i] + " of task " + graph.getId(vmTasks[i])
+						+ " on " + vm);
+			offsets[vmSlots[i] + 1]++;
+		}
+		for(int k = 0; k < vm.getSlotNum(); k++)
+			offsets[k + 1] += offsets[k];
+		if(slotTasks.length < num)
+			slotTasks = new int[vmTasks.length];
+		int[] next = Arrays.copyOf(offsets, vm.getSlotNum());
+		for(int i = 0; i < num; i++)
+			slotTasks[next[vmSlots[i]]++] = vmTasks[i];
+		for(int k = 0; k < vm.getSlotNum(); k++)
+			checkOverlaps(report, slotTasks, offsets[k], offsets[k + 1]);
+	}
+
+	//tasks[from ... to-1] on one VM, usually in time order: each one must not start before the ones started earlier finish
+	private void checkOverlaps(Report report, int[] tasks, int from, int to){
+		boolean isSorted = true;
+		for(int i = from + 1; i < to && isSorted; i++)
+			isSorted = startTime[tasks[i-1]] <= startTime[tasks[i]];
+		if(isSorted == false){
+			if(order.length < to - from)
+				order = new Integer[to - from];
+			for(int i = from; i < to; i++)
+				order[i - from] = tasks[i];
+			Arrays.sort(order, 0, to - from, (t1, t2) -> Double.compare(startTime[t1], startTime[t2]));
+			for(int i = from; i < to; i++)
+				tasks[i] = order[i - from];
+		}
+		int last = -1;		//the task finishing last so far
+		for(int i = from; i < to; i++){
+			int task = tasks[i];
+			if(last >= 0 && Math.min(finishTime[task], finishTime[last]) - startTime[task] > Evaluate.E)
+				add(report, Kind.OVERLAP, task, last,
+						Math.min(finishTime[task], finishTime[last]) - startTime[task]);
+			if(last < 0 || finishTime[task] > finishTime[last])
+				last = task;
+		}
+	}
+}
@@ -6,14 +6,34 @@ import java.util.*;
 import cloud.workflowScheduling.*;
 
 
-//Allocation List is sorted based on startTime
+//Allocation List is sorted based on startTime.
+//A multi-slot VM (VM.getSlotNum() > 1) runs tasks of different slots at the same time: a task is placed on the
+//earliest-free slot it fits, the list of the VM is kept in start time order, and the VM is leased from the first
+//start to the last finish of all its tasks (plus transfers). Insertion into idle gaps (FreeSlots) is single-slot only
 public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 
 	private static final long serialVersionUID = 1L;
 	
 	//the content in revMapping is the same as that in HashMap<VM, LinkedList<Allocation>>
 	//used to make get_Allocation_by_Task easy 
-	private HashMap<Task, Allocation> revMapping = new HashMap<Task, Allocation>();	//reverseMapping
+	private Map<Task, Allocation> revMapping = new HashMap<Task, Allocation>();	//reverseMapping; a LayeredMap after fork
+	
+	//aggregates kept between changes, so that comparing solutions (isBetterThan) does not rescan VMs and edges:
+	//lease start, lease end and cost of each VM, total cost and makespan. addTaskToVM, updateVM and put/remove mark the
+	//affected ones dirty; code which changes an allocation list or an Allocation directly must call markDirty
+	private transient HashMap<VM, double[]> leases;		//{lease start, lease end, cost} of VMs not changed since computed
+	private transient boolean isLeasesShared;			//leases is also referred to by a fork; copied before a change
+	private transient double cost, makespan;
+	private transient boolean isCostValid, isMakespanValid;
+	private transient HashMap<VM, VMTimeline[]> timelines;	//busy intervals of each slot of VMs for conflict checks; dropped by markDirty
+	private transient HashMap<VM, double[]> slotReadyTimes;	//finish time of the last task of each slot of multi-slot VMs
+	private transient HashMap<VM, FreeSlots> freeSlots;		//idle gaps of VMs for insertion; dropped by addTaskToVM, markDirty
+	
+	//copy-on-write sharing with forks: after a fork, neither solution owns the lists and VMs it has, and ownedLists and
+	//ownedVms hold those created by it since (null: all are owned, i.e., not forked). A list not owned is copied (with its
+	//Allocations) before this solution changes it; a VM not owned is replaced by an upgraded copy in updateVM
+	private transient Set<LinkedList<Allocation>> ownedLists;		//by identity
+	private transient Set<VM> ownedVms;
 	
 	public Solution() {
 		super();
@@ -26,51 +46,228 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 	//----------------------------------------add a task-------------------------------------------
 	//isEnd denotes whether the task is placed at the end, or the beginning
 	public void addTaskToVM(VM vm, Task task, double startTime, boolean isEnd){
+		Allocation alloc = newAllocation(vm, task, startTime);
+		if(vm.getSlotNum() > 1)		//tasks of different slots are added in any time order
+			addInOrder(this.get(vm), alloc);
+		else if(isEnd)
+			this.get(vm).add(alloc);
+		else
+			this.get(vm).add(0, alloc);
+		if(freeSlots != null)		//the list may be out of time order until the caller sorts it, e.g., in ICPCP
+			freeSlots.remove(vm);
+		allocated(vm, alloc);
+	}
+	
+	//places task on vm at startTime, keeping the allocations of vm in time order (e.g., into a gap found by calcInsertionEST)
+	public void insertTaskToVM(VM vm, Task task, double startTime){
+		Allocation alloc = newAllocation(vm, task, startTime);
+		addInOrder(this.get(vm), alloc);
+		FreeSlots slots = freeSlots == null ? null : freeSlots.get(vm);
+		if(slots != null && slots.isOrdered())
+			slots.occupy(alloc.getStartTime(), alloc.getFinishTime());
+		else if(slots != null)
+			freeSlots.remove(vm);
+		allocated(vm, alloc);
+	}
+	
+	private static void addInOrder(LinkedList<Allocation> list, Allocation alloc){
+		ListIterator<Allocation> it = list.listIterator(list.size());
+		while(it.hasPrevious())			//usually close to the end
+			if(it.previous().getStartTime() <= alloc.getStartTime()){
+				it.next();
+				break;
+			}
+		it.add(alloc);
+	}
+	
+	private Allocation newAllocation(VM vm, Task task, double startTime){
 		if(this.containsKey(vm) == false)
 			this.put(vm, new LinkedList<Allocation>());
+		else
+			own(vm);
 		
 		Allocation alloc = new Allocation(vm, task, startTime);
-		
-		boolean conflict = false;				//check whether there is time conflict
-		double startTime1 = alloc.getStartTime();
-		double finishTime1 = alloc.getFinishTime();
-		for(Allocation prevAlloc : this.get(vm)){
-			double startTime2 = prevAlloc.getStartTime();
-			double finishTime2 = prevAlloc.getFinishTime();
-			if((startTime1>startTime2 && startTime2>finishTime1)	  //startTime2 is between startTime1 and finishTime1
-				|| (startTime2>startTime1 && startTime1>finishTime2)) //startTime1 is between startTime2 and finishTime2
-				conflict = true;
-		}
-		if(conflict)
+		VMTimeline[] slots = getTimelines(vm);	//check whether there is time conflict
+		int slot = 0;
+		if(slots.length > 1){		//the earliest-free slot without a conflict
+			double[] readyTimes = getSlotReadyTimes(vm);
+			slot = -1;
+			for(int k = 0; k < slots.length; k++)
+				if((slot < 0 || readyTimes[k] < readyTimes[slot])
+						&& slots[k].conflicts(alloc.getStartTime(), alloc.getFinishTime()) == false)
+					slot = k;
+			if(slot < 0)
+				throw new RuntimeException("Critical Error: Allocation conflicts");
+			readyTimes[slot] = Math.max(readyTimes[slot], alloc.getFinishTime());
+			alloc.setSlot(slot);
+		}else if(slots[0].conflicts(alloc.getStartTime(), alloc.getFinishTime()))
 			throw new RuntimeException("Critical Error: Allocation conflicts");
-
-		if(isEnd)
-			this.get(vm).add(alloc);
-		else
-			this.get(vm).add(0, alloc);
+		slots[slot].add(alloc);
+		return alloc;
+	}
+	private void allocated(VM vm, Allocation alloc){
 		revMapping.put(alloc.getTask(), alloc);
+		compactRevMapping();
+		dirtyLeases(vm, alloc.getTask());
+	}
+	private void dirtyLeases(VM vm, Task task){
+		dirtyLease(vm);		//the lease of a VM also depends on where the parents and children of its first and last task are
+		for(Edge e : task.getInEdges()){
+			Allocation parentAlloc = revMapping.get(e.getSource());
+			if(parentAlloc != null)
+				dirtyLease(parentAlloc.getVM());
+		}
+		for(Edge e : task.getOutEdges()){
+			Allocation childAlloc = revMapping.get(e.getDestination());
+			if(childAlloc != null)
+				dirtyLease(childAlloc.getVM());
+		}
+	}
+	
+	//----------------------------------------remove a task-------------------------------------------
+	//removes the allocation of task, e.g., to decode the tasks after a changed one again; a VM without tasks is removed
+	public void removeTask(Task task){
+		Allocation alloc = revMapping.get(task);
+		if(alloc == null)
+			return;
+		VM vm = alloc.getVM();
+		own(vm);
+		alloc = revMapping.remove(task);
+		compactRevMapping();
+		LinkedList<Allocation> list = this.get(vm);
+		Iterator<Allocation> it = list.descendingIterator();		//usually the last one
+		while(it.hasNext())
+			if(it.next() == alloc){
+				it.remove();
+				break;
+			}
+		VMTimeline[] slots = timelines == null ? null : timelines.get(vm);
+		if(slots != null)
+			slots[alloc.getSlot()].remove(alloc);
+		if(freeSlots != null)
+			freeSlots.remove(vm);
+		if(slotReadyTimes != null)		//the finish time of another task of the slot may be the last now
+			slotReadyTimes.remove(vm);
+		if(list.isEmpty()){
+			super.remove(vm);
+			if(timelines != null)
+				timelines.remove(vm);
+		}
+		dirtyLeases(vm, task);
+	}
+	
+	//----------------------------------------fork-------------------------------------------
+	//a copy which shares the allocation lists, the VMs, revMapping and the leases with this solution. Neither solution
+	//walks or copies them: the map of VMs is copied, O(number of VMs), and a fork of a fork copies the changes to
+	//revMapping made since the last flattening. Either solution copies the list of a VM before its first change through
+	//Solution, e.g., addTaskToVM, removeTask, updateVMForPCPandPSO2_1, and records only the changed tasks in revMapping;
+	//code changing a list or an Allocation directly must call own(vm) first.
+	//A VM is replaced by an upgraded copy in updateVM, so callers must go on with the VM it returns
+	public Solution fork(){
+		Solution s = new Solution(0);
+		for(Map.Entry<VM, LinkedList<Allocation>> entry : this.entrySet())
+			s.putShared(entry.getKey(), entry.getValue());
+		ownedLists = newIdentitySet();
+		s.ownedLists = newIdentitySet();
+		ownedVms = new HashSet<VM>();
+		s.ownedVms = new HashSet<VM>();
+		if(revMapping instanceof LayeredMap)	//its base is shared already, and its changes are copied
+			s.revMapping = ((LayeredMap<Task, Allocation>)revMapping).copy();
+		else{							//not changed any more, as both solutions change overlays on it
+			Map<Task, Allocation> base = revMapping;
+			revMapping = new LayeredMap<Task, Allocation>(base);
+			s.revMapping = new LayeredMap<Task, Allocation>(base);
+		}
+		s.leases = leases;				//computed lease arrays are not changed, only replaced
+		s.isLeasesShared = isLeasesShared = leases != null;
+		s.cost = cost;
+		s.makespan = makespan;
+		s.isCostValid = isCostValid;
+		s.isMakespanValid = isMakespanValid;
+		return s;
+	}
+	private void putShared(VM vm, LinkedList<Allocation> list){
+		super.put(vm, list);
+	}
+	private static Set<LinkedList<Allocation>> newIdentitySet(){
+		return Collections.newSetFromMap(new IdentityHashMap<LinkedList<Allocation>, Boolean>());
+	}
+	//the list of vm, copied first if it is shared with a fork, so that it and its Allocations can be changed directly
+	public LinkedList<Allocation> own(VM vm){
+		LinkedList<Allocation> list = this.get(vm);
+		if(list == null || ownedLists == null || ownedLists.contains(list))
+			return list;
+		LinkedList<Allocation> copy = new LinkedList<Allocation>();
+		for(Allocation alloc : list){
+			Allocation newAlloc = new Allocation(alloc.getVM(), alloc.getTask(), alloc.getStartTime(), alloc.getFinishTime());
+			newAlloc.setSlot(alloc.getSlot());
+			copy.add(newAlloc);
+			revMapping.put(newAlloc.getTask(), newAlloc);
+		}
+		compactRevMapping();
+		ownedLists.add(copy);
+		super.put(vm, copy);		//the same position in the map; aggregates are not changed
+		if(timelines != null)		//they refer to the Allocations
+			timelines.remove(vm);
+		if(freeSlots != null)
+			freeSlots.remove(vm);
+		return copy;
+	}
+	//a revMapping with as many changes as tasks is flattened, so that lookups and forks do not pay for the base any more
+	private void compactRevMapping(){
+		if(revMapping instanceof LayeredMap && ((LayeredMap<Task, Allocation>)revMapping).isLarge())
+			revMapping = new HashMap<Task, Allocation>(revMapping);
+	}
+	private void ownLeases(){
+		if(isLeasesShared){
+			leases = new HashMap<VM, double[]>(leases);
+			isLeasesShared = false;
+		}
+	}
+	public boolean isShared(VM vm){
+		LinkedList<Allocation> list = this.get(vm);
+		return list != null && ownedLists != null && ownedLists.contains(list) == false;
 	}
 	
 
 	
-	public void updateVM(VM vm){		//иVMϵĸ£vmľͲ漰
+	//returns the upgraded VM: vm itself, or, if this solution is forked and has not created vm, a copy with the same id
+	//which takes the place of vm. Callers keeping vm (e.g., in an Allocation) must go on with the returned VM
+	public VM updateVM(VM vm){		//иVMϵĸ£vmľͲ漰
+		markDirty(vm);
+		LinkedList<Allocation> list = own(vm);
+		if(list != null && ownedVms != null && ownedVms.contains(vm) == false){
+			VM newVm = new VM(vm);
+			replaceKey(vm, newVm);
+			ownedVms.add(newVm);
+			for(Allocation alloc : list)
+				alloc.setVM(newVm);
+			vm = newVm;
+		}
 		vm.setType(vm.getType()+1);
 		
-		LinkedList<Allocation> list = this.get(vm);
 		if(list == null)
-			return;
+			return vm;
 		for(Allocation alloc : list){
 			double newFinishTime = alloc.getTask().getTaskSize() / vm.getSpeed() + alloc.getStartTime();
 			alloc.setFinishTime(newFinishTime);
 		}
+		return vm;
+	}
+	//puts newVm in place of vm, keeping the order of the VMs
+	private void replaceKey(VM vm, VM newVm){
+		List<Map.Entry<VM, LinkedList<Allocation>>> entries = new ArrayList<Map.Entry<VM, LinkedList<Allocation>>>(this.entrySet());
+		super.clear();
+		for(Map.Entry<VM, LinkedList<Allocation>> entry : entries)
+			super.put(entry.getKey() == vm ? newVm : entry.getKey(), entry.getValue());
 	}
 	
 	public VM updateVMForPCPandPSO2_1(VM vm){		//иVMϵĸ£vmľͲ漰
-		LinkedList<Allocation> list = this.get(vm);
+		LinkedList<Allocation> list = own(vm);
 		this.remove(vm); //Ƴӳ, list
 		
 		int type = vm.getType() + 1;
-		VM newVm = new VM(type);
+		VM newVm = new VM(type, vm.getSlotNum());
 		
 		if(list == null)
 			return null;
@@ -86,6 +283,37 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 	//----------------------------------------calculations-------------------------------------------
 	//calculate Earliest Starting Time of task on vm	
 	public double calcEST(Task task, VM vm){
+		double EST = calcDataReadyTime(task, vm);
+		if(vm == null)
+			EST = Math.max(EST, VM.LAUNCH_TIME);
+		else
+			EST = Math.max(EST, this.getVMAvailableTime(vm));
+		return EST;
+	}
+	//Earliest Starting Time of task in an idle gap of vm, for insertion-based scheduling: the VM need not be ready,
+	//the task may run between allocations. The allocations of vm must be in time order, e.g., added by insertTaskToVM
+	public double calcInsertionEST(Task task, VM vm){
+		double EST = calcDataReadyTime(task, vm);
+		if(vm == null || this.containsKey(vm) == false)
+			return Math.max(EST, VM.LAUNCH_TIME);
+		return searchStartTime(vm, EST, task.getTaskSize() / vm.getSpeed(), Double.MAX_VALUE);
+	}
+	//the earliest start time >= EST in an idle gap of vm which fits duration, starting no later than latestStart;
+	//-1 if there is none. Same as scanning the gaps between the allocations of vm in list order (see FreeSlots)
+	public double searchStartTime(VM vm, double EST, double duration, double latestStart){
+		if(vm.getSlotNum() > 1)
+			throw new RuntimeException("Insertion into idle gaps is not supported on multi-slot " + vm);
+		if(freeSlots == null)
+			freeSlots = new HashMap<VM, FreeSlots>();
+		FreeSlots slots = freeSlots.get(vm);
+		if(slots == null){
+			slots = new FreeSlots(this.get(vm));
+			freeSlots.put(vm, slots);
+		}
+		return slots.search(EST, duration, latestStart);
+	}
+	//the time when the data from all parents have arrived at vm
+	private double calcDataReadyTime(Task task, VM vm){
 		double EST = 0; 			
 		for(Edge inEdge : task.getInEdges()){
 			Task parent = inEdge.getSource();
@@ -97,10 +325,6 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 				arrivalTime += inEdge.getDataSize() / VM.NETWORK_SPEED;
 			EST = Math.max(EST, arrivalTime);
 		}
-		if(vm == null)
-			EST = Math.max(EST, VM.LAUNCH_TIME);
-		else
-			EST = Math.max(EST, this.getVMReadyTime(vm));
 		return EST;
 	}
 	
@@ -128,15 +352,19 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 //	}
 	
 	public double calcCost(){
+		if(isCostValid)
+			return cost;
 		double totalCost = 0;
 		for(VM vm : this.keySet()){
 			double vmCost = calcVMCost(vm); 
 			totalCost += vmCost;
 		}
+		cost = totalCost;
+		isCostValid = true;
 		return totalCost;
 	}
 	public double calcVMCost(VM vm){
-		return vm.getUnitCost() * Math.ceil((this.getVMLeaseEndTime(vm) - this.getVMLeaseStartTime(vm))/VM.INTERVAL);
+		return getLease(vm)[2];
 		
 //		//Ƽģ
 //		double leaseTime = this.getVMLeaseEndTime(vm) - this.getVMLeaseStartTime(vm);
@@ -148,14 +376,104 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 	
 	
 	public double calcMakespan(){
+		if(isMakespanValid)
+			return makespan;
 		double makespan = -1;
 		for(VM vm : this.keySet()){
 			double finishTime = this.getVMReadyTime(vm);	//finish time of the last task
 			if(finishTime > makespan)
 				makespan = finishTime;
 		}
+		this.makespan = makespan;
+		isMakespanValid = true;
 		return makespan;
 	}
+	
+	//----------------------------------------aggregates-------------------------------------------
+	//the allocations of vm (or the type of vm) have been changed directly; its lease, cost and the totals are recomputed
+	public void markDirty(VM vm){
+		dirtyLease(vm);
+		if(timelines != null)
+			timelines.remove(vm);
+		if(slotReadyTimes != null)
+			slotReadyTimes.remove(vm);
+		if(freeSlots != null)
+			freeSlots.remove(vm);
+	}
+	//this solution has been changed directly; all aggregates are recomputed
+	public void markDirty(){
+		leases = null;
+		isLeasesShared = false;
+		timelines = null;
+		slotReadyTimes = null;
+		freeSlots = null;
+		isCostValid = false;
+		isMakespanValid = false;
+	}
+	private void dirtyLease(VM vm){		//the timeline of vm is still valid
+		if(leases != null && leases.containsKey(vm)){
+			ownLeases();
+			leases.remove(vm);
+		}
+		isCostValid = false;
+		isMakespanValid = false;
+	}
+	//busy intervals of each slot of vm, built from its allocation list when first needed after a change
+	private VMTimeline[] getTimelines(VM vm){
+		if(timelines == null)
+			timelines = new HashMap<VM, VMTimeline[]>();
+		VMTimeline[] slots = timelines.get(vm);
+		if(slots == null){
+			slots = new VMTimeline[vm.getSlotNum()];
+			if(slots.length == 1)
+				slots[0] = new VMTimeline(this.get(vm));
+			else{
+				List<List<Allocation>> lists = new ArrayList<List<Allocation>>();
+				for(int k = 0; k < slots.length; k++)
+					lists.add(new ArrayList<Allocation>());
+				for(Allocation alloc : this.get(vm))
+					lists.get(checkedSlot(vm, alloc)).add(alloc);
+				for(int k = 0; k < slots.length; k++)
+					slots[k] = new VMTimeline(lists.get(k));
+			}
+			timelines.put(vm, slots);
+		}
+		return slots;
+	}
+	//the finish time of the last task of each slot of a multi-slot vm, computed when first needed after a change
+	private double[] getSlotReadyTimes(VM vm){
+		if(slotReadyTimes == null)
+			slotReadyTimes = new HashMap<VM, double[]>();
+		double[] readyTimes = slotReadyTimes.get(vm);
+		if(readyTimes == null){
+			readyTimes = new double[vm.getSlotNum()];
+			Arrays.fill(readyTimes, VM.LAUNCH_TIME);
+			if(this.get(vm) != null)
+				for(Allocation alloc : this.get(vm)){
+					int slot = checkedSlot(vm, alloc);
+					readyTimes[slot] = Math.max(readyTimes[slot], alloc.getFinishTime());
+				}
+			slotReadyTimes.put(vm, readyTimes);
+		}
+		return readyTimes;
+	}
+	private static int checkedSlot(VM vm, Allocation alloc){
+		if(alloc.getSlot() < 0 || alloc.getSlot() >= vm.getSlotNum())
+			throw new RuntimeException("Invalid slot " + alloc.getSlot() + " of task " + alloc.getTask().getId() + " on " + vm);
+		return alloc.getSlot();
+	}
+	private double[] getLease(VM vm){
+		if(leases == null)
+			leases = new HashMap<VM, double[]>();
+		double[] lease = leases.get(vm);
+		if(lease == null){
+			double start = calcVMLeaseStartTime(vm), end = calcVMLeaseEndTime(vm);
+			lease = new double[]{start, end, vm.getUnitCost() * Math.ceil((end - start)/VM.INTERVAL)};
+			ownLeases();
+			leases.put(vm, lease);
+		}
+		return lease;
+	}
 
 	// compare this solution to Solution s; if ==, returns false; used by ACO, PSO
 	public boolean isBetterThan(Solution s, double epsilonDeadline){
@@ -183,92 +501,64 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 	}
 	//check whether there is time conflict in this schedule solution
 	public boolean validate(Workflow wf){
-		List<Allocation> list = new ArrayList<Allocation>(revMapping.values());
-		
-		Set<Task> set = new HashSet<Task>();
-		for(Allocation alloc : list)
-			set.add(alloc.getTask());
-		if(set.size() != wf.size())	{	//check # of tasks
-			return false;
-		}
-		
-//		Collections.sort(list);			//Ѹsolutionеtaskʱ˳УǷ
-		for(Allocation alloc : list){
-			Task task = alloc.getTask();	// check each task and its children
-			for(Edge e : task.getOutEdges()){
-				Task child = e.getDestination();
-				
-				Allocation childAlloc = this.revMapping.get(child);
-				boolean isValid = false;
-				if(alloc.getVM() != childAlloc.getVM() 				
-						&& alloc.getFinishTime() +e.getDataSize()/VM.NETWORK_SPEED <= childAlloc.getStartTime()+ Evaluate.E)
-					isValid = true;
-				else if(alloc.getVM() == childAlloc.getVM() 				
-						&& alloc.getFinishTime() <= childAlloc.getStartTime() + Evaluate.E)
-					isValid = true;
-				if(isValid == false)
-					return false;
-			}
-		}
-		return true;
+		return validateReport(wf).isValid();
+	}
+	//all the violations of this schedule: tasks not allocated (or twice), edges not respected, and overlaps on VMs
+	public ScheduleValidator.Report validateReport(Workflow wf){
+		return new ScheduleValidator(wf.getGraph()).validate(this);
 	}
 	
 	//check whether there is time conflict in this schedule solution
 	//+ΥԼĸId
+	//[1] if valid; otherwise [0, id of a task, id of its parent (PRECEDENCE) or overlapped task (OVERLAP), or -1]
 	public List<Integer> validateId(Workflow wf){
-		List<Allocation> list = new ArrayList<Allocation>(revMapping.values());
-		
+		ScheduleValidator.Report report = validateReport(wf);
 		List<Integer> result = new ArrayList<Integer>();
-		Set<Task> set = new HashSet<Task>();
-		for(Allocation alloc : list)
-			set.add(alloc.getTask());
-		
-//		List<Integer> list1 = new LinkedList<Integer>();
-//		for(int i =0;i<wf.size();i++) {
-//			list1.add(new Integer(i));
-//		}
-//		for(Task t : set) {
-//			if(wf.contains(t))
-//				list1.remove(new Integer(t.getId()));
-//		}
-		if(set.size() != wf.size())	{	//check # of tasks
-			result.add(new Integer(0));
-//			System.out.println("!!!");
+		if(report.isValid()){
+			result.add(1);
 			return result;
 		}
-		
-//		Collections.sort(list);			//Ѹsolutionеtaskʱ˳УǷ
-		for(Allocation alloc : list){
-			Task task = alloc.getTask();	// check each task and its children
-			for(Edge e : task.getOutEdges()){
-				Task child = e.getDestination();
-				
-				Allocation childAlloc = this.revMapping.get(child);
-				boolean isValid = false;
-				if(alloc.getVM() != childAlloc.getVM() 				
-						&& alloc.getFinishTime() +e.getDataSize()/VM.NETWORK_SPEED <= childAlloc.getStartTime()+ Evaluate.E)
-					isValid = true;
-				else if(alloc.getVM() == childAlloc.getVM() 				
-						&& alloc.getFinishTime() <= childAlloc.getStartTime() + Evaluate.E)
-					isValid = true;
-				if(isValid == false) {
-					result.add(new Integer(0)); 
-					result.add(new Integer(task.getId()));
-					result.add(new Integer(child.getId()));
-					return result;
-				}
+		ScheduleValidator.Violation v = report.getViolations().get(0);
+		for(ScheduleValidator.Violation violation : report.getViolations())
+			if(violation.getKind() == ScheduleValidator.Kind.PRECEDENCE){		//the parent first, as before
+				v = violation;
+				break;
 			}
+		result.add(0);
+		if(v.getKind() == ScheduleValidator.Kind.PRECEDENCE){
+			result.add(v.getOther().getId());
+			result.add(v.getTask().getId());
+		}else{
+			result.add(v.getTask().getId());
+			result.add(v.getOther() == null ? -1 : v.getOther().getId());
 		}
-		result.add(new Integer(1));
 		return result;
 	}
 		
 	//----------------------------------------getters-------------------------------------------
-	//VM's lease start time and finish time are calculated based on allocations
-	public double getVMLeaseStartTime(VM vm){	
+	//VM's lease start time and finish time are calculated based on allocations, and kept until vm is marked dirty
+	public double getVMLeaseStartTime(VM vm){
+		return getLease(vm)[0];
+	}
+	public double getVMLeaseEndTime(VM vm){
+		return getLease(vm)[1];
+	}
+	private double calcVMLeaseStartTime(VM vm){	
 		if(this.get(vm).size() == 0)
 			return VM.LAUNCH_TIME;
-		else{
+		else if(vm.getSlotNum() > 1){		//the earliest of all tasks, as any of them may start first with its transfers
+			double leaseStart = Double.MAX_VALUE;
+			for(Allocation a : this.get(vm)){
+				double maxTransferTime = 0;
+				for(Edge e : a.getTask().getInEdges()){
+					Allocation alloc = revMapping.get(e.getSource());
+					if(alloc == null || alloc.getVM() != vm)
+						maxTransferTime = Math.max(maxTransferTime, e.getDataSize() / VM.NETWORK_SPEED);
+				}
+				leaseStart = Math.min(leaseStart, a.getStartTime() - maxTransferTime);
+			}
+			return leaseStart;
+		}else{
 			Task firstTask = this.get(vm).get(0).getTask();
 			double ftStartTime = this.get(vm).get(0).getStartTime(); // startTime of first task
 			
@@ -281,10 +571,22 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 			return ftStartTime - maxTransferTime;
 		}
 	}
-	public double getVMLeaseEndTime(VM vm){
+	private double calcVMLeaseEndTime(VM vm){
 		if(this.get(vm)== null || this.get(vm).size() == 0)
 			return VM.LAUNCH_TIME;
-		else{
+		else if(vm.getSlotNum() > 1){		//the latest of all tasks, as the last one to start may not finish last
+			double leaseEnd = VM.LAUNCH_TIME;
+			for(Allocation a : this.get(vm)){
+				double maxTransferTime = 0;
+				for(Edge e : a.getTask().getOutEdges()){
+					Allocation alloc = revMapping.get(e.getDestination());
+					if(alloc == null || alloc.getVM() != vm)
+						maxTransferTime = Math.max(maxTransferTime, e.getDataSize() / VM.NETWORK_SPEED);
+				}
+				leaseEnd = Math.max(leaseEnd, a.getFinishTime() + maxTransferTime);
+			}
+			return leaseEnd;
+		}else{
 			LinkedList<Allocation> allocations = this.get(vm);
 			
 			Task lastTask = allocations.get(allocations.size()-1).getTask();
@@ -303,17 +605,36 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 	public double getVMReadyTime(VM vm){		//finish time of the last task
 		if(this.get(vm)== null || this.get(vm).size() == 0)
 			return VM.LAUNCH_TIME;
-		else{
+		else if(vm.getSlotNum() > 1){		//of all slots
+			double readyTime = VM.LAUNCH_TIME;
+			for(double slotReadyTime : getSlotReadyTimes(vm))
+				readyTime = Math.max(readyTime, slotReadyTime);
+			return readyTime;
+		}else{
 			LinkedList<Allocation> allocations = this.get(vm);
 			return allocations.get(allocations.size()-1).getFinishTime(); 
 		}
 	}
-	public HashMap<Task, Allocation> getRevMapping() {
+	//the time when vm can start another task at the end of a slot: the ready time of its earliest-free slot
+	public double getVMAvailableTime(VM vm){
+		if(vm.getSlotNum() == 1 || this.get(vm) == null)
+			return getVMReadyTime(vm);
+		double availableTime = Double.MAX_VALUE;
+		for(double slotReadyTime : getSlotReadyTimes(vm))
+			availableTime = Math.min(availableTime, slotReadyTime);
+		return availableTime;
+	}
+	public Map<Task, Allocation> getRevMapping() {
 		return revMapping;
 	}
 	
 	//vm task Ҫ
 	public static Solution deepcopy(Solution s1) {
+		return deepcopy(s1, null);
+	}
+	//a copy with new lists and Allocations, sharing the Tasks. vmCopies: null to share the VMs, e.g., those of a VM pool;
+	//otherwise the VMs are copied too, and vmCopies maps each VM to its copy (a VM already in it is mapped to that copy)
+	public static Solution deepcopy(Solution s1, Map<VM, VM> vmCopies) {
 //		VM v1 =new VM(0), v2= new VM(1); Task t1 = new Task("liwen",100);
 //		Allocation newAllo1 = new Allocation(v1, t1, 0, 1);
 //		Allocation newAllo2 = new Allocation(v1, t1, 0, 2);
@@ -326,15 +647,19 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 
 		
 		Solution newS = new Solution(0);
+		newS.revMapping = new HashMap<Task, Allocation>(s1.revMapping.size() * 4 / 3 + 1);
 //		HashMap<Task, Allocation> revMapping2 = newS.getRevMapping();
 		for(VM vm : s1.keySet()) {
 			LinkedList<Allocation> newAlloList = new LinkedList<Allocation>();
+			VM newVm = copyOf(vm, vmCopies);
 			for(Allocation allo : s1.get(vm)) {
-				Allocation newAllo = new Allocation(allo.getVM(), allo.getTask(), allo.getStartTime(), allo.getFinishTime());
+				VM alloVm = allo.getVM() == vm ? newVm : copyOf(allo.getVM(), vmCopies);
+				Allocation newAllo = new Allocation(alloVm, allo.getTask(), allo.getStartTime(), allo.getFinishTime());
+				newAllo.setSlot(allo.getSlot());
 				newAlloList.add(newAllo);
 				newS.revMapping.put(newAllo.getTask(), newAllo);
 			}
-			newS.put(vm, newAlloList);
+			newS.put(newVm, newAlloList);
 			
 		}
 		
@@ -347,7 +672,60 @@ public class Solution extends LinkedHashMap<VM, LinkedList<Allocation>>{
 		return newS;
 	}
 
+	private static VM copyOf(VM vm, Map<VM, VM> vmCopies){
+		if(vmCopies == null || vm == null)
+			return vm;
+		VM copy = vmCopies.get(vm);
+		if(copy == null){
+			copy = new VM(vm);
+			vmCopies.put(vm, copy);
+		}
+		return copy;
+	}
+
 	//----------------------------------------override-------------------------------------------
+	//changes of VMs through the map mark the aggregates dirty
+	public LinkedList<Allocation> put(VM vm, LinkedList<Allocation> list) {
+		LinkedList<Allocation> old = super.put(vm, list);
+		if(ownedLists != null && list != null)		//a list given by the caller is the caller's to change
+			ownedLists.add(list);
+		if(old == null && list != null && list.isEmpty())		//a new VM, e.g., by addTaskToVM
+			markDirty(vm);
+		else
+			markDirty();
+		return old;
+	}
+	public void putAll(Map<? extends VM, ? extends LinkedList<Allocation>> m) {
+		super.putAll(m);
+		if(ownedLists != null)
+			ownedLists.addAll(m.values());
+		markDirty();
+	}
+	public LinkedList<Allocation> remove(Object vm) {
+		LinkedList<Allocation> old = super.remove(vm);
+		if(ownedLists != null && old != null)
+			ownedLists.remove(old);
+		markDirty();
+		return old;
+	}
+	public void clear() {
+		super.clear();
+		ownedLists = null;
+		ownedVms = null;
+		markDirty();
+	}
+	public Object clone() {		//the copy computes its own aggregates
+		Solution s = (Solution)super.clone();
+		if(ownedLists != null){
+			s.ownedLists = newIdentitySet();
+			s.ownedLists.addAll(ownedLists);
+		}
+		if(ownedVms != null)
+			s.ownedVms = new HashSet<VM>(ownedVms);
+		s.markDirty();
+		return s;
+	}
+	
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("required cost" + this.calcCost() + "\trequired time" + this.calcMakespan()+"\r\n");
@@ -4,9 +4,10 @@ import java.io.Serializable;
 import java.util.*;
 
 public class Task{
-	private static int internalId = 0;
+	//per thread, so that workflows can be read in parallel (e.g., by WorkflowRepository.preload) and still get ids 0 ... size()-1
+	private static final ThreadLocal<int[]> internalId = ThreadLocal.withInitial(() -> new int[1]);
 	static void resetInternalId(){		//invoked by the constructor of Workflow
-		internalId = 0;
+		internalId.get()[0] = 0;
 	}
 	private int id;
 	private String name;
@@ -16,16 +17,19 @@ public class Task{
 	//ӱߵն֮ҲڸӹϵЩedgeǰն˶Ӧ˳;  ͨworkflowеrefineʵ
 	private List<Edge> outEdges = new ArrayList<Edge>();	
 	private List<Edge> inEdges = new ArrayList<Edge>();
-	private int topoCount = 0;			//used for topological sort
 	
 	private double bLevel; 	//blevel
 	private double tLevel;	//tLevel
 	private double sLevel;
 	private double ALAP;
-	private double pURank; //Probabilistic Upward  Rank 
 
 	public Task(String name, double taskSize) {
-		this.id = internalId++;
+		this.id = internalId.get()[0]++;
+		this.name = name;
+		this.taskSize = taskSize;
+	}
+	Task(int id, String name, double taskSize) {		//a task added to a constructed workflow
+		this.id = id;
 		this.name = name;
 		this.taskSize = taskSize;
 	}
@@ -40,6 +44,9 @@ public class Task{
 	public double getTaskSize() {
 		return taskSize;
 	}
+	void setTaskSize(double taskSize) {		//by Workflow.setTaskSize, which updates levels
+		this.taskSize = taskSize;
+	}
 	public double getbLevel() {
 		return bLevel;
 	}
@@ -80,18 +87,6 @@ public class Task{
 			throw new RuntimeException();
 		outEdges.add(e);
 	}
-	public int getTopoCount() {
-		return topoCount;
-	}
-	public void setTopoCount(int topoCount) {
-		this.topoCount = topoCount;
-	}
-	public double getpURank() {
-		return pURank;
-	}
-	public void setpURank(double pURank) {
-		this.pURank = pURank;
-	}
 	
 	//-------------------------------------overrides--------------------------------
 	public String toString() {
@@ -101,58 +96,21 @@ public class Task{
 	}
 
 	//-------------------------------------comparators--------------------------------
-	public static class BLevelComparator implements Comparator<Task>{
-		public int compare(Task o1, Task o2) {
-			// to keep entry node ranking last, and exit node first
-			if(o1.getName().equals("entry") || o2.getName().equals("exit"))	
-				return 1;
-			if(o1.getName().equals("exit") || o2.getName().equals("entry"))	
-				return -1;
-			if(o1.getbLevel()>o2.getbLevel())
-				return 1;
-			else if(o1.getbLevel()<o2.getbLevel())
-				return -1;
-			else{
-				return 0;
-			}
-		}
-	}
-	public static class PURankComparator implements Comparator<Task>{	
-		public int compare(Task o1, Task o2) {
-			// to keep entry node ranking last, and exit node first
-			if(o1.getName().equals("entry") || o2.getName().equals("exit"))	
-				return 1;
-			if(o1.getName().equals("exit") || o2.getName().equals("entry"))	
-				return -1;
-			if(o1.getpURank()>o2.getpURank())
-				return 1;
-			else if(o1.getpURank()<o2.getpURank())
-				return -1;
-			else{
-				return 0;
-			}
-		}
-	}
-	public static class TLevelComparator implements Comparator<Task>{
-		public int compare(Task o1, Task o2) {
-			if(o1.getName().equals("entry") || o2.getName().equals("exit"))	
-				return -1;
-			if(o1.getName().equals("exit") || o2.getName().equals("entry"))	
-				return 1;
-			if(o1.gettLevel()>o2.gettLevel())
-				return 1;
-			else if(o1.gettLevel()<o2.gettLevel())
-				return -1;
-			else{
-				return 0;
-			}
-		}
-	}
-	// used to calculate the largest number of parallel tasks in workflow
+	// used to calculate the largest number of parallel tasks in workflow;
+	// out-degree minus in-degree is computed once for each task, rather than in each comparison
 	public static class ParallelComparator implements Comparator<Task>{
+		private final int[] degreeDiff;		//indexed by task id
+		public ParallelComparator(List<Task> tasks){
+			int maxId = -1;
+			for(Task t : tasks)
+				maxId = Math.max(maxId, t.getId());
+			degreeDiff = new int[maxId + 1];
+			for(Task t : tasks)
+				degreeDiff[t.getId()] = t.getOutEdges().size() - t.getInEdges().size();
+		}
 		public int compare(Task o1, Task o2) {
-			int d1 = o1.getOutEdges().size() - o1.getInEdges().size();
-			int d2 = o2.getOutEdges().size() - o2.getInEdges().size();
+			int d1 = degreeDiff[o1.getId()];
+			int d2 = degreeDiff[o2.getId()];
 			if(d1 > d2)				// because of the use of PriorityQueue, here the comparison is reverse
 				return -1;
 			else if (d1<d2)
@@ -161,24 +119,4 @@ public class Task{
 				return 0;
 		}
 	}
-
-	//---------------------task properties used in ICPCP algorithm---------------------------
-	private double EST = -1, EFT = -1, LFT = -1, AST = -1, AFT = -1;  //'-1' means the value has not been set
-	private Task criticalParent;
-	private boolean isAssigned = false;		//assignedԺESTͱʾʵʵĿʼʱˣEFTLFTΪ   finish timeĲͬ
-
-	public double getEST() {		return EST;	}
-	public void setEST(double eST) {		EST = eST;	}
-	public double getEFT() {		return EFT;	}
-	public void setEFT(double eFT) {		EFT = eFT;	}
-	public double getLFT() {		return LFT;	}
-	public void setLFT(double lFT) {		LFT = lFT;	}
-	public Task getCriticalParent() {		return criticalParent;	}
-	public void setCriticalParent(Task criticalParent) {		this.criticalParent = criticalParent;	}
-	public boolean isAssigned() {		return isAssigned;	}
-	public void setAssigned(boolean isAssigned) {		this.isAssigned = isAssigned;	}
-	public double getAST() {		return AST;	}
-	public void setAST(double aST) {		AST = aST;	}
-	public double getAFT() {		return AFT;	}
-	public void setAFT(double aFT) {		AFT = aFT;	}
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+//removes redundant control flows from a workflow: an edge u->v without data is removed if another path leads from u to v.
+//Such an edge never decides when v can start, since v waits for the tasks on the other path, which wait for u;
+//thus levels, EST/EFT and the costs of schedules are not changed. Edges with data are always kept.
+//Common cases are the edges from entry / to exit added for local files in bind, and control flows implied by others
+class TransitiveReduction {
+
+	private TransitiveReduction(){}
+
+	//tasks must be a topological sort with entry first and exit last; returns the number of edges removed
+	static int reduce(List<Task> tasks){
+		int n = tasks.size();
+		int maxId = -1;
+		for(Task t : tasks)
+			maxId = Math.max(maxId, t.getId());
+		int[] position = new int[maxId + 1];		//indexed by task id
+		for(int i = 0; i < n; i++)
+			position[tasks.get(i).getId()] = i;
+		int[] visited = new int[maxId + 1];		//index of the task whose search visited a task last; 0: none
+		Task entry = tasks.get(0), texit = tasks.get(n-1);
+
+		Set<Edge> redundant = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
+		Deque<Task> stack = new ArrayDeque<Task>();
+		for(int i = 0; i < n - 1; i++){
+			Task u = tasks.get(i);
+			int maxTarget = -1;		//largest position of a child reached without data, apart from exit
+			for(Edge e : u.getOutEdges()){
+				Task v = e.getDestination();
+				if(e.getDataSize() != 0)
+					continue;
+				if(v == texit){			//every task reaches exit
+					if(u.getOutEdges().size() > 1)
+						redundant.add(e);
+				}else if(u == entry){	//entry reaches every task
+					if(v.getInEdges().size() > 1)
+						redundant.add(e);
+				}else{
+					maxTarget = Math.max(maxTarget, position[v.getId()]);
+				}
+			}
+			if(maxTarget < 0)
+				continue;
+
+			//mark the tasks reached from the children of u by at least one edge, up to position maxTarget
+			int stamp = i + 1;
+			for(Edge e : u.getOutEdges())
+				pushChildren(e.getDestination(), stack, visited, stamp, position, maxTarget);
+			while(stack.size() > 0)
+				pushChildren(stack.pop(), stack, visited, stamp, position, maxTarget);
+			for(Edge e : u.getOutEdges()){
+				Task v = e.getDestination();
+				if(e.getDataSize() == 0 && v != texit && u != entry && visited[v.getId()] == stamp)
+					redundant.add(e);
+			}
+		}
+
+		for(Task t : tasks){
+			t.getOutEdges().removeIf(redundant::contains);
+			t.getInEdges().removeIf(redundant::contains);
+		}
+		return redundant.size();
+	}
+
+	private static void pushChildren(Task task, Deque<Task> stack, int[] visited, int stamp, int[] position, int maxTarget){
+		for(Edge e : task.getOutEdges()){
+			Task child = e.getDestination();
+			if(position[child.getId()] <= maxTarget && visited[child.getId()] != stamp){
+				visited[child.getId()] = stamp;
+				stack.push(child);
+			}
+		}
+	}
+}
@@ -26,20 +26,34 @@ public class VM {
 //	public static final int FASTEST = 5;
 //	public static final int SLOWEST = 0;
 	
-	private static int internalId = 0;
+	//per thread, like the ids of Task, so that runs scheduling in parallel each number their VMs 0, 1, ...
+	private static final ThreadLocal<int[]> internalId = ThreadLocal.withInitial(() -> new int[1]);
 	public static void resetInternalId(){	//called by the constructor of Solution
-		internalId = 0;
+		internalId.get()[0] = 0;
 	}
 	public static void setInternalId(int startId){
-		internalId = startId;
+		internalId.get()[0] = startId;
 	}
 	
 	private int id;
 	private int type; 
+	private int slotNum = 1;	//tasks run at the same time, e.g., on the cores of a multi-core instance
 
 	public VM(int type){
 		this.type = type;
-		this.id = internalId++;
+		this.id = internalId.get()[0]++;
+	}
+	//a VM running up to slotNum tasks at once, each at the speed of type; it is billed as slotNum VMs of type
+	public VM(int type, int slotNum){
+		this(type);
+		if(slotNum < 1)
+			throw new RuntimeException("Invalid slot number: " + slotNum);
+		this.slotNum = slotNum;
+	}
+	VM(VM vm){		//a copy with the same id, type and slots, e.g., by DeepCopyUtil; internalId is not changed
+		this.type = vm.type;
+		this.id = vm.id;
+		this.slotNum = vm.slotNum;
 	}
 	
 	//------------------------getters && setters---------------------------
@@ -50,12 +64,13 @@ public class VM {
 		this.id = id;
 	}
 	public double getSpeed(){		return SPEEDS[type];	}
-	public double getUnitCost(){		return UNIT_COSTS[type];	}
+	public double getUnitCost(){		return UNIT_COSTS[type] * slotNum;	}
 	public int getId() {		return id;	}
 	public int getType() {		return type;	}
+	public int getSlotNum() {		return slotNum;	}
 	
 	//-------------------------------------overrides--------------------------------
 	public String toString() {
-		return "VM [id=" + id + ", type=" + type + "]";
+		return "VM [id=" + id + ", type=" + type + (slotNum > 1 ? ", slots=" + slotNum : "") + "]";
 	}
 }
\ No newline at end of file
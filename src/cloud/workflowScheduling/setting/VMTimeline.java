@@ -0,0 +1,120 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import cloud.workflowScheduling.*;
+
+//the busy intervals of a VM ordered by start time, in sorted arrays; a conflict check is a binary search, O(log n),
+//instead of scanning all allocations. Only allocations longer than Evaluate.E are kept: they do not overlap each other
+//(by more than E), so a new interval can only overlap the last one starting at or before it or the first one after it.
+//Allocations of zero length, e.g., entry and exit, never conflict.
+//Schedulers mostly append at the end of a VM, which is O(1); an insertion before other intervals moves the later ones
+public class VMTimeline {
+
+	private double[] startTimes = new double[8], finishTimes = new double[8];
+	private Allocation[] allocations = new Allocation[8];
+	private int size;
+
+	public VMTimeline() {}
+	//a timeline of existing allocations, e.g., the Allocation list of a VM in Solution; they are not checked
+	public VMTimeline(Collection<Allocation> list) {
+		List<Allocation> sorted = new ArrayList<Allocation>(list.size());
+		boolean isSorted = true;
+		for(Allocation alloc : list){
+			if(alloc.getFinishTime() - alloc.getStartTime() <= Evaluate.E)
+				continue;
+			if(sorted.size() > 0 && sorted.get(sorted.size()-1).getStartTime() > alloc.getStartTime())
+				isSorted = false;
+			sorted.add(alloc);
+		}
+		if(!isSorted)
+			sorted.sort((a1, a2) -> Double.compare(a1.getStartTime(), a2.getStartTime()));
+		ensureCapacity(sorted.size());
+		for(Allocation alloc : sorted){
+			startTimes[size] = alloc.getStartTime();
+			finishTimes[size] = alloc.getFinishTime();
+			allocations[size++] = alloc;
+		}
+	}
+
+	//whether [startTime, finishTime] overlaps a busy interval by more than Evaluate.E
+	public boolean conflicts(double startTime, double finishTime){
+		int i = upperBound(startTime);
+		if(i > 0 && Math.min(finishTime, finishTimes[i-1]) - startTime > Evaluate.E)
+			return true;
+		return i < size && Math.min(finishTime, finishTimes[i]) - startTimes[i] > Evaluate.E;
+	}
+
+	public void add(Allocation alloc){
+		if(alloc.getFinishTime() - alloc.getStartTime() <= Evaluate.E)
+			return;
+		int i = upperBound(alloc.getStartTime());
+		ensureCapacity(size + 1);
+		System.arraycopy(startTimes, i, startTimes, i+1, size-i);
+		System.arraycopy(finishTimes, i, finishTimes, i+1, size-i);
+		System.arraycopy(allocations, i, allocations, i+1, size-i);
+		startTimes[i] = alloc.getStartTime();
+		finishTimes[i] = alloc.getFinishTime();
+		allocations[i] = alloc;
+		size++;
+	}
+
+	public void remove(Allocation alloc){
+		if(alloc.getFinishTime() - alloc.getStartTime() <= Evaluate.E)
+			return;
+		int i = upperBound(alloc.getStartTime()) - 1;
+		while(i >= 0 && allocations[i] != alloc)		//intervals with the same start time
+			i--;
+		if(i < 0)
+			return;
+		System.arraycopy(startTimes, i+1, startTimes, i, size-i-1);
+		System.arraycopy(finishTimes, i+1, finishTimes, i, size-i-1);
+		System.arraycopy(allocations, i+1, allocations, i, size-i-1);
+		allocations[--size] = null;
+	}
+
+	//the number of busy intervals starting at or before time
+	private int upperBound(double time){
+		if(size == 0 || startTimes[size-1] <= time)		//the usual case: after the last interval
+			return size;
+		int low = 0, high = size;
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(startTimes[mid] <= time)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	private void ensureCapacity(int capacity){
+		if(capacity > startTimes.length){
+			int length = Math.max(capacity, startTimes.length * 2);
+			startTimes = Arrays.copyOf(startTimes, length);
+			finishTimes = Arrays.copyOf(finishTimes, length);
+			allocations = Arrays.copyOf(allocations, length);
+		}
+	}
+
+	//the busy allocation starting last at or before time, or null
+	public Allocation getBefore(double time){
+		int i = upperBound(time);
+		return i > 0 ? allocations[i-1] : null;
+	}
+	//the busy allocation starting first after time, or null
+	public Allocation getAfter(double time){
+		int i = upperBound(time);
+		return i < size ? allocations[i] : null;
+	}
+
+	//-------------------------------------getters--------------------------------
+	//number of busy intervals
+	public int size() {
+		return size;
+	}
+	//the i-th busy allocation by start time
+	public Allocation get(int i) {
+		return allocations[i];
+	}
+}
@@ -0,0 +1,97 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+
+//topological wavefronts of a workflow graph: wave 0 is entry, and a task is in the wave after the last wave of its parents.
+//Tasks of a wave do not depend on each other, so a sweep (e.g., calculating levels) can run the tasks of a wave in parallel
+//on a ForkJoinPool and go to the next wave after all of them finish. Every task still reads its parents' or children's
+//values in edge order, so the results are identical to a sequential sweep in index order
+public class Wavefronts {
+	//workflows with fewer tasks are swept sequentially; package-private for tests
+	static int parallelThreshold = 50000;
+	private static final int GRAIN = 512;		//tasks run by one fork-join task
+
+	private final int[] offsets;	//tasks of wave w are tasks[offsets[w]] ... tasks[offsets[w+1]-1]
+	private final int[] tasks;
+	private final ForkJoinPool pool;
+
+	public Wavefronts(WorkflowGraph g, ForkJoinPool pool) {
+		this.pool = pool;
+		int n = g.size();
+		int[] parentOffsets = g.getParentOffsets(), parents = g.getParents();
+		int[] depth = new int[n];
+		int waveNum = 0;
+		for(int j = 0; j < n; j++){		//graph indices are a topological sort
+			int d = 0;
+			for(int k = parentOffsets[j]; k < parentOffsets[j+1]; k++)
+				d = Math.max(d, depth[parents[k]] + 1);
+			depth[j] = d;
+			waveNum = Math.max(waveNum, d + 1);
+		}
+		offsets = new int[waveNum + 1];
+		for(int j = 0; j < n; j++)
+			offsets[depth[j] + 1]++;
+		for(int w = 0; w < waveNum; w++)
+			offsets[w + 1] += offsets[w];
+		tasks = new int[n];
+		int[] next = new int[waveNum];
+		System.arraycopy(offsets, 0, next, 0, waveNum);
+		for(int j = 0; j < n; j++)
+			tasks[next[depth[j]]++] = j;
+	}
+
+	//wavefronts for parallel sweeps over g, or null if g is too small to gain from them
+	public static Wavefronts of(WorkflowGraph g){
+		return g.size() >= parallelThreshold ? new Wavefronts(g, ForkJoinPool.commonPool()) : null;
+	}
+
+	//runs action for every graph index; parents before children
+	public void forward(IntConsumer action){
+		for(int w = 0; w < waveCount(); w++)
+			run(offsets[w], offsets[w+1], action);
+	}
+	//runs action for every graph index; children before parents
+	public void backward(IntConsumer action){
+		for(int w = waveCount() - 1; w >= 0; w--)
+			run(offsets[w], offsets[w+1], action);
+	}
+
+	private void run(int from, int to, IntConsumer action){
+		if(to - from <= GRAIN){
+			for(int i = from; i < to; i++)
+				action.accept(tasks[i]);
+		}else{
+			pool.invoke(new Chunk(from, to, action));
+		}
+	}
+
+	private class Chunk extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+		private final int from, to;
+		private final IntConsumer action;
+
+		Chunk(int from, int to, IntConsumer action){
+			this.from = from;
+			this.to = to;
+			this.action = action;
+		}
+		protected void compute(){
+			if(to - from <= GRAIN){
+				for(int i = from; i < to; i++)
+					action.accept(tasks[i]);
+			}else{
+				int mid = (from + to) >>> 1;
+				invokeAll(new Chunk(from, mid, action), new Chunk(mid, to, action));
+			}
+		}
+	}
+
+	//-------------------------------------getters--------------------------------
+	public int waveCount() {
+		return offsets.length - 1;
+	}
+	public int getWaveSize(int wave) {
+		return offsets[wave + 1] - offsets[wave];
+	}
+}
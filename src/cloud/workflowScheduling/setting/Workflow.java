@@ -3,9 +3,7 @@ package cloud.workflowScheduling.setting;
 import static java.lang.Math.*;
 
 import java.util.*;
-import javax.xml.parsers.*;
-import org.xml.sax.*;
-import org.xml.sax.helpers.*;
+import java.util.function.IntConsumer;
 
 //adjacent list to store workflow graph; 
 //two dummy tasks entry and exit are  at the head and the end of arraylist, respectively
@@ -14,18 +12,28 @@ public class Workflow extends ArrayList<Task>{
 	private static final long serialVersionUID = 1L;
 	private double deadline = Double.MAX_VALUE;
 	private int maxParallel;
+	private WorkflowGraph graph;
+	//priority orders cached by getBLevelOrder, getTLevelOrder and calcPURankOrder; volatile as a workflow can be shared by threads
+	private volatile int[] bLevelOrder, tLevelOrder, maxThetaPURankOrder;
+	private volatile double[] maxThetaPURanks;
+	private int removedEdgeNum;		//by transitive reduction
+	private volatile Wavefronts wavefronts;		//of graph, for parallel calcPURank of large workflows
+	private volatile ReachabilityIndex reachability;	//of graph, built by the first getReachability
+	private boolean isShared;		//a copy from WorkflowRepository, sharing its tasks with other copies
+	private int[] positions;		//used by the incremental changes below
 	
-	//only used in reading DAX
-	private HashMap<String, TransferData> transferData = new HashMap<String, TransferData>(); //ǰ᣺ fileNameΪʾ
-	private HashMap<String, Task> nameTaskMapping = new HashMap<String, Task>();
 	public HashMap<Integer, Task> idTaskMapping = new HashMap<Integer, Task>();
 	
 	public Workflow(String file) {
+		this(file, false);
+	}
+	//reduce: whether to remove control flows without data implied by other paths (see TransitiveReduction)
+	public Workflow(String file, boolean reduce) {
 		super();
 		Task.resetInternalId();	
+		DaxLoader loader = new DaxLoader();		//only used in reading DAX
 		try {		//readDAX
-			SAXParser sp = SAXParserFactory.newInstance().newSAXParser();
-			sp.parse(new InputSource(file), new MyDAXReader());
+			loader.parse(file);
 			System.out.println("succeed to read DAX data from " + file);
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -33,7 +41,7 @@ public class Workflow extends ArrayList<Task>{
 		
 		//-----------add tasks to this workflow: start----------------------
 		//ÿԼ֮()ϣsizeûãû
-		for(Task t: nameTaskMapping.values())
+		for(Task t: loader.createTasks())
 			this.add(t);
 		Task tentry = new Task(("entry"), 0);	
 		Task texit = new Task(("exit"), 0);
@@ -55,13 +63,21 @@ public class Workflow extends ArrayList<Task>{
 		this.add(texit);
 		//-----------add tasks to this workflow: end----------------------
 		
-		bind();
+		loader.bind(tentry, texit);		// Bind data flow to control flow; parse-only data are dropped here
 		topoSort();		// turn to a topological sort
 		calcTaskLevels();
+		if(reduce){		//after calcTaskLevels, which gives the same levels and order with or without these edges
+			int edgeNum = 0;
+			for(Task t : this)
+				edgeNum += t.getOutEdges().size();
+			removedEdgeNum = TransitiveReduction.reduce(this);
+			System.out.println("Transitive reduction removed " + removedEdgeNum + " of " + edgeNum + " edges");
+		}
 		
 		//workflowtaskidĶӦϵ
 		for(Task task : this)
 			idTaskMapping.put(task.getId(), task);
+		graph = new WorkflowGraph(this);
 		
 //		System.out.println("dummy");
 //		Task en = this.get(0);
@@ -77,44 +93,63 @@ public class Workflow extends ArrayList<Task>{
 //		}
 	}
 	
-	// Bind data flow to control flow
-	private void bind(){
-		Task tentry = this.get(0);
-		Task texit = this.get(this.size() - 1);
-
-		for(TransferData td : transferData.values()){	//Bind data flow to control flow //transferDataдxmlļеļ
-			Task source = td.getSource();
-			List<Task> destinations = td.getDestinations();
-			if(source == null){ //taskļбļڿܲ
-				source = tentry; //Щtask潨˺dummy entryӣûΪ0
-				td.setSize(0);		//a setting: transfer time of input data is omitted --- setting to 0
-			}
-			if(destinations == null || destinations.size()==0) {	//taskļδʹãļĳڿܲ
-				destinations.add(texit); //Щtask潨˺dummy exitӣûΪ0
-				td.setSize(0); 			//޸Ϊ0 190905ylw
-			}
-			for(Task destination : destinations){
-				boolean flag = true;
-				for(Edge outEdge : source.getOutEdges()){
-					if(outEdge.getDestination() == destination){
-						outEdge.setDataSize(td.getSize());			//bind here
-						flag = false;
-					}
-				}
-				//an annoying problem in some DAX files: a data flow cannot be bound to existing control flows 
-				//flag to indicate whether this problem exists
-				//ΪļĴproblem, ʵ˱ļĿԴڣĿĵǱļĿtask;
-				//																ԴǱļtask, Ŀĵ
-				if(flag == true){
-					Edge e = new Edge(source, destination);
-					e.setDataSize(td.getSize());
-					source.insertOutEdge(e);
-					destination.insertInEdge(e);
-//					System.out.println("**************add a control flow*******************source: "
-//							+e.getSource().getName()+"; destination: "+e.getDestination().getName());
-				}
+	//rebuilds a workflow stored by WorkflowFile.write; neither parsing nor topoSort and calcTaskLevels is needed,
+	//and the result is identical to the workflow written, including task ids and the order of edges.
+	//The graph is not rebuilt from the tasks: it reads the columns of file in place
+	Workflow(WorkflowFile file) {
+		super(file.size());
+		Task.resetInternalId();
+		int n = file.size();
+		int[] position = new int[n];		//position in the file, indexed by task id; file has checked ids are 0 ... n-1
+		for(int i = 0; i < n; i++)
+			position[file.getId(i)] = i;
+		Task[] tasks = new Task[n];
+		for(int id = 0; id < n; id++){		//in id order, so that the same ids are assigned
+			int i = position[id];
+			tasks[i] = new Task(file.getName(i), file.getTaskSize(i));
+			tasks[i].setbLevel(file.getbLevel(i));
+			tasks[i].settLevel(file.gettLevel(i));
+			tasks[i].setsLevel(file.getsLevel(i));
+			tasks[i].setALAP(file.getALAP(i));
+		}
+		Edge[] edges = new Edge[file.edgeCount()];
+		for(int i = 0; i < n; i++){
+			for(int k = file.getChildOffset(i); k < file.getChildOffset(i + 1); k++){
+				edges[k] = new Edge(tasks[i], tasks[file.getChild(k)]);
+				edges[k].setDataSize(file.getDataSize(k));
+				tasks[i].insertOutEdge(edges[k]);
 			}
 		}
+		for(int i = 0; i < n; i++){
+			this.add(tasks[i]);
+			for(int k = file.getParentOffset(i); k < file.getParentOffset(i + 1); k++)
+				tasks[i].insertInEdge(edges[file.getInEdge(k)]);
+		}
+		this.maxParallel = file.getMaxParallel();
+		this.removedEdgeNum = file.getRemovedEdgeNum();
+		if(removedEdgeNum > 0)
+			System.out.println("Transitive reduction removed " + removedEdgeNum + " of " + (file.edgeCount() + removedEdgeNum)
+					+ " edges");
+		for(Task task : this)
+			idTaskMapping.put(task.getId(), task);
+		graph = file.getGraph(tasks);
+	}
+	
+	//copy of template used by WorkflowRepository: tasks, edges, the graph and the cached orders are shared, as they are not
+	//changed after construction (per-run state of tasks is in ScheduleContext); deadline and deadlineFactor are fresh
+	Workflow(Workflow template) {
+		super(template);
+		this.maxParallel = template.maxParallel;
+		this.removedEdgeNum = template.removedEdgeNum;
+		this.graph = template.getGraph();
+		this.bLevelOrder = template.getBLevelOrder();
+		this.tLevelOrder = template.getTLevelOrder();
+		this.maxThetaPURankOrder = template.maxThetaPURankOrder;
+		this.maxThetaPURanks = template.maxThetaPURanks;
+		this.wavefronts = template.wavefronts;
+		this.reachability = template.reachability;
+		this.idTaskMapping = new HashMap<Integer, Task>(template.idTaskMapping);
+		this.isShared = true;
 	}
 	
 	// convert the task list of workflow to a topological sort based on Kahn algorithm; 
@@ -123,21 +158,23 @@ public class Workflow extends ArrayList<Task>{
 		// Empty list that will contain the sorted elements
 		List<Task> topoList = new ArrayList<Task>();	
 		//SSet of all nodes with no incoming edges
-		PriorityQueue<Task> S = new PriorityQueue<Task>(10, new Task.ParallelComparator());		
+		PriorityQueue<Task> S = new PriorityQueue<Task>(10, new Task.ParallelComparator(this));		
 		S.add(this.get(0));		
 
-		for(Task task : this)	//set topoCount to 0
-			task.setTopoCount(0);
+		int[] topoCount = new int[this.size()];	//indexed by task id; ids of a workflow are 0 ... size()-1
+		int[] topoPosition = new int[this.size()];	//position in topoList, indexed by task id
+		Arrays.fill(topoPosition, -1);		//-1: not in topoList, same as List.indexOf
 		
 		this.maxParallel = -1;
 		while(S.size()>0){ //ѡԵȵģģȻԿԵȵtaskݳ-ȵĲȵȲ
 			maxParallel = Math.max(maxParallel, S.size());
 			Task task = S.poll();				// remove a node n from S
+			topoPosition[task.getId()] = topoList.size();
 			topoList.add(task);			// add n to tail of L
 			for(Edge e : task.getOutEdges()){	// for each node m with an edge e from n to m do
 				Task t = e.getDestination();
-				t.setTopoCount(t.getTopoCount()+1);	//remove edge e from the graph--achieved by setting TopoCount here
-				if(t.getTopoCount() == t.getInEdges().size())	//if m has no other incoming edges then
+				topoCount[t.getId()]++;	//remove edge e from the graph--achieved by setting TopoCount here
+				if(topoCount[t.getId()] == t.getInEdges().size())	//if m has no other incoming edges then
 					S.add(t);					// insert m into S			
 			}
 		}
@@ -145,8 +182,8 @@ public class Workflow extends ArrayList<Task>{
 		System.out.println("An approximate value for maximum parallel number: " + maxParallel);  
 		
 		//sort edges for each task
-		Edge.EComparator ecForDestination = new Edge.EComparator(true, topoList);
-		Edge.EComparator ecForSource = new Edge.EComparator(false, topoList);
+		Edge.EComparator ecForDestination = new Edge.EComparator(true, topoPosition);
+		Edge.EComparator ecForSource = new Edge.EComparator(false, topoPosition);
 		for(Task t : this){
 			Collections.sort(t.getInEdges(), ecForSource); //t߰ձߵԴtopoListеλôС
 			Collections.sort(t.getOutEdges(), ecForDestination); //t߰ձߵĿĵtopoListеλôС
@@ -158,78 +195,417 @@ public class Workflow extends ArrayList<Task>{
 	//calculate heuristic information of tasks, e.g., bLvel(upward rank), tLevel 
 	private void calcTaskLevels(){ //L-ACOеbLvelԼstaticLevel
 		double speed = VM.SPEEDS[VM.FASTEST];
+		WorkflowGraph g = new WorkflowGraph(this);	//indices follow the current topological sort
+		int n = g.size();
+		double[] taskSize = g.getTaskSizes();
+		int[] childOffsets = g.getChildOffsets(), children = g.getChildren();
+		int[] parentOffsets = g.getParentOffsets(), parents = g.getParents();
+		double[] childTT = g.getChildTransferTimes(), parentTT = g.getParentTransferTimes();
+		double[] bLevels = new double[n], sLevels = new double[n], ALAPs = new double[n], tLevels = new double[n];
+		Wavefronts waves = Wavefronts.of(g);		//null: sequential sweeps
 		
-		for(int j= this.size()-1; j>=0; j--){ //ӳʼupward rank
+		sweep(g, waves, true, j -> { //ӳʼupward rank
 			double bLevel = 0;	
 			double sLevel = 0;
-			Task task = this.get(j);
-			for(Edge outEdge : task.getOutEdges()){
-				Task child = outEdge.getDestination();
-				bLevel = Math.max(bLevel, child.getbLevel() + outEdge.getDataSize() / VM.NETWORK_SPEED);
-				sLevel = Math.max(sLevel, child.getsLevel());
+			for(int k = childOffsets[j]; k < childOffsets[j+1]; k++){
+				int child = children[k];
+				bLevel = Math.max(bLevel, bLevels[child] + childTT[k]);
+				sLevel = Math.max(sLevel, sLevels[child]);
 			}
-			task.setbLevel(bLevel + task.getTaskSize() / speed);
-			task.setsLevel(sLevel + task.getTaskSize() / speed);
-		}
+			bLevels[j] = bLevel + taskSize[j] / speed;
+			sLevels[j] = sLevel + taskSize[j] / speed;
+		});
 		
-		for(int j= this.size()-1; j>=0; j--){
-			Task task = this.get(j);
-			double ALAP = this.get(0).getbLevel();		//CPLength blevelǹؼ·ĳ
-			for(Edge outEdge : task.getOutEdges()){
-				Task child = outEdge.getDestination();
-				ALAP = Math.min(ALAP, child.getALAP()-outEdge.getDataSize() / VM.NETWORK_SPEED);
-			}
-			task.setALAP(ALAP - task.getTaskSize() / speed);
-		}
+		sweep(g, waves, true, j -> {
+			double ALAP = bLevels[0];		//CPLength blevelǹؼ·ĳ
+			for(int k = childOffsets[j]; k < childOffsets[j+1]; k++)
+				ALAP = Math.min(ALAP, ALAPs[children[k]] - childTT[k]);
+			ALAPs[j] = ALAP - taskSize[j] / speed;
+		});
 		
-		for(Task task : this){
+		sweep(g, waves, false, j -> {
 			double arrivalTime = 0;
-			for(Edge inEdge : task.getInEdges()){
-				Task parent = inEdge.getSource();
-				arrivalTime = Math.max(arrivalTime, 
-						parent.gettLevel() + parent.getTaskSize() / speed + inEdge.getDataSize() / VM.NETWORK_SPEED);
+			for(int k = parentOffsets[j]; k < parentOffsets[j+1]; k++){
+				int parent = parents[k];
+				arrivalTime = Math.max(arrivalTime, tLevels[parent] + taskSize[parent] / speed + parentTT[k]);
 			}
-			task.settLevel(arrivalTime);
-		}
+			tLevels[j] = arrivalTime;
+		});
+		
+		sweep(g, waves, false, j -> {
+			Task task = g.getTask(j);
+			task.setbLevel(bLevels[j]);
+			task.setsLevel(sLevels[j]);
+			task.setALAP(ALAPs[j]);
+			task.settLevel(tLevels[j]);
+		});
 		
 //		Collections.sort(topoList, new Task.TLevelComparator());
 //		System.out.println("topological sort and tlevel");
 //		for(Task t : topoList)
 //			System.out.println(t.getName() +"\t"+t.gettLevel());
-		Collections.sort(this, new Task.BLevelComparator());
-		Collections.reverse(this);
+		int[] order = PriorityOrder.descending(bLevels);	//sort based on bLevel, larger first
+		for(int j = 0; j < n; j++)
+			this.set(j, g.getTask(order[j]));
 //		System.out.println("topological sort and blevel");
 //		for(Task t : this)
 //			System.out.println(t.getName() +"\t"+t.getbLevel());
 	}
 	
-	//called by ProLiS and LACO
-	public void calcPURank(double theta){
+	//called by ProLiS and LACO; the result is stored in context rather than in tasks
+	public void calcPURank(double theta, ScheduleContext context){
 		double speed = VM.SPEEDS[VM.FASTEST];
-		for(int j= this.size()-1; j>=0; j--){
+		WorkflowGraph g = getGraph();
+		if(context.getGraph() != g)
+			throw new RuntimeException("The context does not belong to this workflow");
+		int n = g.size();
+		double[] taskSize = g.getTaskSizes();
+		int[] childOffsets = g.getChildOffsets(), children = g.getChildren();
+		double[] childTT = g.getChildTransferTimes();
+		double[] pURanks = context.getpURanks();
+		Wavefronts waves = getWavefronts();
+		byte[] flags = null;
+		if(theta != Double.MAX_VALUE && waves != null){
+			//in parallel sweeps, random numbers are drawn beforehand in the order of the sequential sweep,
+			//so that the same random numbers give the same pURanks
+			double[] d = new double[g.edgeCount()];
+			sweep(g, waves, true, j -> {
+				for(int k = childOffsets[j]; k < childOffsets[j+1]; k++)
+					d[k] = 1-Math.pow(theta, -(taskSize[children[k]] / speed) / childTT[k]);
+			});
+			flags = new byte[g.edgeCount()];
+			for(int j= n-1; j>=0; j--)
+				for(int k = childOffsets[j]; k < childOffsets[j+1]; k++)
+					flags[k] = (byte)(d[k]<random() ? 0 : 1);
+		}
+		byte[] drawnFlags = flags;
+		sweep(g, waves, true, j -> {
 			double pURank = 0;	
-			Task task = this.get(j);
-			for(Edge outEdge : task.getOutEdges()){
-				Task child = outEdge.getDestination();
+			for(int k = childOffsets[j]; k < childOffsets[j+1]; k++){
+				int child = children[k];
 				
 				int flag = 1;
-				if(theta != Double.MAX_VALUE){		// if theta = Double.MAX_VALUE, flag = 1
-					double et = child.getTaskSize() / speed;
-					double tt = outEdge.getDataSize() / VM.NETWORK_SPEED;
+				if(drawnFlags != null){
+					flag = drawnFlags[k];
+				}else if(theta != Double.MAX_VALUE){		// if theta = Double.MAX_VALUE, flag = 1
+					double et = taskSize[child] / speed;
+					double tt = childTT[k];
 					double d = 1-Math.pow(theta, -et / tt);	//紫ʱԽdȡֵԽӽ1
 					if(d<random())
 						flag = 0;
 				}
 				
-				pURank = Math.max(pURank, child.getpURank() + flag * outEdge.getDataSize() / VM.NETWORK_SPEED);
+				pURank = Math.max(pURank, pURanks[child] + flag * childTT[k]);
 			}
-			task.setpURank(pURank + task.getTaskSize() / speed);
-		}
+			pURanks[j] = pURank + taskSize[j] / speed;
+		});
 //		Collections.sort(topoList, new Task.PURankComparator());
 //		System.out.println("Topological sort and pURank");
 //		for(Task t : topoList)
 //			System.out.println(t.getName() +"\t"+t.getpURank());
 	}
+	
+	//runs body for every index of g, children before parents if backward, otherwise parents before children;
+	//by wavefronts in parallel if waves is not null, otherwise sequentially in index order
+	private static void sweep(WorkflowGraph g, Wavefronts waves, boolean backward, IntConsumer body){
+		if(waves != null){
+			if(backward)
+				waves.backward(body);
+			else
+				waves.forward(body);
+		}else if(backward){
+			for(int j = g.size()-1; j >= 0; j--)
+				body.accept(j);
+		}else{
+			for(int j = 0; j < g.size(); j++)
+				body.accept(j);
+		}
+	}
+	private Wavefronts getWavefronts(){
+		if(wavefronts == null)
+			wavefronts = Wavefronts.of(getGraph());		//null for small workflows, which are swept sequentially
+		return wavefronts;
+	}
+	
+	//pURank order (WorkflowGraph indices, larger pURank first) and pURank in context; called by ProLiS.
+	//If theta = Double.MAX_VALUE, pURank is deterministic (= bLevel), so it and its order are computed once and cached;
+	//otherwise each call samples new pURanks
+	public int[] calcPURankOrder(double theta, ScheduleContext context){
+		if(theta != Double.MAX_VALUE){
+			calcPURank(theta, context);
+			return PriorityOrder.descending(context.getpURanks());
+		}
+		if(context.getGraph() != getGraph())
+			throw new RuntimeException("The context does not belong to this workflow");
+		if(maxThetaPURankOrder == null){
+			ScheduleContext c = new ScheduleContext(this);
+			calcPURank(theta, c);
+			maxThetaPURanks = c.getpURanks();
+			maxThetaPURankOrder = PriorityOrder.descending(maxThetaPURanks);
+		}
+		System.arraycopy(maxThetaPURanks, 0, context.getpURanks(), 0, maxThetaPURanks.length);
+		return maxThetaPURankOrder;
+	}
+	//-------------------------------------incremental changes--------------------------------
+	//Changes after construction, e.g., runtimes updated from monitoring or tasks and edges added to a running workflow.
+	//Levels are repropagated only through the tasks affected: bLevel, sLevel and ALAP upward to ancestors, tLevel downward
+	//to descendants, stopping where a level does not change; the values are the same as calcTaskLevels gives for the changed
+	//graph. ALAP is relative to the critical path length (bLevel of entry), so all ALAPs are recalculated if it changes.
+	//The list stays in bLevel order (thus a topological sort): only the positions between the old and new places of the
+	//tasks whose bLevel changed are re-sorted. The graph and the cached orders are rebuilt when used next, so a ScheduleContext
+	//created before a change cannot be used after it. Not thread-safe; a copy from WorkflowRepository cannot be changed
+	
+	public void setTaskSize(Task task, double taskSize){
+		checkChangeable(task);
+		checkTaskSize(taskSize);
+		task.setTaskSize(taskSize);
+		List<Task> children = new ArrayList<Task>();		//tLevel of task itself does not depend on its size
+		for(Edge e : task.getOutEdges())
+			children.add(e.getDestination());
+		propagate(Collections.singletonList(task), children);
+	}
+	
+	public void setDataSize(Edge edge, long dataSize){
+		checkChangeable(edge.getSource());
+		if(!edge.getSource().getOutEdges().contains(edge))
+			throw new RuntimeException("Edge does not belong to this workflow: " + edge);
+		if(dataSize < 0)
+			throw new RuntimeException("Negative data size: " + dataSize);
+		edge.setDataSize(dataSize);
+		propagate(Collections.singletonList(edge.getSource()), Collections.singletonList(edge.getDestination()));
+	}
+	
+	//adds a task between entry and exit, with 0 data as in the constructor; its id is size()
+	public Task addTask(String name, double taskSize){
+		Task entry = this.get(0), texit = this.get(this.size()-1);
+		checkChangeable(entry);
+		checkTaskSize(taskSize);
+		Task task = new Task(this.size(), name, taskSize);
+		Edge in = new Edge(entry, task), out = new Edge(task, texit);
+		entry.insertOutEdge(in);
+		task.insertInEdge(in);
+		task.insertOutEdge(out);
+		texit.insertInEdge(out);
+		
+		this.add(this.size()-1, task);		//just before exit, which is a topological sort
+		if(positions.length < this.size())
+			positions = Arrays.copyOf(positions, 2 * this.size());
+		positions[task.getId()] = this.size()-2;
+		positions[texit.getId()] = this.size()-1;
+		idTaskMapping.put(task.getId(), task);
+		propagate(Collections.singletonList(task), Collections.singletonList(task));
+		return task;
+	}
+	
+	//edges to entry and exit added for the tasks without parents or children are kept; they carry no data
+	public Edge addEdge(Task source, Task destination, long dataSize){
+		checkChangeable(source);
+		checkChangeable(destination);
+		if(source == this.get(this.size()-1) || destination == this.get(0))
+			throw new RuntimeException("An edge can not leave exit or enter entry");
+		if(dataSize < 0)
+			throw new RuntimeException("Negative data size: " + dataSize);
+		for(Edge e : source.getOutEdges())
+			if(e.getDestination() == destination)
+				throw new RuntimeException("Edge exists from task " + source.getId() + " to task " + destination.getId());
+		if(reaches(destination, source))
+			throw new RuntimeException("Edge from task " + source.getId() + " to task " + destination.getId() + " makes the workflow cyclic");
+		Edge e = new Edge(source, destination);
+		e.setDataSize(dataSize);
+		source.insertOutEdge(e);
+		destination.insertInEdge(e);
+		propagate(Collections.singletonList(source), Collections.singletonList(destination));
+		return e;
+	}
+	
+	private void checkChangeable(Task task){
+		if(isShared)
+			throw new RuntimeException("A workflow from WorkflowRepository shares its tasks with other copies and can not be changed");
+		int[] positions = positions();
+		int id = task.getId();
+		if(id < 0 || id >= this.size() || this.get(positions[id]) != task)
+			throw new RuntimeException("Task " + id + " does not belong to this workflow");
+	}
+	private static void checkTaskSize(double taskSize){
+		if(!(taskSize > 0))		//as DaxLoader does, so that a parent has a larger bLevel than its children
+			throw new RuntimeException("Task size must be positive: " + taskSize);
+	}
+	
+	//position in this list, indexed by task id; built on the first change and maintained afterwards
+	private int[] positions(){
+		if(positions == null){
+			positions = new int[this.size()];
+			for(int i = 0; i < this.size(); i++)
+				positions[this.get(i).getId()] = i;
+		}
+		return positions;
+	}
+	
+	//whether there is a path from one task to another; a task on such a path has a bLevel no less than that of the target
+	private boolean reaches(Task from, Task to){
+		ReachabilityIndex index = reachability;
+		if(index != null)		//still valid, as every change drops it
+			return from == to || index.reaches(from, to);
+		Set<Task> visited = new HashSet<Task>();
+		Deque<Task> stack = new ArrayDeque<Task>();
+		stack.push(from);
+		visited.add(from);
+		while(!stack.isEmpty()){
+			Task task = stack.pop();
+			if(task == to)
+				return true;
+			for(Edge e : task.getOutEdges()){
+				Task child = e.getDestination();
+				if(child.getbLevel() >= to.getbLevel() && visited.add(child))
+					stack.push(child);
+			}
+		}
+		return false;
+	}
+	
+	//upSeeds: tasks whose bLevel, sLevel and ALAP are recalculated; downSeeds: tasks whose tLevel is recalculated.
+	//The same formulas as calcTaskLevels, over edges in the same order, so the values are identical
+	private void propagate(List<Task> upSeeds, List<Task> downSeeds){
+		double speed = VM.SPEEDS[VM.FASTEST];
+		int[] positions = this.positions;
+		double CPLength = this.get(0).getbLevel();
+		List<Task> moved = new ArrayList<Task>();		//tasks whose bLevel changed
+		
+		//children before parents, i.e., larger position first; the old positions still order the tasks affected
+		PriorityQueue<Task> queue = new PriorityQueue<Task>(11, (a, b) -> positions[b.getId()] - positions[a.getId()]);
+		Set<Task> queued = new HashSet<Task>(upSeeds);
+		queue.addAll(upSeeds);
+		while(queue.size() > 0){
+			Task task = queue.poll();
+			double bLevel = 0, sLevel = 0, ALAP = CPLength;
+			for(Edge e : task.getOutEdges()){
+				Task child = e.getDestination();
+				double tt = WorkflowGraph.transferTime(e.getDataSize());
+				bLevel = Math.max(bLevel, child.getbLevel() + tt);
+				sLevel = Math.max(sLevel, child.getsLevel());
+				ALAP = Math.min(ALAP, child.getALAP() - tt);
+			}
+			bLevel = bLevel + task.getTaskSize() / speed;
+			sLevel = sLevel + task.getTaskSize() / speed;
+			ALAP = ALAP - task.getTaskSize() / speed;
+			boolean changed = upSeeds.contains(task) || bLevel != task.getbLevel()
+					|| sLevel != task.getsLevel() || ALAP != task.getALAP();
+			if(bLevel != task.getbLevel())
+				moved.add(task);
+			task.setbLevel(bLevel);
+			task.setsLevel(sLevel);
+			task.setALAP(ALAP);
+			if(changed)
+				for(Edge e : task.getInEdges())
+					if(queued.add(e.getSource()))
+						queue.add(e.getSource());
+		}
+		
+		//parents before children
+		queue = new PriorityQueue<Task>(11, (a, b) -> positions[a.getId()] - positions[b.getId()]);
+		queued = new HashSet<Task>(downSeeds);
+		queue.addAll(downSeeds);
+		while(queue.size() > 0){
+			Task task = queue.poll();
+			double arrivalTime = 0;
+			for(Edge e : task.getInEdges()){
+				Task parent = e.getSource();
+				arrivalTime = Math.max(arrivalTime, parent.gettLevel() + parent.getTaskSize() / speed
+						+ WorkflowGraph.transferTime(e.getDataSize()));
+			}
+			boolean changed = downSeeds.contains(task) || arrivalTime != task.gettLevel();
+			task.settLevel(arrivalTime);
+			if(changed)
+				for(Edge e : task.getOutEdges())
+					if(queued.add(e.getDestination()))
+						queue.add(e.getDestination());
+		}
+		
+		reorder(moved);
+		if(this.get(0).getbLevel() != CPLength){		//critical path length changed
+			for(int j = this.size()-1; j >= 0; j--){
+				Task task = this.get(j);
+				double ALAP = this.get(0).getbLevel();
+				for(Edge e : task.getOutEdges())
+					ALAP = Math.min(ALAP, e.getDestination().getALAP() - WorkflowGraph.transferTime(e.getDataSize()));
+				task.setALAP(ALAP - task.getTaskSize() / speed);
+			}
+		}
+		graph = null;
+		wavefronts = null;
+		reachability = null;
+		bLevelOrder = null;
+		tLevelOrder = null;
+		maxThetaPURankOrder = null;
+		maxThetaPURanks = null;
+	}
+	
+	//restores the bLevel order (larger first) after the bLevels of moved changed; entry and exit stay at the ends.
+	//Tasks outside the window spanning the old and new positions of moved keep their positions; in the window,
+	//the other tasks are still in order and moved are merged into them
+	private void reorder(List<Task> moved){
+		int n = this.size();
+		int[] old = new int[moved.size()];		//old positions of moved
+		int k = 0;
+		double maxBLevel = Double.NEGATIVE_INFINITY, minBLevel = Double.POSITIVE_INFINITY;
+		for(Task task : moved){
+			int pos = positions[task.getId()];
+			if(pos == 0 || pos == n-1)
+				continue;
+			old[k++] = pos;
+			maxBLevel = Math.max(maxBLevel, task.getbLevel());
+			minBLevel = Math.min(minBLevel, task.getbLevel());
+		}
+		if(k == 0)
+			return;
+		old = Arrays.copyOf(old, k);
+		Arrays.sort(old);
+		
+		//the tasks before old[0] and after old[k-1] are in order, so the window is found by binary search
+		int a = 1, b = old[0];
+		while(a < b){		//first position with a smaller bLevel than maxBLevel
+			int mid = (a + b) >>> 1;
+			if(this.get(mid).getbLevel() < maxBLevel)
+				b = mid;
+			else
+				a = mid + 1;
+		}
+		int lo = a;
+		a = old[k-1] + 1;
+		b = n-1;
+		while(a < b){		//first position with a bLevel no larger than minBLevel
+			int mid = (a + b) >>> 1;
+			if(this.get(mid).getbLevel() <= minBLevel)
+				b = mid;
+			else
+				a = mid + 1;
+		}
+		int hi = a - 1;
+		
+		List<Task> sorted = new ArrayList<Task>(k);
+		for(int pos : old)
+			sorted.add(this.get(pos));
+		sorted.sort((t1, t2) -> t1.getbLevel() > t2.getbLevel() ? -1 : (t1.getbLevel() < t2.getbLevel() ? 1 : 0));	//stable
+		Task[] window = new Task[hi - lo + 1];
+		int w = 0, m = 0, j = 0;
+		for(int i = lo; i <= hi; i++){
+			if(j < k && old[j] == i){
+				j++;
+				continue;
+			}
+			Task task = this.get(i);
+			while(m < k && sorted.get(m).getbLevel() > task.getbLevel())
+				window[w++] = sorted.get(m++);
+			window[w++] = task;
+		}
+		while(m < k)
+			window[w++] = sorted.get(m++);
+		for(int i = lo; i <= hi; i++){
+			this.set(i, window[i - lo]);
+			positions[window[i - lo].getId()] = i;
+		}
+	}
+	
 	//ΪHGSA
 	private double deadlineFactor;
 	public double getDeadlineFactor(){
@@ -249,82 +625,41 @@ public class Workflow extends ArrayList<Task>{
 	public int getMaxParallel() {
 		return maxParallel;
 	}
-
-	//--------------------------private classes--------------------------------------------
-	private class MyDAXReader extends DefaultHandler{
-		private Stack<String> tags = new Stack<String>();
-		private String childId;
-		private Task lastTask;
-		public void startElement(String uri, String localName, String qName, Attributes attrs) {
-			if(qName.equals("job")){
-				String id = attrs.getValue("id");
-				if(nameTaskMapping.containsKey(id))		//id conflicts
-					throw new RuntimeException();
-				double runtime = Double.parseDouble(attrs.getValue("runtime"));
-				if(runtime < 0) //ID00622runtime=-0.18
-					runtime = 0-runtime;
-				if(runtime == 0) //ID00616runtime=0
-					runtime = 0.0000001;
-				Task t = new Task(id, runtime);
-//				Task t = new Task(id, runtime*1000);
-				nameTaskMapping.put(id, t);
-				lastTask = t;
-			}else if(qName.equals("uses") && tags.peek().equals("job")){
-				//After reading the element "job", the element "uses" means a trasferData (i.e., data flow)
-				String filename =attrs.getValue("file");
-					
-				long fileSize = Long.parseLong(attrs.getValue("size"));
-				if(fileSize < 0)
-					fileSize = 0-fileSize;
-				TransferData td = transferData.get(filename);
-				if(td == null){
-					td = new TransferData(filename, fileSize);
-				}
-				if(attrs.getValue("link").equals("input")){
-					td.addDestination(lastTask);
-				}else{									//output
-					td.setSource(lastTask);
-				}
-				transferData.put(filename, td);
-			}else if(qName.equals("child") ){		
-				childId = attrs.getValue("ref");
-			}else if(qName.equals("parent") ){ 
-				//After reading the element "child", the element "parent" means an edge (i.e., control flow)
-				Task child = nameTaskMapping.get(childId);
-				Task parent = nameTaskMapping.get(attrs.getValue("ref"));
-				
-				Edge e = new Edge(parent, child);			//control flow
-				parent.insertOutEdge(e);
-				child.insertInEdge(e);
-			}
-			tags.push(qName);
-		}
-		public void endElement(String uri, String localName,String qName) {
-			tags.pop();
-		}
+	public int getRemovedEdgeNum() {
+		return removedEdgeNum;
 	}
-	
-	private class TransferData{		//this class is only used in parsing DAX data
-		private String name;
-		private long size;
-		private Task source;		//used to bind control flow and data flow
-		private List<Task> destinations = new ArrayList<Task>();
-
-		public TransferData(String name, long size) {
-			this.name = name;
-			this.size = size;
-		}
-		
-		//-------------------------------------getters & setter--------------------------------
-		public long getSize() {return size;}
-		public Task getSource() {return source;}
-		public void setSource(Task source) {this.source = source;}
-		public void addDestination(Task t){destinations.add(t);}
-		public List<Task> getDestinations() {return destinations;}
-		public void setSize(long size) {
-			this.size = size;
-		}
-		//-------------------------------------overrides--------------------------------
-		public String toString() {return "TransferData [name=" + name + ", size=" + size + "]";}
+	//CSR view of this workflow, built at the end of the constructor and again after a change;
+	//the task list must not be reordered otherwise
+	public WorkflowGraph getGraph() {
+		if(graph == null)
+			graph = new WorkflowGraph(this);
+		return graph;
+	}
+	//optional index for ancestor / descendant queries in O(1), built on the first call (O(n*(n/64)) or O(n*chains) memory)
+	//and dropped by a change of the workflow
+	public ReachabilityIndex getReachability() {
+		ReachabilityIndex index = reachability;
+		if(index == null)
+			reachability = index = ReachabilityIndex.of(getGraph());
+		return index;
+	}
+	//bLevel order (WorkflowGraph indices, larger bLevel first), computed once; shared, must not be modified
+	public int[] getBLevelOrder() {
+		if(bLevelOrder == null)
+			bLevelOrder = PriorityOrder.descending(levels(true));
+		return bLevelOrder;
+	}
+	//tLevel order (WorkflowGraph indices, smaller tLevel first), computed once; shared, must not be modified
+	public int[] getTLevelOrder() {
+		if(tLevelOrder == null)
+			tLevelOrder = PriorityOrder.ascending(levels(false));
+		return tLevelOrder;
+	}
+	private double[] levels(boolean isBLevel){
+		WorkflowGraph g = getGraph();
+		double[] levels = new double[g.size()];
+		for(int i = 0; i < levels.length; i++)
+			levels[i] = isBLevel ? g.getTask(i).getbLevel() : g.getTask(i).gettLevel();
+		return levels;
 	}
 }
\ No newline at end of file
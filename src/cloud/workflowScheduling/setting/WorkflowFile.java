@@ -0,0 +1,374 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+//versioned binary format of a parsed workflow: tasks in the topological sort of Workflow, their levels and both edge lists.
+//A file is written once per DAX and opened by FileChannel.map, i.e., read in place from the page cache, not deserialized:
+//getGraph() is a WorkflowGraph whose columns are slices of the mapping, so the code working on graph indices runs on the
+//file without building Task objects; toWorkflow() builds them for the rest.
+//Layout (little endian; each section starts at a multiple of 8 bytes):
+//	header:	int MAGIC, int VERSION, int n (tasks), int m (edges), int maxParallel, int removedEdgeNum (by transitive reduction),
+//		double speed (VM.SPEEDS[VM.FASTEST]), long VM.NETWORK_SPEED, the settings the levels and transfer times depend on,
+//		long length, long lastModified and byte[32] SHA-256 of the DAX file (length -1 if written without it)
+//	tasks:	int[n] ids, int[n] positions by id, double[n] each of taskSize, bLevel, tLevel, sLevel, ALAP
+//	out-edges:	int[n+1] offsets, int[m] destinations (positions in the topological sort), long[m] data sizes,
+//		double[m] transfer times
+//	in-edges:	int[n+1] offsets, int[m] sources, long[m] data sizes, double[m] transfer times,
+//		int[m] edges (indices of out-edges), in the order of Task.getInEdges()
+//	names:	int[n+1] byte offsets, UTF-8 bytes
+//Ids must be 0 ... n-1. A file is checked when opened, so a corrupt file or one written under other VM settings (e.g.,
+//after switching the VM types in VM) is rejected instead of giving stale levels or failing later
+public class WorkflowFile {
+	public static final int MAGIC = 0x57464C57;		//"WFLW"
+	public static final int VERSION = 4;
+	public static final String SUFFIX = ".wfb";			//binary file written next to a DAX file by load(String)
+	public static final String REDUCED_SUFFIX = ".reduced.wfb";		//for load(String, true)
+
+	private static final int HASH_BYTES = 32;
+	private static final int HEADER_BYTES = 6 * 4 + 4 * 8 + HASH_BYTES;
+	//sections after the header, in file order
+	private static final int IDS = 0, POSITIONS = 1, TASK_SIZES = 2, B_LEVELS = 3, T_LEVELS = 4, S_LEVELS = 5, ALAPS = 6,
+			CHILD_OFFSETS = 7, CHILDREN = 8, CHILD_DATA_SIZES = 9, CHILD_TRANSFER_TIMES = 10,
+			PARENT_OFFSETS = 11, PARENTS = 12, PARENT_DATA_SIZES = 13, PARENT_TRANSFER_TIMES = 14, IN_EDGES = 15,
+			NAME_OFFSETS = 16, NAMES = 17;
+	private static final int[] ELEMENT_BYTES = {4, 4, 8, 8, 8, 8, 8, 4, 4, 8, 8, 4, 4, 8, 8, 4, 4, 1};
+
+	private final ByteBuffer buffer;
+	private final int n, m, maxParallel, removedEdgeNum;
+	private final long daxLength, daxLastModified;
+	private final int[] positions;		//start of each section in buffer
+
+	private WorkflowFile(ByteBuffer buffer) {
+		this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+			throw new RuntimeException("Not a binary workflow file");
+		if(buffer.getInt(4) != VERSION)
+			throw new RuntimeException("Unsupported binary workflow file version: " + buffer.getInt(4));
+		n = buffer.getInt(8);
+		m = buffer.getInt(12);
+		maxParallel = buffer.getInt(16);
+		removedEdgeNum = buffer.getInt(20);
+		if(buffer.getDouble(24) != VM.SPEEDS[VM.FASTEST] || buffer.getLong(32) != VM.NETWORK_SPEED)
+			throw new RuntimeException("Binary workflow file of other VM settings: speed " + buffer.getDouble(24)
+					+ ", network speed " + buffer.getLong(32));
+		daxLength = buffer.getLong(40);
+		daxLastModified = buffer.getLong(48);
+		if(n < 0 || m < 0 || removedEdgeNum < 0 || sectionsEnd(n, m) > buffer.capacity())
+			throw new RuntimeException("Truncated binary workflow file");
+		positions = positions(n, m);
+		if(buffer.capacity() != (long)positions[NAMES] + getNameOffset(n))
+			throw new RuntimeException("Truncated binary workflow file");
+		check();
+	}
+
+	//start of each section for n tasks and m edges
+	private static int[] positions(int n, int m){
+		int[] positions = new int[ELEMENT_BYTES.length];
+		long position = HEADER_BYTES;
+		for(int section = 0; section < positions.length; section++){
+			position = (position + 7) & ~7L;
+			positions[section] = (int)position;
+			position += (long)ELEMENT_BYTES[section] * count(section, n, m);
+		}
+		return positions;
+	}
+	//end of the sections but the names, in long, as n and m of a corrupt file may be anything
+	private static long sectionsEnd(int n, int m){
+		long position = HEADER_BYTES;
+		for(int section = 0; section < NAMES; section++)
+			position = ((position + 7) & ~7L) + (long)ELEMENT_BYTES[section] * count(section, n, m);
+		return position;
+	}
+	private static int count(int section, int n, int m){
+		if(section <= ALAPS)
+			return n;
+		if(section == CHILD_OFFSETS || section == PARENT_OFFSETS || section == NAME_OFFSETS)
+			return n + 1;
+		return section == NAMES ? 0 : m;
+	}
+
+	//ids are 0 ... n-1, edges link tasks in topological order, and offsets and transfer times are consistent
+	private void check(){
+		for(int i = 0; i < n; i++){
+			int id = getId(i);
+			if(id < 0 || id >= n || buffer.getInt(positions[POSITIONS] + id * 4) != i)
+				throw new RuntimeException("Corrupt binary workflow file: invalid task id " + id);
+		}
+		checkOffsets(CHILD_OFFSETS, m);
+		checkOffsets(PARENT_OFFSETS, m);
+		checkOffsets(NAME_OFFSETS, buffer.capacity() - positions[NAMES]);
+		for(int i = 0; i < n; i++){
+			for(int k = getChildOffset(i); k < getChildOffset(i + 1); k++)
+				if(getChild(k) <= i || getChild(k) >= n
+						|| getDouble(CHILD_TRANSFER_TIMES, k) != WorkflowGraph.transferTime(getDataSize(k)))
+					throw new RuntimeException("Corrupt binary workflow file: invalid out-edge " + k);
+			for(int k = getParentOffset(i); k < getParentOffset(i + 1); k++){
+				int edge = getInEdge(k), parent = buffer.getInt(positions[PARENTS] + k * 4);
+				if(parent < 0 || parent >= i || edge < 0 || edge >= m || getChild(edge) != i
+						|| edge < getChildOffset(parent) || edge >= getChildOffset(parent + 1)
+						|| buffer.getLong(positions[PARENT_DATA_SIZES] + k * 8) != getDataSize(edge)
+						|| getDouble(PARENT_TRANSFER_TIMES, k) != getDouble(CHILD_TRANSFER_TIMES, edge))
+					throw new RuntimeException("Corrupt binary workflow file: invalid in-edge " + k);
+			}
+		}
+	}
+	private void checkOffsets(int section, int last){
+		int offset = 0;
+		for(int i = 0; i <= n; i++){
+			int next = buffer.getInt(positions[section] + i * 4);
+			if(next < offset || (i == 0 && next != 0) || (i == n && next != last))
+				throw new RuntimeException("Corrupt binary workflow file: invalid offset " + i + " of section " + section);
+			offset = next;
+		}
+	}
+	private double getDouble(int section, int k){
+		return buffer.getDouble(positions[section] + k * 8);
+	}
+
+	//maps a binary workflow file read-only; the mapping stays valid after the channel is closed
+	public static WorkflowFile open(String file) throws IOException {
+		try(FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)){
+			return new WorkflowFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	//writes wf to file, without the DAX file it is read from; the file is first written to a temporary file and then renamed, so readers never see a partial file
+	public static void write(Workflow wf, String file) throws IOException {
+		write(wf, file, -1, 0, new byte[HASH_BYTES]);
+	}
+	//daxLength, daxLastModified and daxHash: of the DAX file wf is read from
+	private static void write(Workflow wf, String file, long daxLength, long daxLastModified, byte[] daxHash)
+			throws IOException {
+		WorkflowGraph g = wf.getGraph();
+		int n = g.size(), m = g.edgeCount();
+		byte[][] names = new byte[n][];
+		int nameBytes = 0;
+		for(int i = 0; i < n; i++){
+			names[i] = g.getTask(i).getName().getBytes(StandardCharsets.UTF_8);
+			nameBytes += names[i].length;
+		}
+		int[] positions = positions(n, m);
+		ByteBuffer b = ByteBuffer.allocate(positions[NAMES] + nameBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+		b.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(wf.getMaxParallel()).putInt(wf.getRemovedEdgeNum());
+		b.putDouble(VM.SPEEDS[VM.FASTEST]).putLong(VM.NETWORK_SPEED).putLong(daxLength).putLong(daxLastModified).put(daxHash);
+		for(int i = 0; i < n; i++){
+			Task t = g.getTask(i);
+			if(t.getId() < 0 || t.getId() >= n)
+				throw new RuntimeException("Task ids are not 0 ... " + (n - 1) + ": " + t.getId());
+			b.putInt(positions[IDS] + i * 4, t.getId());
+			b.putInt(positions[POSITIONS] + t.getId() * 4, i);
+			b.putDouble(positions[TASK_SIZES] + i * 8, t.getTaskSize());
+			b.putDouble(positions[B_LEVELS] + i * 8, t.getbLevel());
+			b.putDouble(positions[T_LEVELS] + i * 8, t.gettLevel());
+			b.putDouble(positions[S_LEVELS] + i * 8, t.getsLevel());
+			b.putDouble(positions[ALAPS] + i * 8, t.getALAP());
+		}
+		b.position(positions[CHILD_OFFSETS]);
+		b.asIntBuffer().put(g.getChildOffsets());
+		b.position(positions[CHILDREN]);
+		b.asIntBuffer().put(g.getChildren());
+		b.position(positions[CHILD_DATA_SIZES]);
+		b.asLongBuffer().put(g.getChildDataSizes());
+		b.position(positions[CHILD_TRANSFER_TIMES]);
+		b.asDoubleBuffer().put(g.getChildTransferTimes());
+		b.position(positions[PARENT_OFFSETS]);
+		b.asIntBuffer().put(g.getParentOffsets());
+		b.position(positions[PARENTS]);
+		b.asIntBuffer().put(g.getParents());
+		b.position(positions[PARENT_DATA_SIZES]);
+		b.asLongBuffer().put(g.getParentDataSizes());
+		b.position(positions[PARENT_TRANSFER_TIMES]);
+		b.asDoubleBuffer().put(g.getParentTransferTimes());
+
+		//in-edges refer to out-edges, because an edge object is shared by the two lists
+		Map<Edge, Integer> outIndex = new IdentityHashMap<Edge, Integer>(2 * m);
+		for(int i = 0, k = 0; i < n; i++)
+			for(Edge e : g.getTask(i).getOutEdges())
+				outIndex.put(e, k++);
+		b.position(positions[IN_EDGES]);
+		for(int i = 0; i < n; i++)
+			for(Edge e : g.getTask(i).getInEdges())
+				b.putInt(outIndex.get(e));
+
+		b.position(positions[NAME_OFFSETS]);
+		int offset = 0;
+		b.putInt(0);
+		for(int i = 0; i < n; i++){
+			offset += names[i].length;
+			b.putInt(offset);
+		}
+		b.position(positions[NAMES]);
+		for(int i = 0; i < n; i++)
+			b.put(names[i]);
+
+		Path target = Paths.get(file).toAbsolutePath();
+		Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");	//unique, as threads may write the same file
+		try{
+			Files.write(tmp, b.array());
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+		}finally{
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	//reads a DAX file through its binary workflow file (daxFile + SUFFIX): the binary file is used if it has the current
+	//version and VM settings and is of the DAX file (see isOf); otherwise the DAX file is parsed and the binary file is
+	//(re)written. Failing to write the binary file, e.g., in a read-only directory, only costs the parsing next time
+	public static Workflow load(String daxFile){
+		return load(daxFile, false);
+	}
+	//reduce: see Workflow(String, boolean); a reduced workflow has its own binary file, daxFile + REDUCED_SUFFIX
+	public static Workflow load(String daxFile, boolean reduce){
+		File dax = new File(daxFile);
+		File bin = new File(daxFile + (reduce ? REDUCED_SUFFIX : SUFFIX));
+		if(bin.exists()){
+			try{
+				WorkflowFile file = open(bin.getPath());
+				if(file.isOf(dax))
+					return file.toWorkflow();
+			}catch(IOException | RuntimeException e){
+				System.out.println("Ignore binary workflow file " + bin + ": " + e.getMessage());
+			}
+		}
+		long length = dax.length(), lastModified = dax.lastModified();	//before reading, so a later change is noticed
+		byte[] hash;
+		try{
+			hash = digest(dax);
+		}catch(IOException e){		//reported by parsing below
+			length = -1;
+			hash = new byte[HASH_BYTES];
+		}
+		Workflow wf = new Workflow(daxFile, reduce);
+		try{
+			write(wf, bin.getPath(), length, lastModified, hash);
+		}catch(IOException e){
+			System.out.println("Fail to write binary workflow file " + bin + ": " + e.getMessage());
+		}
+		return wf;
+	}
+
+	//whether this file is written from the current content of dax: by its length and modification time, as
+	//WorkflowRepository does, or else by its content hash, e.g., after the DAX file is touched or copied.
+	//A missing DAX file can not be checked; the binary file is all there is
+	public boolean isOf(File dax) throws IOException {
+		if(dax.exists() == false || (dax.length() == daxLength && dax.lastModified() == daxLastModified))
+			return true;
+		if(daxLength < 0)
+			return false;
+		byte[] hash = new byte[HASH_BYTES];
+		buffer.duplicate().position(56).get(hash);
+		return Arrays.equals(hash, digest(dax));
+	}
+
+	//SHA-256 of the content of file
+	static byte[] digest(File file) throws IOException {
+		try(InputStream in = new FileInputStream(file)){
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] buffer = new byte[1 << 16];
+			for(int len; (len = in.read(buffer)) > 0; )
+				md.update(buffer, 0, len);
+			return md.digest();
+		}catch(NoSuchAlgorithmException e){
+			throw new RuntimeException(e);
+		}
+	}
+
+	//builds a workflow (Task and Edge objects) from this file, without parsing and calculating levels;
+	//its graph reads the columns of this file
+	public Workflow toWorkflow(){
+		return new Workflow(this);
+	}
+
+	//the graph of this file, read in place; it has no Task objects
+	public WorkflowGraph getGraph(){
+		return getGraph(null);
+	}
+	WorkflowGraph getGraph(Task[] tasks){
+		return new WorkflowGraph(tasks, ints(IDS, n), ints(POSITIONS, n), doubles(TASK_SIZES, n),
+				ints(PARENT_OFFSETS, n + 1), ints(PARENTS, m), longs(PARENT_DATA_SIZES, m), doubles(PARENT_TRANSFER_TIMES, m),
+				ints(CHILD_OFFSETS, n + 1), ints(CHILDREN, m), longs(CHILD_DATA_SIZES, m), doubles(CHILD_TRANSFER_TIMES, m));
+	}
+	private ByteBuffer slice(int section, int count){
+		ByteBuffer b = buffer.duplicate();
+		b.position(positions[section]).limit(positions[section] + count * ELEMENT_BYTES[section]);
+		return b.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+	private IntBuffer ints(int section, int count){
+		return slice(section, count).asIntBuffer();
+	}
+	private LongBuffer longs(int section, int count){
+		return slice(section, count).asLongBuffer();
+	}
+	private DoubleBuffer doubles(int section, int count){
+		return slice(section, count).asDoubleBuffer();
+	}
+
+	//-------------------------------------getters, reading the mapped file in place--------------------------------
+	public int size() {
+		return n;
+	}
+	public int edgeCount() {
+		return m;
+	}
+	public int getMaxParallel() {
+		return maxParallel;
+	}
+	public int getRemovedEdgeNum() {
+		return removedEdgeNum;
+	}
+	//task at position i of the topological sort
+	public int getId(int i) {
+		return buffer.getInt(positions[IDS] + i * 4);
+	}
+	public double getTaskSize(int i) {
+		return buffer.getDouble(positions[TASK_SIZES] + i * 8);
+	}
+	public double getbLevel(int i) {
+		return buffer.getDouble(positions[B_LEVELS] + i * 8);
+	}
+	public double gettLevel(int i) {
+		return buffer.getDouble(positions[T_LEVELS] + i * 8);
+	}
+	public double getsLevel(int i) {
+		return buffer.getDouble(positions[S_LEVELS] + i * 8);
+	}
+	public double getALAP(int i) {
+		return buffer.getDouble(positions[ALAPS] + i * 8);
+	}
+	public String getName(int i) {
+		int from = getNameOffset(i), to = getNameOffset(i + 1);
+		byte[] bytes = new byte[to - from];
+		ByteBuffer b = buffer.duplicate();
+		b.position(positions[NAMES] + from);
+		b.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	private int getNameOffset(int i) {
+		return buffer.getInt(positions[NAME_OFFSETS] + i * 4);
+	}
+	//out-edges of task i are getChildOffset(i) ... getChildOffset(i+1)-1
+	public int getChildOffset(int i) {
+		return buffer.getInt(positions[CHILD_OFFSETS] + i * 4);
+	}
+	public int getChild(int k) {
+		return buffer.getInt(positions[CHILDREN] + k * 4);
+	}
+	public long getDataSize(int k) {
+		return buffer.getLong(positions[CHILD_DATA_SIZES] + k * 8);
+	}
+	//in-edges of task i are getParentOffset(i) ... getParentOffset(i+1)-1
+	public int getParentOffset(int i) {
+		return buffer.getInt(positions[PARENT_OFFSETS] + i * 4);
+	}
+	//index of the out-edge which is the k-th in-edge
+	public int getInEdge(int k) {
+		return buffer.getInt(positions[IN_EDGES] + k * 4);
+	}
+}
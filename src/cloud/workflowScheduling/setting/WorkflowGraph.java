@@ -0,0 +1,258 @@
+package cloud.workflowScheduling.setting;
+
+import java.nio.*;
+import java.util.*;
+
+//immutable compressed sparse row (CSR) view of a workflow, built once per workflow;
+//the index of a task is its position in the workflow, i.e., its position in the topological sort.
+//Thus entry is 0, exit is size()-1, and every parent has a smaller index than its children.
+//The columns are buffers: over arrays for a graph built from tasks, or slices of a mapped WorkflowFile, which are read
+//in place. A graph of a WorkflowFile may have no Task objects; getTask is then not available, and code working on
+//indices only (ArraySolution, BatchEvaluator, ScheduleValidator) reads it through the accessors of single values
+public class WorkflowGraph {
+
+	private final int size, edgeNum;
+	private final Task[] tasks;				//null: a graph without Task objects
+	private final IntBuffer ids;			//index -> task id
+	private final IntBuffer idToIndex;		//task id -> index, -1 for ids not in the graph
+	private final DoubleBuffer taskSize;
+
+	//parents of task i are parents[parentOffsets[i]] ... parents[parentOffsets[i+1]-1], in the order of Task.getInEdges()
+	private final IntBuffer parentOffsets;
+	private final IntBuffer parents;
+	private final LongBuffer parentDataSize;
+	private final DoubleBuffer parentTransferTime;
+	//children of task i are children[childOffsets[i]] ... children[childOffsets[i+1]-1], in the order of Task.getOutEdges()
+	private final IntBuffer childOffsets;
+	private final IntBuffer children;
+	private final LongBuffer childDataSize;
+	private final DoubleBuffer childTransferTime;
+
+	private volatile Columns columns;		//the columns as arrays, for getTaskSizes() etc.
+
+	public WorkflowGraph(List<Task> taskList) {
+		this.size = taskList.size();
+		this.tasks = taskList.toArray(new Task[size]);
+		int[] ids = new int[size];
+
+		int maxId = -1, edgeNum = 0;
+		for(Task t : tasks){
+			maxId = Math.max(maxId, t.getId());
+			edgeNum += t.getOutEdges().size();
+		}
+		Columns c = new Columns(size, edgeNum);
+		int[] idToIndex = new int[maxId + 1];
+		Arrays.fill(idToIndex, -1);
+		for(int i = 0; i < size; i++){
+			ids[i] = tasks[i].getId();
+			idToIndex[ids[i]] = i;
+			c.taskSize[i] = tasks[i].getTaskSize();
+		}
+		this.ids = IntBuffer.wrap(ids);
+		this.idToIndex = IntBuffer.wrap(idToIndex);
+		int p = 0, q = 0;
+		for(int i = 0; i < size; i++){
+			c.parentOffsets[i] = p;
+			for(Edge e : tasks[i].getInEdges()){
+				c.parents[p] = checkedIndexOf(e.getSource());
+				c.parentDataSize[p] = e.getDataSize();
+				c.parentTransferTime[p] = transferTime(e.getDataSize());
+				p++;
+			}
+			c.childOffsets[i] = q;
+			for(Edge e : tasks[i].getOutEdges()){
+				c.children[q] = checkedIndexOf(e.getDestination());
+				c.childDataSize[q] = e.getDataSize();
+				c.childTransferTime[q] = transferTime(e.getDataSize());
+				q++;
+			}
+		}
+		if(p != edgeNum || q != edgeNum)	//in-edges and out-edges do not match
+			throw new RuntimeException("Inconsistent edges: " + p + " in-edges, " + q + " out-edges");
+		c.parentOffsets[size] = p;
+		c.childOffsets[size] = q;
+
+		this.edgeNum = edgeNum;
+		this.taskSize = DoubleBuffer.wrap(c.taskSize);
+		this.parentOffsets = IntBuffer.wrap(c.parentOffsets);
+		this.parents = IntBuffer.wrap(c.parents);
+		this.parentDataSize = LongBuffer.wrap(c.parentDataSize);
+		this.parentTransferTime = DoubleBuffer.wrap(c.parentTransferTime);
+		this.childOffsets = IntBuffer.wrap(c.childOffsets);
+		this.children = IntBuffer.wrap(c.children);
+		this.childDataSize = LongBuffer.wrap(c.childDataSize);
+		this.childTransferTime = DoubleBuffer.wrap(c.childTransferTime);
+		this.columns = c;
+	}
+
+	//a graph over the columns of a WorkflowFile, which has checked them; tasks: null, or the Task of each index
+	WorkflowGraph(Task[] tasks, IntBuffer ids, IntBuffer idToIndex, DoubleBuffer taskSize,
+			IntBuffer parentOffsets, IntBuffer parents, LongBuffer parentDataSize, DoubleBuffer parentTransferTime,
+			IntBuffer childOffsets, IntBuffer children, LongBuffer childDataSize, DoubleBuffer childTransferTime) {
+		this.size = ids.capacity();
+		this.edgeNum = parents.capacity();
+		this.tasks = tasks;
+		this.ids = ids;
+		this.idToIndex = idToIndex;
+		this.taskSize = taskSize;
+		this.parentOffsets = parentOffsets;
+		this.parents = parents;
+		this.parentDataSize = parentDataSize;
+		this.parentTransferTime = parentTransferTime;
+		this.childOffsets = childOffsets;
+		this.children = children;
+		this.childDataSize = childDataSize;
+		this.childTransferTime = childTransferTime;
+	}
+
+	private int checkedIndexOf(Task task){
+		int index = indexOf(task);
+		if(index < 0)		//e.g., the DAX contains a cycle, so topoSort has not put every task into the list
+			throw new RuntimeException("Task " + task.getId() + " is not in the task list, the workflow may be cyclic");
+		return index;
+	}
+
+	//same value as "edge.getDataSize() / VM.NETWORK_SPEED" used by Solution and the schedulers (note: integer division)
+	public static double transferTime(long dataSize){
+		return dataSize / VM.NETWORK_SPEED;
+	}
+
+	//-------------------------------------getters--------------------------------
+	public int size() {
+		return size;
+	}
+	public int edgeCount() {
+		return edgeNum;
+	}
+	public boolean hasTasks() {
+		return tasks != null;
+	}
+	public Task getTask(int index) {
+		if(tasks == null)
+			throw new RuntimeException("No Task objects in " + this + ", e.g., a graph read from a WorkflowFile");
+		return tasks[index];
+	}
+	public int getId(int index) {
+		return ids.get(index);
+	}
+	//returns -1 if task does not belong to this graph
+	public int indexOf(Task task) {
+		int id = task.getId();
+		if(tasks == null || id < 0 || id >= idToIndex.capacity() || idToIndex.get(id) < 0
+				|| tasks[idToIndex.get(id)] != task)
+			return -1;
+		return idToIndex.get(id);
+	}
+	public double getTaskSize(int index) {
+		return taskSize.get(index);
+	}
+	public int getParentNum(int index) {
+		return parentOffsets.get(index + 1) - parentOffsets.get(index);
+	}
+	public int getChildNum(int index) {
+		return childOffsets.get(index + 1) - childOffsets.get(index);
+	}
+
+	//single values of the columns, read in place
+	public int getParentOffset(int index) {
+		return parentOffsets.get(index);
+	}
+	public int getParent(int k) {
+		return parents.get(k);
+	}
+	public long getParentDataSize(int k) {
+		return parentDataSize.get(k);
+	}
+	public double getParentTransferTime(int k) {
+		return parentTransferTime.get(k);
+	}
+	public int getChildOffset(int index) {
+		return childOffsets.get(index);
+	}
+	public int getChild(int k) {
+		return children.get(k);
+	}
+	public long getChildDataSize(int k) {
+		return childDataSize.get(k);
+	}
+	public double getChildTransferTime(int k) {
+		return childTransferTime.get(k);
+	}
+
+	//the arrays below are shared, not copied, for the use in hot loops; they must not be modified.
+	//For a graph read from a WorkflowFile, the columns are copied into arrays at the first call
+	public double[] getTaskSizes() {
+		return columns().taskSize;
+	}
+	public int[] getParentOffsets() {
+		return columns().parentOffsets;
+	}
+	public int[] getParents() {
+		return columns().parents;
+	}
+	public long[] getParentDataSizes() {
+		return columns().parentDataSize;
+	}
+	public double[] getParentTransferTimes() {
+		return columns().parentTransferTime;
+	}
+	public int[] getChildOffsets() {
+		return columns().childOffsets;
+	}
+	public int[] getChildren() {
+		return columns().children;
+	}
+	public long[] getChildDataSizes() {
+		return columns().childDataSize;
+	}
+	public double[] getChildTransferTimes() {
+		return columns().childTransferTime;
+	}
+
+	private Columns columns(){
+		Columns c = columns;
+		if(c == null){
+			synchronized(this){
+				c = columns;
+				if(c == null){
+					c = new Columns(size, edgeNum);
+					taskSize.duplicate().get(c.taskSize);
+					parentOffsets.duplicate().get(c.parentOffsets);
+					parents.duplicate().get(c.parents);
+					parentDataSize.duplicate().get(c.parentDataSize);
+					parentTransferTime.duplicate().get(c.parentTransferTime);
+					childOffsets.duplicate().get(c.childOffsets);
+					children.duplicate().get(c.children);
+					childDataSize.duplicate().get(c.childDataSize);
+					childTransferTime.duplicate().get(c.childTransferTime);
+					columns = c;
+				}
+			}
+		}
+		return c;
+	}
+
+	private static class Columns {
+		private final double[] taskSize;
+		private final int[] parentOffsets, parents, childOffsets, children;
+		private final long[] parentDataSize, childDataSize;
+		private final double[] parentTransferTime, childTransferTime;
+
+		Columns(int size, int edgeNum) {
+			taskSize = new double[size];
+			parentOffsets = new int[size + 1];
+			parents = new int[edgeNum];
+			parentDataSize = new long[edgeNum];
+			parentTransferTime = new double[edgeNum];
+			childOffsets = new int[size + 1];
+			children = new int[edgeNum];
+			childDataSize = new long[edgeNum];
+			childTransferTime = new double[edgeNum];
+		}
+	}
+
+	//-------------------------------------overrides--------------------------------
+	public String toString() {
+		return "WorkflowGraph [size=" + size + ", edges=" + edgeNum + "]";
+	}
+}
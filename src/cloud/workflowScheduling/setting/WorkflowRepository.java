@@ -0,0 +1,124 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+//in-process cache of workflows read from DAX files, for experiments which schedule the same files many times.
+//A file is read once (through WorkflowFile.load) and kept as a template; get() returns a copy of the template, which
+//shares tasks, edges and the graph with it and has its own deadline. Thus copies are isolated from each other as long as
+//schedulers keep per-run state in ScheduleContext, and cost O(n) instead of parsing.
+//Templates are keyed by the canonical path of a file and validated by its length and modification time; if these change,
+//the content hash (SHA-256) decides whether the file has to be read again. Files with the same content share a template
+public class WorkflowRepository {
+
+	private final ConcurrentHashMap<String, Entry> byPath = new ConcurrentHashMap<String, Entry>();
+	private final ConcurrentHashMap<String, Workflow> byHash = new ConcurrentHashMap<String, Workflow>();
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+	private static class Entry{
+		private long length = -1, lastModified = -1;
+		private Workflow template;
+	}
+
+	//returns a fresh copy of the workflow in file
+	public Workflow get(String file){
+		return new Workflow(getTemplate(file));
+	}
+
+	private Workflow getTemplate(String file){
+		File f = new File(file);
+		String path;
+		try{
+			path = f.getCanonicalPath();
+		}catch(IOException e){
+			throw new RuntimeException("Fail to resolve workflow file " + file, e);
+		}
+		Entry entry = byPath.computeIfAbsent(path, p -> new Entry());
+		synchronized(entry){		//a file is read by one thread; other threads wait for its template
+			long length = f.length(), lastModified = f.lastModified();
+			if(entry.template != null && entry.length == length && entry.lastModified == lastModified){
+				hits.incrementAndGet();
+				return entry.template;
+			}
+			String hash = hash(path);
+			Workflow template = byHash.get(hash);
+			if(template == null){
+				misses.incrementAndGet();
+				Workflow loaded = WorkflowFile.load(path);
+				template = byHash.putIfAbsent(hash, loaded);	//another file of the same content may have been read meanwhile
+				if(template == null)
+					template = loaded;
+			}else{
+				hits.incrementAndGet();
+			}
+			entry.template = template;
+			entry.length = length;
+			entry.lastModified = lastModified;
+			return template;
+		}
+	}
+
+	//reads all DAX files (*.xml and *.xml.gz) in directory on threadNum threads; returns the number of files read.
+	//A file which cannot be read (e.g., a cyclic DAX) is reported and skipped
+	public int preload(String directory, int threadNum){
+		File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(".xml") || name.endsWith(".xml.gz"));
+		if(files == null)
+			throw new RuntimeException("Not a directory: " + directory);
+		ExecutorService pool = Executors.newFixedThreadPool(threadNum);
+		try{
+			List<Future<Workflow>> futures = new ArrayList<Future<Workflow>>();
+			for(File file : files)
+				futures.add(pool.submit(() -> getTemplate(file.getPath())));
+			int loaded = 0;
+			for(int i = 0; i < files.length; i++){
+				try{
+					futures.get(i).get();
+					loaded++;
+				}catch(ExecutionException e){
+					System.out.println("Fail to preload " + files[i] + ": " + e.getCause().getMessage());
+				}
+			}
+			return loaded;
+		}catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}finally{
+			pool.shutdownNow();
+		}
+	}
+	public int preload(String directory){
+		return preload(directory, Runtime.getRuntime().availableProcessors());
+	}
+
+	public void clear(){
+		byPath.clear();
+		byHash.clear();
+	}
+
+	private static String hash(String path){
+		try{
+			StringBuilder sb = new StringBuilder();
+			for(byte b : WorkflowFile.digest(new File(path)))
+				sb.append(String.format("%02x", b));
+			return sb.toString();
+		}catch(IOException e){
+			throw new RuntimeException("Fail to read workflow file " + path, e);
+		}
+	}
+
+	//-------------------------------------getters--------------------------------
+	//number of distinct workflows kept
+	public int size() {
+		return byHash.size();
+	}
+	//requests served by a kept workflow, including preloading the same file twice
+	public long getHits() {
+		return hits.get();
+	}
+	//requests which read a file
+	public long getMisses() {
+		return misses.get();
+	}
+}
@@ -19,6 +19,12 @@ public class HGSA implements Scheduler {
 	
 	private int dimension;	//number of tasks
 	private VM[] vmPool;
+	private boolean isInsertion;	//whether a task may be decoded into an idle gap of its VM
+	
+	public HGSA(){}
+	public HGSA(boolean isInsertion){
+		this.isInsertion = isInsertion;
+	}
 	
 	@Override
 	public Solution schedule(Workflow wf) {
@@ -70,18 +76,21 @@ public class HGSA implements Scheduler {
 				}
 				globalBestSol= particles[i].sol;
 				globalWorstSol= particles[i].sol;
+				particles[i].isKept = true;
 			}
 			else if (particles[i].sol.isBetterThan(globalBestSol, wf.getDeadline())) {
 				for (int j = 0; j < dimension; j++) {
 					globalBestPos[j] = particles[i].position[j];
 				}
 				globalBestSol= particles[i].sol;	// ﲻҪcloneΪparticlesolÿεʱnew
+				particles[i].isKept = true;
 			}
 			else if (globalWorstSol.isBetterThan(particles[i].sol, wf.getDeadline())) {
 				for (int j = 0; j < dimension; j++) {
 					globalWorstPos[j] = particles[i].position[j];
 				}
 				globalWorstSol= particles[i].sol;
+				particles[i].isKept = true;
 			}
 		}
 //		System.out.println("the best initial solution:"+globalBestSol.calcCost()+";\t"+globalBestSol.calcMakespan());
@@ -100,12 +109,14 @@ public class HGSA implements Scheduler {
 						globalBestPos[j] = particles[i].position[j];
 					}
 					globalBestSol= particles[i].sol;	// ﲻҪcloneΪparticlesolÿεʱnew
+					particles[i].isKept = true;
 				}
 				else if (globalWorstSol.isBetterThan(particles[i].sol, wf.getDeadline())) {
 					for (int j = 0; j < dimension; j++) {
 						globalWorstPos[j] = particles[i].position[j];
 					}
 					globalWorstSol= particles[i].sol;
+					particles[i].isKept = true;
 				}
 			}
 			bestFit = 1/(1+globalBestSol.calcCost());
@@ -169,6 +180,8 @@ public class HGSA implements Scheduler {
 		private double[] position = new double[dimension];
 		private double[] speed = new double[dimension];
 		private Solution sol;
+		private int[] decodedVms = new int[dimension];		//VM indices of the last decoding into sol
+		private boolean isKept = false;		//sol is referred to as a global best or worst solution, so it is not changed
 		public double fit = -1;
 		public double M = -1;
 		public double[] F = new double[dimension];
@@ -179,16 +192,33 @@ public class HGSA implements Scheduler {
 				this.position[i] = rnd.nextDouble() * (xMax - xMin) + xMin; 
 				this.speed[i] = 0;			
 			}
+			Arrays.fill(decodedVms, -1);
 		}
 		
 		public void generateSolution() {		//generate solution from position
-			this.sol = new Solution();	
-			for(int i=0;i<position.length;i++){
+			//the tasks before the first one whose VM has changed are decoded as last time; only the others are decoded again
+			int first = 0;
+			if(sol == null || isKept){
+				this.sol = new Solution();
+				isKept = false;
+			}else{
+				while(first < dimension && decodedVms[first] == (int)(Math.floor(position[first])))
+					first++;
+				for(int i = dimension - 1; i >= first; i--)
+					sol.removeTask(wf.get(i));
+			}
+			for(int i=first;i<position.length;i++){
 				Task task = wf.get(i);		// tasks in wf is a topological sort
 				int vmIndex = (int)(Math.floor(position[i])); //ȡ
 				VM vm = vmPool[vmIndex];
-				double startTime = sol.calcEST(task, vm);
-				sol.addTaskToVM(vm, task, startTime, true);
+				decodedVms[i] = vmIndex;
+				if(isInsertion){
+					double startTime = sol.calcInsertionEST(task, vm);
+					sol.insertTaskToVM(vm, task, startTime);
+				}else{
+					double startTime = sol.calcEST(task, vm);
+					sol.addTaskToVM(vm, task, startTime, true);
+				}
 			}
 		}
 		
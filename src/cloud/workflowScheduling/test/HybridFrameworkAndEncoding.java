@@ -19,6 +19,8 @@ public class HybridFrameworkAndEncoding implements Scheduler {
 	
 	private int dimension;	//number of tasks
 	private VM[] vmPool;
+	private double[] positions;		//particle i is at positions[i*dimension ... (i+1)*dimension-1]
+	private BatchEvaluator evaluator;
 	
 	@Override
 	public Solution schedule(Workflow wf) {
@@ -30,6 +32,8 @@ public class HybridFrameworkAndEncoding implements Scheduler {
 		for(int i = 0; i < vmPool.length; i++){
 			vmPool[i] = new VM(i/wf.getMaxParallel()); // in vmPool, VMType ascends
 		}
+		this.positions = new double[POPSIZE * dimension];
+		this.evaluator = new BatchEvaluator(wf.getGraph(), vmPool, false, wf.getDeadline());
 		
 		//IC-PCPõ
 		Solution ICPCPSol = new ICPCP().schedule(this.wf);
@@ -80,95 +84,99 @@ public class HybridFrameworkAndEncoding implements Scheduler {
 		double xMin = 0,  xMax = range - 1;	//boundary
 		double vMax = xMax;					//maximum velocity
 		double[] globalBestPos = new double[dimension];	//global Best Position
-		Solution globalBestSol = null;		
+		double globalBestCost = 0, globalBestMakespan = 0;
+		boolean hasGlobalBest = false;
+		double[] costs = new double[POPSIZE], makespans = new double[POPSIZE];
+		boolean[] feasible = new boolean[POPSIZE];
 		
 		Particle[] particles = new Particle[POPSIZE];
 		for (int i = 0; i < POPSIZE; i++){		//initialize particles 
-			particles[i] = new Particle(vMax, xMin, xMax);
+			particles[i] = new Particle(i * dimension, vMax, xMin, xMax);
 			if(i == 0 && ICPCPSol != null) {
 				for (int d = 0; d < dimension; d++){
-					particles[i].position[d] = ICPCPPosition[d]; 
+					positions[d] = ICPCPPosition[d]; 
 					particles[i].speed[d] = vMax * rnd.nextDouble() - vMax/2;			
-					particles[i].bestPos[d] = particles[i].position[d];	
+					particles[i].bestPos[d] = positions[d];	
 				}
 			}
-			particles[i].generateSolution();
-			
-			if (globalBestSol == null || particles[i].sol.isBetterThan(globalBestSol, wf.getDeadline())) {
-				for (int j = 0; j < dimension; j++)
-					globalBestPos[j] = particles[i].position[j];
-				globalBestSol= particles[i].sol;	// ﲻҪcloneΪparticlesolÿεʱnew
+		}
+		evaluator.evaluate(positions, POPSIZE, costs, makespans, feasible);	//the initial swarm as one batch
+		for (int i = 0; i < POPSIZE; i++){
+			particles[i].recordBest(costs[i], makespans[i]);
+			if (!hasGlobalBest || BatchEvaluator.isBetterThan(costs[i], makespans[i],
+					globalBestCost, globalBestMakespan, wf.getDeadline())) {
+				System.arraycopy(positions, particles[i].offset, globalBestPos, 0, dimension);
+				globalBestCost = costs[i];
+				globalBestMakespan = makespans[i];
+				hasGlobalBest = true;
 			}
 		}
-//		System.out.println("the best initial solution:"+globalBestSol.calcCost()+";\t"+globalBestSol.calcMakespan());
+//		System.out.println("the best initial solution:"+globalBestCost+";\t"+globalBestMakespan);
 		
 		for (int iteIndex = 0; iteIndex < NO_OF_ITE; iteIndex++) {
 //			W = (double) (1.0 - iteIndex * 0.6 / 499);	//Եݼw = 1ЧҪһЩ
 			for (int i = 0; i < POPSIZE; i++) {
+				int offset = particles[i].offset;
 				for (int j = 0; j < dimension; j++) {
 					particles[i].speed[j] = W * particles[i].speed[j]
-					        + C1 * rnd.nextDouble() * (particles[i].bestPos[j] - particles[i].position[j])
-							+ C2 * rnd.nextDouble() * (globalBestPos[j] - particles[i].position[j]);  //ȫλΪھ
+					        + C1 * rnd.nextDouble() * (particles[i].bestPos[j] - positions[offset + j])
+							+ C2 * rnd.nextDouble() * (globalBestPos[j] - positions[offset + j]);  //ȫλΪھ
 					particles[i].speed[j] = Math.min(particles[i].speed[j], vMax);
 					
-					particles[i].position[j] = particles[i].position[j] + particles[i].speed[j];
+					positions[offset + j] = positions[offset + j] + particles[i].speed[j];
 
-					particles[i].position[j] = Math.max(particles[i].position[j], xMin);	//bound
-					particles[i].position[j] = Math.min(particles[i].position[j], xMax);
+					positions[offset + j] = Math.max(positions[offset + j], xMin);	//bound
+					positions[offset + j] = Math.min(positions[offset + j], xMax);
 				}
-				particles[i].generateSolution();
+				evaluator.evaluateRow(positions, i, costs, makespans, feasible);	//the next particle moves towards this one
+				particles[i].recordBest(costs[i], makespans[i]);
 				//record a better solution
-				if (globalBestSol == null || particles[i].sol.isBetterThan(globalBestSol, wf.getDeadline())) {
-					for (int j = 0; j < dimension; j++)
-						globalBestPos[j] = particles[i].position[j];
-					globalBestSol= particles[i].sol;
+				if (!hasGlobalBest || BatchEvaluator.isBetterThan(costs[i], makespans[i],
+						globalBestCost, globalBestMakespan, wf.getDeadline())) {
+					System.arraycopy(positions, offset, globalBestPos, 0, dimension);
+					globalBestCost = costs[i];
+					globalBestMakespan = makespans[i];
 //					System.out.printf("Iteration index%3d\t%5.2f\t%5.2f\n",iteIndex,
-//							globalBestSol.calcCost(),	globalBestSol.calcMakespan());
+//							globalBestCost,	globalBestMakespan);
 				}
 			}
 //			System.out.printf("Iteration index%3d\t%5.2f\t%5.2f\n",iteIndex,
-//					globalBestSol.calcCost(),	globalBestSol.calcMakespan());
+//					globalBestCost,	globalBestMakespan);
 		}
-//		System.out.println("Globle best is :" + globalBestSol.calcCost()+";\t"+globalBestSol.calcMakespan());
-		return globalBestSol;
+//		System.out.println("Globle best is :" + globalBestCost+";\t"+globalBestMakespan);
+		return evaluator.toSolution(globalBestPos, 0);	//decoding is deterministic, so this is the schedule evaluated
 	}
 	
 	private class Particle{
-		private double[] position = new double[dimension];
+		private final int offset;		//of its position in positions
 		private double[] speed = new double[dimension];
 		private double[] bestPos = new double[dimension];
-		private Solution sol, bestSol = null;
+		private double bestCost, bestMakespan;
+		private boolean hasBest = false;
 		
 		//initialize a particle
-		public Particle(double vMax, double xMin, double xMax){
+		public Particle(int offset, double vMax, double xMin, double xMax){
+			this.offset = offset;
 			for (int i = 0; i < dimension; i++){
-				this.position[i] = rnd.nextDouble() * (xMax - xMin) + xMin; 
+				positions[offset + i] = rnd.nextDouble() * (xMax - xMin) + xMin; 
 				this.speed[i] = vMax * rnd.nextDouble() - vMax/2;			
-				this.bestPos[i] = this.position[i];	
+				this.bestPos[i] = positions[offset + i];	
 			}
 		}
 		
-		public void generateSolution() {		//generate solution from position
-			this.sol = new Solution();	
-			for(int i=0;i<position.length;i++){
-				Task task = wf.get(i);		// tasks in wf is a topological sort
-				int vmIndex = (int)(Math.floor(position[i])); //ȡ
-				VM vm = vmPool[vmIndex];
-				double startTime = sol.calcEST(task, vm);
-				sol.addTaskToVM(vm, task, startTime, true);
-			}
-			
-			//record the best solution this particle has found
-			if (bestSol==null || this.sol.isBetterThan(bestSol, wf.getDeadline())){
-				for (int j = 0; j < dimension; j++)
-					this.bestPos[j] = this.position[j];	
-				this.bestSol = this.sol;	
+		//record the best solution this particle has found, given the evaluation of its position
+		public void recordBest(double cost, double makespan) {
+			if (!hasBest || BatchEvaluator.isBetterThan(cost, makespan, bestCost, bestMakespan, wf.getDeadline())){
+				System.arraycopy(positions, offset, this.bestPos, 0, dimension);
+				this.bestCost = cost;
+				this.bestMakespan = makespan;
+				this.hasBest = true;
 			}
 		}
 
 		public String toString() {
-			if(sol != null)
-				return "Particle [" + sol.calcCost()+ ", " + sol.calcMakespan()+ "]";
+			if(hasBest)
+				return "Particle [" + bestCost + ", " + bestMakespan + "]";
 			return "";
 		}
 	}
@@ -15,6 +15,7 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 	private final double bestVMSpeed = VM.SPEEDS[VM.FASTEST];
 	private Workflow wf;
 	private Solution solution ;
+	private ScheduleContext context;		//per-run state of tasks
 	int num =0;
 	double[] subDeadline;
 //	LinkedList<VM> updatedVM = new LinkedList<VM>();
@@ -28,10 +29,11 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 	public Solution schedule(Workflow wf) { 
 		num =0;
 		this.wf = wf;
+		this.context = new ScheduleContext(wf);
 		//taskisAssignedΪfalse
 		for(int i = 0; i < wf.size(); i++) {
 			Task t = wf.get(i);
-			t.setAssigned(false);
+			context.setAssigned(t, false);
 		}
 		
 		//ÿtaskӦԼ۱VM
@@ -61,16 +63,13 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 		
 		//LACOķȷtaskdeadline
 		if(xiufu) {
-		wf.calcPURank(1.5);
-		List<Task> tasks = new ArrayList<Task>(wf);
-		Collections.sort(tasks, new Task.PURankComparator()); 	
-		Collections.reverse(tasks);	//sort based on pURank, larger first
+		wf.calcPURank(1.5, context);
 		subDeadline = new double[wf.size()];
-		double CPLength = wf.get(0).getpURank(); 	//critical path
+		double CPLength = context.getpURank(wf.get(0)); 	//critical path
 //		double CPLength = wf.get(0).getbLevel(); 	//critical path
 		for(int i = 0; i < wf.size(); i++) {
 			Task t = wf.get(i);
-			subDeadline[i] = (CPLength - t.getpURank() + t.getTaskSize()/VM.SPEEDS[VM.FASTEST])
+			subDeadline[i] = (CPLength - context.getpURank(t) + t.getTaskSize()/VM.SPEEDS[VM.FASTEST])
 					/CPLength * wf.getDeadline();
 //			subDeadline[i] = (CPLength - t.getbLevel() + t.getTaskSize()/VM.SPEEDS[VM.FASTEST])
 //					/CPLength * wf.getDeadline();
@@ -97,9 +96,9 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 	
 	private void init(){					//Algorithm 1 in the paper; for cases of initialization and update
 		Task entryTask = wf.get(0);
-		entryTask.setAST(0);
-		entryTask.setAFT(0);
-		entryTask.setAssigned(true);
+		context.setAST(entryTask, 0);
+		context.setAFT(entryTask, 0);
+		context.setAssigned(entryTask, true);
 		
 		for(int i=1; i<wf.size(); i++){		// compute EST, EFT, critical parent via Eqs. 1 and 2; skip entry task
 			Task task = wf.get(i);
@@ -112,51 +111,51 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 				Task parent = e.getSource();
 				double startTime = e.getDataSize()/VM.NETWORK_SPEED;
 				//if assigned, use AFT; otherwise, use EFT
-				startTime += parent.isAssigned() ? parent.getAFT() : parent.getEFT();
+				startTime += context.isAssigned(parent) ? context.getAFT(parent) : context.getEFT(parent);
 				EST = Math.max(EST, startTime);				//determine EST
-				if(startTime > ESTForCritical && parent.isAssigned()==false){	//determine critical parent
+				if(startTime > ESTForCritical && context.isAssigned(parent)==false){	//determine critical parent
 					ESTForCritical = startTime;
 					criticalParent = parent;
 				}
 			}
-			if(task.isAssigned() == false){
-				task.setEST(EST);
-				task.setEFT(EST + task.getTaskSize() / bestVMSpeed);
+			if(context.isAssigned(task) == false){
+				context.setEST(task, EST);
+				context.setEFT(task, EST + task.getTaskSize() / bestVMSpeed);
 			}
 			//˵ĻҪcritical parent:Ϊtask aassignParentsparent bcԱҪ
-			task.setCriticalParent(criticalParent);	
+			context.setCriticalParent(task, criticalParent);	
 		}
 
 		Task exitTask = wf.get(wf.size()-1);	//Note, EST, EFT, critialParent of exitTask have been set above
-		exitTask.setAFT(wf.getDeadline());
-		exitTask.setAST(wf.getDeadline());
-		exitTask.setAssigned(true);
+		context.setAFT(exitTask, wf.getDeadline());
+		context.setAST(exitTask, wf.getDeadline());
+		context.setAssigned(exitTask, true);
 		for(int j = wf.size() - 2; j>=0; j--){	// compute LFT via Eq. 3; reverse order, skip exit node
 			Task task = wf.get(j);
-			if(task.isAssigned())
+			if(context.isAssigned(task))
 				continue;
 			
 			double lft = Double.MAX_VALUE;
 			for(Edge e : task.getOutEdges()){
 				Task child = e.getDestination();
 				double finishTime;
-				if(child.isAssigned())	
-					finishTime = child.getAST() - e.getDataSize() / VM.NETWORK_SPEED; //вͬе
+				if(context.isAssigned(child))	
+					finishTime = context.getAST(child) - e.getDataSize() / VM.NETWORK_SPEED; //вͬе
 				else
-					finishTime = child.getLFT() - child.getTaskSize()/bestVMSpeed - e.getDataSize() / VM.NETWORK_SPEED;
+					finishTime = context.getLFT(child) - child.getTaskSize()/bestVMSpeed - e.getDataSize() / VM.NETWORK_SPEED;
 				lft = Math.min(lft, finishTime);
 			}
-			task.setLFT(lft);
+			context.setLFT(task, lft);
 		}
 	}
 	
 	private void assignParents(Task task){			//Algorithm 2 in the paper
-		while(task.getCriticalParent() != null){	
+		while(context.getCriticalParent(task) != null){	
 			List<Task> PCP = new ArrayList<Task>();
 			Task ti = task;
-			while(ti.getCriticalParent() != null){		// while (there exists an unassigned parent of ti)
-				PCP.add(0, ti.getCriticalParent());   	//add CriticalParent(ti) to the beginning of PCP
-				ti = ti.getCriticalParent();
+			while(context.getCriticalParent(ti) != null){		// while (there exists an unassigned parent of ti)
+				PCP.add(0, context.getCriticalParent(ti));   	//add CriticalParent(ti) to the beginning of PCP
+				ti = context.getCriticalParent(ti);
 			}
 			num++;
 			
@@ -164,7 +163,7 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 			//LFT=subDeadline
 			for(int i = 1; i < wf.size()-1; i++) {
 				Task t = wf.get(i);
-				t.setLFT(subDeadline[i]);
+				context.setLFT(t, subDeadline[i]);
 			}
 			}
 			
@@ -191,52 +190,12 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 	//search a time slot in vm between EST and LFT for task allocation
 	//returning -1 means this task can not be placed to this vm between EST and LFT, in the target solution
 	private double searchStartTime(Solution solution, VM vm, Task task, double EST, double LFT){
-		LinkedList<Allocation> list = solution.get(vm);
-		
-		for(int i = 0;i<list.size()+1;i++){
-			double timeSlotStart, timeSlotEnd;
-			if(i == 0){ 
-				timeSlotStart = 0;
-				timeSlotEnd	= list.get(i).getStartTime();
-			}else if(i==list.size()){
-				timeSlotStart = list.get(i-1).getFinishTime();
-				timeSlotEnd = Double.MAX_VALUE;
-			}else{
-				timeSlotStart = list.get(i-1).getFinishTime();
-				timeSlotEnd	= list.get(i).getStartTime();
-			}
-			double slackTime = LFT - EST - task.getTaskSize()/vm.getSpeed();
-			if(EST + slackTime >= timeSlotStart){			//condition1startTime satisfies
-				double startTime = Math.max(timeSlotStart, EST);
-				//condition2slot is large enough to support this task
-				if(timeSlotEnd - startTime >= task.getTaskSize() / vm.getSpeed())	
-					return startTime;
-			}
-		}
-		return -1;
+		double slackTime = LFT - EST - task.getTaskSize()/vm.getSpeed();
+		return solution.searchStartTime(vm, EST, task.getTaskSize() / vm.getSpeed(), EST + slackTime);
 	}
 	//ϱߵ𣬲ҪLFTֻҪҵִtask
 	private double searchStartTimeNoLFT(Solution solution, VM vm, Task task, double EST){
-		LinkedList<Allocation> list = solution.get(vm);
-		
-		for(int i = 0;i<list.size()+1;i++){
-			double timeSlotStart, timeSlotEnd;
-			if(i == 0){ 
-				timeSlotStart = 0;
-				timeSlotEnd	= list.get(i).getStartTime();
-			}else if(i==list.size()){
-				timeSlotStart = list.get(i-1).getFinishTime();
-				timeSlotEnd = Double.MAX_VALUE;
-			}else{
-				timeSlotStart = list.get(i-1).getFinishTime();
-				timeSlotEnd	= list.get(i).getStartTime();
-			}
-			double startTime = Math.max(timeSlotStart, EST);
-			//condition2slot is large enough to support this task
-			if(timeSlotEnd - startTime >= task.getTaskSize() / vm.getSpeed())	
-				return startTime;
-		}
-		return -1;
+		return solution.searchStartTime(vm, EST, task.getTaskSize() / vm.getSpeed(), Double.POSITIVE_INFINITY);
 	}
 	
 	private VM getEarliestVM(){
@@ -276,7 +235,7 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 		
 		List<Task> PCP;
 		private Solution lastS;
-		HashMap<Task, Allocation> lastSrevMapping;
+		Map<Task, Allocation> lastSrevMapping;
 		private int taskNum;
 		private int existingVmNum;
 		private int newVmNum;
@@ -456,11 +415,11 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 			for(int i = 0; i < PCP.size(); i++) {
 				int j = 0;
 				Task task = PCP.get(i);				
-				HashMap<Task, Allocation> revMapping = globalBestSol.getRevMapping();
+				Map<Task, Allocation> revMapping = globalBestSol.getRevMapping();
 				Allocation alloc = revMapping.get(task);
-				task.setAssigned(true);		// set all tasks of P as assigned
-				task.setAST(alloc.getStartTime());
-				task.setAFT(alloc.getFinishTime());
+				context.setAssigned(task, true);		// set all tasks of P as assigned
+				context.setAST(task, alloc.getStartTime());
+				context.setAFT(task, alloc.getFinishTime());
 			}
 			
 			//globalBestSolпVMid´0ʼ
@@ -595,7 +554,7 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 					LinkedList<Allocation> allocList = sol.get(vm); //ǰvmϵtask
 					int flag = 0 ;
 					if(xiufu) {
-					while(sol.getRevMapping().get(task).getFinishTime() > task.getLFT() + Evaluate.E && vmType < VM.FASTEST){
+					while(sol.getRevMapping().get(task).getFinishTime() > context.getLFT(task) + Evaluate.E && vmType < VM.FASTEST){
 						vmType = vmType + 1;
 						
 						if(allocList != null) {
@@ -719,7 +678,7 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 			}
 			
 			public double calcESTforListPSO(Task task, VM vm){
-				HashMap<Task, Allocation> revMapping1 = sol.getRevMapping();
+				Map<Task, Allocation> revMapping1 = sol.getRevMapping();
 				double EST = 0; 			
 				for(Edge inEdge : task.getInEdges()){
 					Task parent = inEdge.getSource();
@@ -735,7 +694,7 @@ public class PCPandPSO2_4plus1 implements Scheduler {
 					else if(parent.getName() == "entry")
 						EST =  Math.max(EST, 0);
 					else {
-						EST = Math.max(EST, parent.getEFT() + inEdge.getDataSize() / VM.NETWORK_SPEED);
+						EST = Math.max(EST, context.getEFT(parent) + inEdge.getDataSize() / VM.NETWORK_SPEED);
 					}
 				}
 				if(!sol.containsKey(vm) || sol.get(vm) == null)
@@ -0,0 +1,159 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ArraySolution
+ */
+public class ArraySolutionTest {
+
+    // the same random decoding into a Solution and an ArraySolution, as PSO does
+    private static void decode(Workflow wf, VM[] pool, long seed, Solution sol, ArraySolution arr) {
+        Random rnd = new Random(seed);
+        for (int i = 0; i < wf.size(); i++) {
+            int v = rnd.nextInt(pool.length);
+            sol.addTaskToVM(pool[v], wf.get(i), sol.calcEST(wf.get(i), pool[v]), true);
+            arr.addTask(i, v, arr.calcEST(i, v));
+        }
+    }
+
+    @Test
+    public void testSameValuesAsSolution() {
+        Workflow wf = new Workflow("dax/CyberShake_100.xml");
+        VM[] pool = Fixtures.pool(20);
+        ArraySolution arr = new ArraySolution(wf.getGraph(), pool);
+        for (long seed = 0; seed < 5; seed++) {
+            Solution sol = new Solution(0);
+            arr.reset();
+            decode(wf, pool, seed, sol, arr);
+            assertEquals(sol.calcCost(), arr.calcCost(), 0);
+            assertEquals(sol.calcMakespan(), arr.calcMakespan(), 0);
+            assertEquals(sol.validate(wf), arr.validate(wf));
+            assertTrue(arr.validate(wf));
+            for (int i = 0; i < wf.size(); i++) {
+                Allocation alloc = sol.getRevMapping().get(wf.get(i));
+                assertSame(alloc.getVM(), arr.getVMOfPool(arr.getVM(i)));
+                assertEquals(alloc.getStartTime(), arr.getStartTime(i), 0);
+                assertEquals(alloc.getFinishTime(), arr.getFinishTime(i), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testConversions() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        VM[] pool = Fixtures.pool(12);
+        ArraySolution arr = new ArraySolution(wf.getGraph(), pool);
+        decode(wf, pool, 7, new Solution(0), arr);
+
+        Solution sol = arr.toSolution();
+        assertEquals(arr.getUsedVMNum(), sol.size());
+        assertEquals(arr.calcCost(), sol.calcCost(), 0);
+        assertEquals(arr.calcMakespan(), sol.calcMakespan(), 0);
+        assertTrue(sol.validate(wf));
+
+        ArraySolution back = ArraySolution.of(sol, wf.getGraph());
+        assertEquals(sol.calcCost(), back.calcCost(), 0);
+        assertEquals(sol.calcMakespan(), back.calcMakespan(), 0);
+        assertTrue(back.validate(wf));
+
+        ArraySolution copy = new ArraySolution(wf.getGraph(), pool);
+        copy.copyFrom(arr);
+        arr.reset();
+        assertFalse(arr.validate(wf));
+        assertEquals(sol.calcCost(), copy.calcCost(), 0);
+        assertFalse(copy.isBetterThan(copy, wf.getDeadline()));
+    }
+
+    @Test
+    public void testInsertion() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        VM[] pool = Fixtures.pool(4);
+        ArraySolution arr = new ArraySolution(wf.getGraph(), pool, true);
+        ArraySolution appended = new ArraySolution(wf.getGraph(), pool);
+        for (long seed = 0; seed < 3; seed++) {
+            Solution sol = new Solution(0);
+            arr.reset();
+            appended.reset();
+            Random rnd = new Random(seed);
+            for (int i = 0; i < wf.size(); i++) {
+                int v = rnd.nextInt(pool.length);
+                sol.insertTaskToVM(pool[v], wf.get(i), sol.calcInsertionEST(wf.get(i), pool[v]));
+                arr.addTask(i, v, arr.calcEST(i, v));
+                appended.addTask(i, v, appended.calcEST(i, v));
+                assertTrue(arr.getStartTime(i) <= appended.getStartTime(i));
+            }
+            assertTrue(arr.validate(wf));
+            assertTrue(sol.validate(wf));
+            assertEquals(sol.calcCost(), arr.calcCost(), 0);
+            assertEquals(sol.calcMakespan(), arr.calcMakespan(), 0);
+            for (int v = 0; v < pool.length; v++)       // tasks of a VM are in time order
+                for (int k = 1; k < arr.getVMTaskNum(v); k++)
+                    assertTrue(arr.getStartTime(arr.getVMTask(v, k - 1)) <= arr.getStartTime(arr.getVMTask(v, k)));
+        }
+    }
+
+    // decoding again after the first changed task gives the same solution as decoding all the tasks
+    @Test
+    public void testRemoveTasks() {
+        Workflow wf = new Workflow("dax/CyberShake_50.xml");
+        VM[] pool = Fixtures.pool(5);
+        Random rnd = new Random(11);
+        for (boolean isInsertion : new boolean[]{false, true}) {
+            ArraySolution delta = new ArraySolution(wf.getGraph(), pool, isInsertion);
+            ArraySolution full = new ArraySolution(wf.getGraph(), pool, isInsertion);
+            int[] vms = new int[wf.size()];
+            for (int round = 0; round < 20; round++) {
+                int first = round == 0 ? 0 : rnd.nextInt(wf.size());
+                for (int i = first; i < wf.size(); i++)
+                    vms[i] = rnd.nextInt(pool.length);
+                delta.removeTasks(first);
+                for (int i = first; i < wf.size(); i++)
+                    delta.addTask(i, vms[i], delta.calcEST(i, vms[i]));
+                full.reset();
+                for (int i = 0; i < wf.size(); i++)
+                    full.addTask(i, vms[i], full.calcEST(i, vms[i]));
+                assertEquals(full.calcCost(), delta.calcCost(), 0);
+                assertEquals(full.calcMakespan(), delta.calcMakespan(), 0);
+                assertEquals(full.getUsedVMNum(), delta.getUsedVMNum());
+                for (int k = 0; k < full.getUsedVMNum(); k++)
+                    assertEquals(full.getUsedVM(k), delta.getUsedVM(k));
+                for (int i = 0; i < wf.size(); i++)
+                    assertEquals(full.getStartTime(i), delta.getStartTime(i), 0);
+                assertTrue(delta.validate(wf));
+            }
+        }
+    }
+
+    @Test
+    public void testCostLowerBound() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        VM[] pool = Fixtures.pool(12);
+        for (boolean isInsertion : new boolean[]{false, true}) {
+            ArraySolution arr = new ArraySolution(wf.getGraph(), pool, isInsertion);
+            Random rnd = new Random(5);
+            double[] bounds = new double[wf.size()];
+            for (int i = 0; i < wf.size(); i++) {
+                int v = rnd.nextInt(pool.length);
+                arr.addTask(i, v, arr.calcEST(i, v));
+                bounds[i] = arr.calcCostLowerBound();
+                if (i > 0)
+                    assertTrue(bounds[i] >= bounds[i - 1]);     // never smaller after adding a task
+            }
+            assertTrue(bounds[wf.size() - 1] <= arr.calcCost());
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testConflict() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        ArraySolution arr = new ArraySolution(wf.getGraph(), Fixtures.pool(1));
+        arr.addTask(0, 0, 0);
+        arr.addTask(1, 0, arr.calcEST(1, 0));
+        arr.addTask(2, 0, arr.getStartTime(1));		// overlaps task 1
+    }
+}
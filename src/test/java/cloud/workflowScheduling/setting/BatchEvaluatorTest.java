@@ -0,0 +1,71 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for BatchEvaluator
+ */
+public class BatchEvaluatorTest {
+
+    @Test
+    public void testSameAsDecodingOneByOne() {
+        Workflow wf = new Workflow("dax/CyberShake_100.xml");
+        VM[] pool = Fixtures.poolByType(VM.TYPE_NO, wf.getMaxParallel());
+        int n = 20, dim = wf.size();
+        double[] positions = new double[n * dim];
+        Random rnd = new Random(3);
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = rnd.nextDouble() * (pool.length - 1);
+        BatchEvaluator evaluator = new BatchEvaluator(wf.getGraph(), pool, false, 1000);
+        double[] costs = new double[n], makespans = new double[n];
+        boolean[] feasible = new boolean[n];
+        evaluator.evaluate(positions, n, costs, makespans, feasible);
+
+        for (int i = 0; i < n; i++) {
+            Solution sol = new Solution(0);
+            for (int j = 0; j < dim; j++) {
+                VM vm = pool[(int) Math.floor(positions[i * dim + j])];
+                sol.addTaskToVM(vm, wf.get(j), sol.calcEST(wf.get(j), vm), true);
+            }
+            assertEquals(sol.calcCost(), costs[i], 0);
+            assertEquals(sol.calcMakespan(), makespans[i], 0);
+            assertEquals(sol.calcMakespan() <= 1000, feasible[i]);
+            Solution decoded = evaluator.toSolution(positions, i * dim);
+            assertTrue(decoded.validate(wf));
+            assertEquals(costs[i], decoded.calcCost(), 0);
+        }
+
+        int threshold = BatchEvaluator.parallelThreshold;
+        BatchEvaluator.parallelThreshold = 0;       // every particle in its own fork-join task
+        try {
+            double[] parallelCosts = new double[n], parallelMakespans = new double[n];
+            evaluator.evaluate(positions, n, parallelCosts, parallelMakespans, new boolean[n]);
+            assertArrayEquals(costs, parallelCosts, 0);
+            assertArrayEquals(makespans, parallelMakespans, 0);
+        } finally {
+            BatchEvaluator.parallelThreshold = threshold;
+        }
+    }
+
+    @Test
+    public void testIsBetterThan() {
+        assertTrue(BatchEvaluator.isBetterThan(1, 10, 2, 5, 10));       // both feasible: cheaper
+        assertTrue(BatchEvaluator.isBetterThan(5, 10, 1, 11, 10));      // feasible over infeasible
+        assertFalse(BatchEvaluator.isBetterThan(1, 11, 5, 10, 10));
+        assertTrue(BatchEvaluator.isBetterThan(5, 12, 1, 13, 10));      // both infeasible: shorter
+        assertFalse(BatchEvaluator.isBetterThan(1, 10, 1, 10, 10));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testOutOfPool() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        VM[] pool = Fixtures.poolByType(VM.TYPE_NO, wf.getMaxParallel());
+        double[] positions = new double[wf.size()];
+        positions[3] = pool.length;
+        new BatchEvaluator(wf.getGraph(), pool, false, 1000).evaluate(positions, 1, new double[1], new double[1], new boolean[1]);
+    }
+}
@@ -0,0 +1,61 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DaxLoader
+ */
+public class DaxLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGzipGivesSameWorkflow() throws IOException {
+        String xml = "dax/Sipht_30.xml";
+        File gz = folder.newFile("Sipht_30.xml.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(gz))) {
+            Files.copy(Paths.get(xml), out);
+        }
+
+        Workflow w1 = new Workflow(xml);
+        Workflow w2 = new Workflow(gz.getPath());
+        assertEquals(w1.size(), w2.size());
+        for (int i = 0; i < w1.size(); i++) {
+            Task t1 = w1.get(i), t2 = w2.get(i);
+            assertEquals(t1.getId(), t2.getId());
+            assertEquals(t1.getName(), t2.getName());
+            assertEquals(t1.getTaskSize(), t2.getTaskSize(), 0);
+            assertEquals(t1.getbLevel(), t2.getbLevel(), 0);
+            assertEquals(t1.getOutEdges().size(), t2.getOutEdges().size());
+            for (int k = 0; k < t1.getOutEdges().size(); k++) {
+                Edge e1 = t1.getOutEdges().get(k), e2 = t2.getOutEdges().get(k);
+                assertEquals(e1.getDestination().getId(), e2.getDestination().getId());
+                assertEquals(e1.getDataSize(), e2.getDataSize());
+            }
+        }
+    }
+
+    @Test
+    public void testDataFlowsBound() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        assertEquals("entry", wf.get(0).getName());
+        assertEquals("exit", wf.get(wf.size() - 1).getName());
+        int boundEdges = 0;
+        for (Task t : wf)
+            for (Edge e : t.getOutEdges())
+                if (e.getDataSize() > 0)
+                    boundEdges++;
+        assertTrue(boundEdges > 0);
+        for (Edge e : wf.get(0).getOutEdges())      // transfer time of input data is omitted
+            assertEquals(0, e.getDataSize());
+    }
+}
@@ -0,0 +1,63 @@
+package cloud.workflowScheduling.setting;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DecodingCache
+ */
+public class DecodingCacheTest {
+
+    private static ArraySolution decode(Workflow wf, VM[] pool, int[] vms) {
+        ArraySolution sol = new ArraySolution(wf.getGraph(), pool);
+        for (int i = 0; i < vms.length; i++)
+            sol.addTask(i, vms[i], sol.calcEST(i, vms[i]));
+        return sol;
+    }
+
+    @Test
+    public void testSymmetricAssignments() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        VM[] pool = Fixtures.poolByType(3, 4);        // 4 VMs of each of types 0, 1 and 2
+        int[] vms = new int[wf.size()], relabelled = new int[wf.size()], otherType = new int[wf.size()];
+        for (int i = 0; i < vms.length; i++) {
+            vms[i] = (i * 7) % pool.length;
+            relabelled[i] = vms[i] / 4 * 4 + (vms[i] % 4 + 1) % 4;      // VMs rotated within each type
+            otherType[i] = vms[i] == 0 ? 4 : vms[i];
+        }
+        ArraySolution sol = decode(wf, pool, vms), same = decode(wf, pool, relabelled);
+        assertEquals(sol.calcCost(), same.calcCost(), 0);
+        assertEquals(sol.calcMakespan(), same.calcMakespan(), 0);
+
+        DecodingCache cache = new DecodingCache(pool, 10);
+        double[] result = new double[2];
+        assertFalse(cache.get(vms, result));
+        cache.put(vms, sol.calcCost(), sol.calcMakespan());
+        assertTrue(cache.get(relabelled, result));
+        assertEquals(same.calcCost(), result[0], 0);
+        assertEquals(same.calcMakespan(), result[1], 0);
+        assertTrue(cache.get(vms, result));
+        assertFalse(cache.get(otherType, result));
+        assertEquals(2, cache.getHits());
+        assertEquals(0.5, cache.getHitRatio(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        VM[] pool = {new VM(0), new VM(1), new VM(2)};
+        DecodingCache cache = new DecodingCache(pool, 2);
+        int[] a = {0, 1}, b = {1, 2}, c = {2, 2};
+        double[] result = new double[2];
+        cache.put(a, 1, 10);
+        cache.put(b, 2, 20);
+        assertTrue(cache.get(a, result));       // b is now the least recently used
+        cache.put(c, 3, 30);
+        assertEquals(2, cache.size());
+        assertFalse(cache.get(b, result));
+        assertTrue(cache.get(a, result));
+        assertEquals(1, result[0], 0);
+        assertTrue(cache.get(c, result));
+        assertEquals(30, result[1], 0);
+    }
+}
@@ -0,0 +1,77 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DeepCopyUtil and Solution.deepcopy
+ */
+public class DeepCopyUtilTest {
+
+    // the same allocations on VMs of the same types, but no Allocation or list in common
+    private static void assertCopy(Solution sol, Solution copy) {
+        assertEquals(sol.size(), copy.size());
+        Iterator<VM> it = copy.keySet().iterator();
+        for (VM vm : sol.keySet()) {
+            VM vmCopy = it.next();
+            assertEquals(vm.getType(), vmCopy.getType());
+            assertNotSame(sol.get(vm), copy.get(vmCopy));
+            Iterator<Allocation> allocs = copy.get(vmCopy).iterator();
+            for (Allocation alloc : sol.get(vm)) {
+                Allocation allocCopy = allocs.next();
+                assertNotSame(alloc, allocCopy);
+                assertSame(alloc.getTask(), allocCopy.getTask());     // Tasks are shared
+                assertSame(vmCopy, allocCopy.getVM());
+                assertEquals(alloc.getStartTime(), allocCopy.getStartTime(), 0);
+                assertEquals(alloc.getFinishTime(), allocCopy.getFinishTime(), 0);
+                assertSame(allocCopy, copy.getRevMapping().get(alloc.getTask()));
+            }
+        }
+        assertEquals(sol.calcCost(), copy.calcCost(), 0);
+        assertEquals(sol.calcMakespan(), copy.calcMakespan(), 0);
+    }
+
+    @Test
+    public void testCopySolution() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        VM[] pool = {new VM(0), new VM(3), new VM(5)};
+        Solution sol = Fixtures.schedule(wf, pool);
+
+        Solution copy = DeepCopyUtil.copy(sol);
+        assertCopy(sol, copy);
+        assertTrue(copy.keySet().containsAll(Arrays.asList(pool)));     // VMs of the pool are shared
+        copy.removeTask(wf.get(wf.size() - 1));
+        assertTrue(sol.getRevMapping().containsKey(wf.get(wf.size() - 1)));
+
+        Map<VM, VM> vmCopies = new HashMap<VM, VM>();
+        Solution withVMs = Solution.deepcopy(sol, vmCopies);
+        assertCopy(sol, withVMs);
+        assertEquals(pool.length, vmCopies.size());
+        withVMs.updateVM(vmCopies.get(pool[0]));
+        assertEquals(0, pool[0].getType());
+        assertEquals(pool[0].getId(), vmCopies.get(pool[0]).getId());
+
+        assertCopy(sol, DeepCopyUtil.copyBySerialization(sol));
+    }
+
+    @Test
+    public void testCopyOtherState() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        Solution sol = Fixtures.schedule(wf, new VM[]{new VM(1)});
+        List<Allocation> list = sol.get(sol.keySet().iterator().next());
+        List<Allocation> copy = DeepCopyUtil.copy(list);
+        assertTrue(copy instanceof LinkedList);
+        assertEquals(list.size(), copy.size());
+        assertNotSame(list.get(3), copy.get(3));
+        assertSame(list.get(3).getTask(), copy.get(3).getTask());
+
+        double[][] positions = {{1, 2}, {3, 4}};
+        double[][] positionsCopy = DeepCopyUtil.copy(positions);
+        positionsCopy[1][0] = 5;
+        assertEquals(3, positions[1][0], 0);
+        assertSame(wf.get(2), DeepCopyUtil.copy(wf.get(2)));
+    }
+}
@@ -0,0 +1,36 @@
+package cloud.workflowScheduling.setting;
+
+/**
+ * VM pools and schedules shared by the tests of this package
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    // num VMs, of types 0, 1, ... in turn
+    static VM[] pool(int num) {
+        VM[] pool = new VM[num];
+        for (int i = 0; i < num; i++)
+            pool[i] = new VM(i % VM.TYPE_NO);
+        return pool;
+    }
+
+    // perType VMs of each of types 0 ... typeNum-1, grouped by type
+    static VM[] poolByType(int typeNum, int perType) {
+        VM[] pool = new VM[typeNum * perType];
+        for (int i = 0; i < pool.length; i++)
+            pool[i] = new VM(i / perType);
+        return pool;
+    }
+
+    // the tasks of wf in order, on the VMs of pool in turn, each at its earliest start time
+    static Solution schedule(Workflow wf, VM[] pool) {
+        Solution sol = new Solution(0);
+        for (int i = 0; i < wf.size(); i++) {
+            VM vm = pool[i % pool.length];
+            sol.addTaskToVM(vm, wf.get(i), sol.calcEST(wf.get(i), vm), true);
+        }
+        return sol;
+    }
+}
@@ -0,0 +1,86 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for FreeSlots
+ */
+public class FreeSlotsTest {
+
+    // the scan of ICPCP.searchStartTime over the gaps around list
+    private static double scan(List<Allocation> list, double EST, double duration, double latestStart) {
+        for (int i = 0; i <= list.size(); i++) {
+            double gapStart = i == 0 ? 0 : list.get(i - 1).getFinishTime();
+            double gapEnd = i == list.size() ? Double.MAX_VALUE : list.get(i).getStartTime();
+            if (latestStart >= gapStart) {
+                double startTime = Math.max(gapStart, EST);
+                if (gapEnd - startTime >= duration)
+                    return startTime;
+            }
+        }
+        return -1;
+    }
+
+    private static void assertSameAsScan(FreeSlots slots, List<Allocation> list, Random rnd, double horizon) {
+        for (int k = 0; k < 200; k++) {
+            double EST = rnd.nextDouble() * horizon;
+            double duration = rnd.nextInt(4) == 0 ? 0 : rnd.nextDouble() * 30;
+            double latestStart = rnd.nextBoolean() ? Double.MAX_VALUE : EST + rnd.nextDouble() * 100;
+            assertEquals(scan(list, EST, duration, latestStart), slots.search(EST, duration, latestStart), 0);
+        }
+    }
+
+    @Test
+    public void testSearchSameAsScan() {
+        Random rnd = new Random(5);
+        for (int run = 0; run < 20; run++) {
+            List<Allocation> list = new ArrayList<Allocation>();
+            double time = 0;
+            for (int i = 0; i < 50; i++) {
+                time += rnd.nextInt(3) == 0 ? 0 : rnd.nextDouble() * 20;       // some gaps are empty
+                double finish = time + rnd.nextDouble() * 20;
+                list.add(new Allocation(null, null, time, finish));
+                time = finish;
+            }
+            if (run % 2 == 1)       // unordered, e.g., a task moved by a later upgrade
+                Collections.swap(list, 10, 30);
+            FreeSlots slots = new FreeSlots(list);
+            assertEquals(run % 2 == 0, slots.isOrdered());
+            assertEquals(list.size() + 1, slots.size());
+            assertSameAsScan(slots, list, rnd, time);
+        }
+    }
+
+    @Test
+    public void testOccupy() {
+        Random rnd = new Random(8);
+        FreeSlots slots = new FreeSlots();
+        List<Allocation> list = new ArrayList<Allocation>();
+        for (int i = 0; i < 300; i++) {
+            double duration = rnd.nextDouble() * 10;
+            double start = slots.search(rnd.nextDouble() * 1000, duration, Double.MAX_VALUE);
+            slots.occupy(start, start + duration);
+            Allocation alloc = new Allocation(null, null, start, start + duration);
+            int position = 0;
+            while (position < list.size() && list.get(position).getStartTime() <= start)
+                position++;
+            list.add(position, alloc);
+            assertTrue(slots.isOrdered());
+        }
+        assertEquals(list.size() + 1, slots.size());
+        for (int i = 1; i < list.size(); i++)
+            assertTrue(list.get(i - 1).getFinishTime() <= list.get(i).getStartTime());
+        assertSameAsScan(slots, list, rnd, 1500);
+
+        FreeSlots copy = new FreeSlots();
+        copy.copyFrom(slots);
+        assertSameAsScan(copy, list, rnd, 1500);
+        slots.clear();
+        assertEquals(1, slots.size());
+        assertEquals(7, slots.search(7, 100, Double.MAX_VALUE), 0);
+    }
+}
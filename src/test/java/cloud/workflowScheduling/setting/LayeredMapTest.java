@@ -0,0 +1,69 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for LayeredMap
+ */
+public class LayeredMapTest {
+
+    @Test
+    public void testSameAsHashMap() {
+        Map<Integer, String> base = new HashMap<Integer, String>();
+        for (int i = 0; i < 10; i++)
+            base.put(i, "b" + i);
+        Map<Integer, String> copy = new HashMap<Integer, String>(base);
+        LayeredMap<Integer, String> layered = new LayeredMap<Integer, String>(base);
+        Map<Integer, String> expected = new HashMap<Integer, String>(base);
+        Random rnd = new Random(1);
+        for (int k = 0; k < 200; k++) {
+            int key = rnd.nextInt(15);
+            if (rnd.nextBoolean())
+                assertEquals(expected.put(key, "o" + k), layered.put(key, "o" + k));
+            else
+                assertEquals(expected.remove(key), layered.remove(key));
+            assertEquals(expected.size(), layered.size());
+            assertEquals(expected.containsKey(key), layered.containsKey(key));
+        }
+        assertEquals(expected, layered);
+        assertEquals(expected, new HashMap<Integer, String>(layered));
+        assertEquals(copy, base);       // the base is not changed
+
+        LayeredMap<Integer, String> other = layered.copy();
+        Map<Integer, String> otherExpected = new HashMap<Integer, String>(expected);
+        otherExpected.put(20, "x");
+        otherExpected.remove(0);
+        other.put(20, "x");
+        other.remove(0);
+        assertEquals(expected, layered);
+        assertEquals(otherExpected, other);
+        assertEquals(otherExpected.size(), other.size());
+
+        layered.clear();
+        assertTrue(layered.isEmpty());
+        assertNull(layered.get(3));
+        assertEquals(copy, base);
+    }
+
+    @Test
+    public void testLarge() {
+        Map<Integer, String> base = new HashMap<Integer, String>();
+        for (int i = 0; i < 4; i++)
+            base.put(i, "b" + i);
+        LayeredMap<Integer, String> layered = new LayeredMap<Integer, String>(base);
+        for (int i = 0; i < 3; i++)
+            layered.put(i, "o" + i);
+        assertFalse(layered.isLarge());
+        layered.remove(3);
+        assertTrue(layered.isLarge());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() {
+        new LayeredMap<Integer, String>(new HashMap<Integer, String>()).put(1, null);
+    }
+}
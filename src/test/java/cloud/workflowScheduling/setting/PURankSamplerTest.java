@@ -0,0 +1,65 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import cloud.workflowScheduling.methods.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PURankSampler
+ */
+public class PURankSamplerTest {
+
+    @Test
+    public void testMaxThetaGivesBLevel() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        ScheduleContext context = new ScheduleContext(wf);
+        wf.calcPURank(Double.MAX_VALUE, context);
+        PURankSampler sampler = new PURankSampler(wf, Double.MAX_VALUE, new Random(1));
+        double[][] ranks = sampler.newRanks(3);
+        sampler.sample(ranks);
+        for (double[] row : ranks)
+            assertArrayEquals(context.getpURanks(), row, 0);
+    }
+
+    @Test
+    public void testSamplesBetweenSLevelAndBLevel() {
+        Workflow wf = new Workflow("dax/CyberShake_30.xml");
+        WorkflowGraph g = wf.getGraph();
+        PURankSampler sampler = new PURankSampler(wf, 1.5, new Random(2));
+        double[][] ranks = sampler.newRanks(20);
+        sampler.sample(ranks);
+        boolean differ = false;
+        for (double[] row : ranks) {
+            for (int i = 0; i < g.size(); i++) {
+                assertTrue(row[i] >= g.getTask(i).getsLevel() - 1e-9);
+                assertTrue(row[i] <= g.getTask(i).getbLevel() + 1e-9);
+            }
+            differ |= !Arrays.equals(row, ranks[0]);
+        }
+        assertTrue(differ);
+    }
+
+    @Test
+    public void testSeedRepeatsSamples() {
+        Workflow wf = new Workflow("dax/Sipht_30.xml");
+        double[][] r1 = new PURankSampler(wf, 1.5, new Random(9)).newRanks(5), r2 = new double[5][wf.size()];
+        new PURankSampler(wf, 1.5, new Random(9)).sample(r1);
+        new PURankSampler(wf, 1.5, new Random(9)).sample(r2);
+        assertArrayEquals(r1, r2);
+    }
+
+    @Test
+    public void testSeededLACORepeats() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        Benchmarks benchmarks = new Benchmarks(wf);
+        wf.setDeadline(benchmarks.getFastSchedule().calcMakespan() * 1.5);
+        Solution s1 = new LACO(4).schedule(wf), s2 = new LACO(4).schedule(wf);
+        assertEquals(s1.calcCost(), s2.calcCost(), 0);
+        assertEquals(s1.calcMakespan(), s2.calcMakespan(), 0);
+        assertTrue(s1.validate(wf));
+    }
+}
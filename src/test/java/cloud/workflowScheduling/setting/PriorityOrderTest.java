@@ -0,0 +1,64 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for PriorityOrder
+ */
+public class PriorityOrderTest {
+
+    // reference: stable sort of indices 1..n-2 on ascending keys, entry first and exit last
+    private static int[] reference(double[] keys, boolean descending) {
+        int n = keys.length;
+        List<Integer> inner = new ArrayList<>();
+        for (int i = 1; i < n - 1; i++)
+            inner.add(i);
+        inner.sort((a, b) -> keys[a] > keys[b] ? 1 : keys[a] < keys[b] ? -1 : 0);
+        if (descending)
+            Collections.reverse(inner);
+        int[] order = new int[n];
+        order[0] = 0;
+        for (int i = 0; i < inner.size(); i++)
+            order[i + 1] = inner.get(i);
+        order[n - 1] = n - 1;
+        return order;
+    }
+
+    @Test
+    public void testMatchesStableSort() {
+        Random rnd = new Random(7);
+        for (int n = 2; n < 200; n += 7) {
+            double[] keys = new double[n];
+            for (int i = 0; i < n; i++)
+                keys[i] = rnd.nextInt(10);      // many ties
+            assertArrayEquals(reference(keys, true), PriorityOrder.descending(keys));
+            assertArrayEquals(reference(keys, false), PriorityOrder.ascending(keys));
+        }
+    }
+
+    @Test
+    public void testEntryAndExitPinned() {
+        double[] keys = {-5, 3, 9, 1, 100};
+        assertArrayEquals(new int[]{0, 2, 1, 3, 4}, PriorityOrder.descending(keys));
+        assertArrayEquals(new int[]{0, 3, 1, 2, 4}, PriorityOrder.ascending(keys));
+    }
+
+    @Test
+    public void testWorkflowOrders() {
+        Workflow wf = new Workflow("dax/Inspiral_30.xml");
+        WorkflowGraph g = wf.getGraph();
+        int[] bLevelOrder = wf.getBLevelOrder();
+        assertSame(bLevelOrder, wf.getBLevelOrder());
+        for (int i = 2; i < bLevelOrder.length - 1; i++)
+            assertTrue(g.getTask(bLevelOrder[i - 1]).getbLevel() >= g.getTask(bLevelOrder[i]).getbLevel());
+
+        ScheduleContext context = new ScheduleContext(wf);
+        int[] pURankOrder = wf.calcPURankOrder(Double.MAX_VALUE, context);
+        assertSame(pURankOrder, wf.calcPURankOrder(Double.MAX_VALUE, new ScheduleContext(wf)));
+        assertEquals(g.getTask(0).getbLevel(), context.getpURank(g.getTask(0)), 1e-9);
+    }
+}
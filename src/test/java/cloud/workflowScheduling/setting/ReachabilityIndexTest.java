@@ -0,0 +1,73 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReachabilityIndex
+ */
+public class ReachabilityIndexTest {
+
+    private static boolean[] descendants(WorkflowGraph g, int from) {
+        boolean[] reached = new boolean[g.size()];
+        Deque<Integer> stack = new ArrayDeque<>(Collections.singleton(from));
+        int[] offsets = g.getChildOffsets(), children = g.getChildren();
+        while (!stack.isEmpty()) {
+            int j = stack.pop();
+            for (int k = offsets[j]; k < offsets[j + 1]; k++)
+                if (!reached[children[k]]) {
+                    reached[children[k]] = true;
+                    stack.push(children[k]);
+                }
+        }
+        return reached;
+    }
+
+    private static void assertSameAsSearch(WorkflowGraph g, ReachabilityIndex index) {
+        for (int i = 0; i < g.size(); i++) {
+            boolean[] reached = descendants(g, i);
+            for (int j = 0; j < g.size(); j++)
+                assertEquals(i + "->" + j, reached[j], index.reaches(i, j));
+        }
+    }
+
+    @Test
+    public void testBothModesMatchSearch() {
+        for (String file : new String[]{"dax/Montage_50.xml", "dax/CyberShake_30.xml", "dax/Inspiral_30.xml", "dax/Sipht_30.xml"}) {
+            WorkflowGraph g = new Workflow(file).getGraph();
+            ReachabilityIndex bits = new ReachabilityIndex(g, false), chains = new ReachabilityIndex(g, true);
+            assertFalse(bits.usesChains());
+            assertTrue(chains.usesChains());
+            assertTrue(chains.getChainNum() > 0 && chains.getChainNum() < g.size());
+            assertSameAsSearch(g, bits);
+            assertSameAsSearch(g, chains);
+        }
+    }
+
+    @Test
+    public void testWorkflowIndexDroppedByChange() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        ReachabilityIndex index = wf.getReachability();
+        assertSame(index, wf.getReachability());
+        Task entry = wf.get(0), texit = wf.get(wf.size() - 1);
+        assertTrue(index.reaches(entry, texit));
+        assertFalse(index.reaches(texit, entry));
+        assertFalse(index.isIndependent(entry, texit));
+
+        Task a = wf.addTask("a", 10), b = wf.addTask("b", 10);
+        ReachabilityIndex after = wf.getReachability();
+        assertNotSame(index, after);
+        assertTrue(after.isIndependent(a, b));
+        wf.addEdge(a, b, 0);
+        assertTrue(wf.getReachability().reaches(a, b));
+        try {
+            wf.addEdge(b, a, 0);		// a cycle, detected by the index
+            fail();
+        } catch (RuntimeException e) {
+        }
+        assertSameAsSearch(wf.getGraph(), wf.getReachability());
+    }
+}
@@ -0,0 +1,98 @@
+package cloud.workflowScheduling.setting;
+
+import cloud.workflowScheduling.methods.Benchmarks;
+import cloud.workflowScheduling.methods.ICPCP;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ScheduleContext
+ */
+public class ScheduleContextTest {
+
+    private static Workflow wf;
+
+    @BeforeClass
+    public static void setUp() {
+        wf = new Workflow("dax/Montage_50.xml");
+        Benchmarks benSched = new Benchmarks(wf);
+        wf.setDeadline(benSched.getFastSchedule().calcMakespan() * 5);
+    }
+
+    @Test
+    public void testInitialState() {
+        ScheduleContext context = new ScheduleContext(wf);
+        for (Task t : wf) {
+            assertFalse(context.isAssigned(t));
+            assertEquals(-1, context.getEST(t), 0);
+            assertNull(context.getCriticalParent(t));
+        }
+    }
+
+    @Test
+    public void testContextsAreIndependent() {
+        ScheduleContext c1 = new ScheduleContext(wf);
+        ScheduleContext c2 = new ScheduleContext(wf);
+        Task t = wf.get(3);
+        c1.setAssigned(t, true);
+        c1.setCriticalParent(t, wf.get(0));
+        assertFalse(c2.isAssigned(t));
+        assertNull(c2.getCriticalParent(t));
+        assertSame(wf.get(0), c1.getCriticalParent(t));
+
+        c1.reset();
+        assertFalse(c1.isAssigned(t));
+        assertNull(c1.getCriticalParent(t));
+    }
+
+    @Test
+    public void testDeterministicPURank() {
+        ScheduleContext context = new ScheduleContext(wf);
+        wf.calcPURank(Double.MAX_VALUE, context);
+        for (Task t : wf)       // with theta = Double.MAX_VALUE, pURank equals bLevel
+            assertEquals(t.getbLevel(), context.getpURank(t), 1e-9);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testForeignContext() {
+        wf.calcPURank(Double.MAX_VALUE, new ScheduleContext(new Workflow("dax/Montage_30.xml")));
+    }
+
+    @Test
+    public void testRepeatedICPCP() {
+        Solution s1 = new ICPCP().schedule(wf);
+        Solution s2 = new ICPCP().schedule(wf);
+        assertNotNull(s1);
+        assertNotNull(s2);
+        assertEquals(s1.calcCost(), s2.calcCost(), 0);
+        assertEquals(s1.calcMakespan(), s2.calcMakespan(), 0);
+    }
+
+    private static List<Integer> vmIds(Solution sol) {
+        List<Integer> ids = new ArrayList<>();
+        for (VM vm : sol.keySet())
+            ids.add(vm.getId());
+        return ids;
+    }
+
+    @Test
+    public void testConcurrentRuns() throws Exception {
+        List<Integer> expected = vmIds(new ICPCP().schedule(wf));
+        assertEquals(new HashSet<>(expected).size(), expected.size());
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Solution>> runs = new ArrayList<>();
+            for (int i = 0; i < 16; i++)
+                runs.add(pool.submit(() -> new ICPCP().schedule(wf)));
+            for (Future<Solution> run : runs)        // each run numbers its VMs as a run of its own
+                assertEquals(expected, vmIds(run.get()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
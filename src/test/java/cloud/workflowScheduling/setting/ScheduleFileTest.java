@@ -0,0 +1,182 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ScheduleFile
+ */
+public class ScheduleFileTest {
+
+    private static Solution schedule(Workflow wf) {
+        return Fixtures.schedule(wf, new VM[]{new VM(0, 4), new VM(1), new VM(2)});
+    }
+
+    private static void assertRoundTrip(Solution sol, Workflow wf, byte[] bytes) throws IOException {
+        try (ScheduleFile.Reader reader = new ScheduleFile.Reader(new ByteArrayInputStream(bytes))) {
+            assertEquals(sol.keySet().size(), reader.getVMNum());
+            assertEquals(wf.size(), reader.getTaskNum());
+            assertEquals(sol.calcCost(), reader.getCost(), 0);
+            assertEquals(sol.calcMakespan(), reader.getMakespan(), 0);
+
+            Solution read = reader.toSolution(wf);
+            assertTrue(read.validate(wf));
+            assertEquals(sol.calcCost(), read.calcCost(), 0);
+            assertEquals(sol.calcMakespan(), read.calcMakespan(), 0);
+            for (int i = 0; i < wf.size(); i++) {
+                Allocation a = sol.getRevMapping().get(wf.get(i));
+                Allocation b = read.getRevMapping().get(wf.get(i));
+                assertEquals(a.getStartTime(), b.getStartTime(), 0);
+                assertEquals(a.getFinishTime(), b.getFinishTime(), 0);
+                assertEquals(a.getSlot(), b.getSlot());
+                assertEquals(a.getVM().getType(), b.getVM().getType());
+                assertEquals(a.getVM().getSlotNum(), b.getVM().getSlotNum());
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        Solution sol = schedule(wf);
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ScheduleFile.writeJsonLines(sol, json);
+        assertTrue(json.toString("UTF-8").startsWith("{\"schedule\":" + ScheduleFile.VERSION));
+        assertRoundTrip(sol, wf, json.toByteArray());
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        ScheduleFile.writeBinary(sol, binary);
+        assertTrue(binary.size() < json.size());
+        assertRoundTrip(sol, wf, binary.toByteArray());
+    }
+
+    @Test
+    public void testStreaming() throws IOException {
+        Workflow wf = new Workflow("dax/CyberShake_30.xml");
+        Solution sol = schedule(wf);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScheduleFile.writeBinary(sol, out);
+
+        Map<Integer, String> names = new HashMap<Integer, String>();
+        for (Task t : wf)
+            names.put(t.getId(), t.getName());
+        Set<Integer> ids = new HashSet<Integer>();
+        try (ScheduleFile.Reader reader = new ScheduleFile.Reader(new ByteArrayInputStream(out.toByteArray()))) {
+            while (reader.next()) {
+                assertEquals(names.get(reader.getTaskId()), reader.getTaskName());
+                assertTrue(reader.getSlot() < reader.getSlotNum());
+                assertTrue(reader.getStartTime() <= reader.getFinishTime());
+                ids.add(reader.getTaskId());
+            }
+        }
+        assertEquals(wf.size(), ids.size());
+    }
+
+    @Test
+    public void testVMWithoutAllocations() throws IOException {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        Solution sol = schedule(wf);
+        VM idle = new VM(5);
+        sol.put(idle, new LinkedList<Allocation>());
+        for (boolean isJson : new boolean[]{true, false}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (isJson)
+                ScheduleFile.writeJsonLines(sol, out);
+            else
+                ScheduleFile.writeBinary(sol, out);
+            try (ScheduleFile.Reader reader = new ScheduleFile.Reader(new ByteArrayInputStream(out.toByteArray()))) {
+                Solution read = reader.toSolution(wf);
+                assertEquals(sol.size(), read.size());
+                VM last = new ArrayList<VM>(read.keySet()).get(read.size() - 1);
+                assertEquals(idle.getId(), last.getId());
+                assertEquals(idle.getType(), last.getType());
+                assertTrue(read.get(last).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicateVMIds() throws IOException {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        String text = "{\"schedule\":1,\"vms\":2,\"tasks\":2,\"cost\":0.0,\"makespan\":0.0}\n"
+                + "{\"vm\":7,\"type\":0,\"slots\":1}\n"
+                + "{\"task\":0,\"name\":\"entry\",\"start\":0.0,\"finish\":0.0}\n"
+                + "{\"vm\":7,\"type\":1,\"slots\":1}\n"
+                + "{\"task\":1,\"name\":\"x\",\"start\":0.0,\"finish\":1.0}\n";
+        try (ScheduleFile.Reader reader = new ScheduleFile.Reader(new ByteArrayInputStream(text.getBytes("UTF-8")))) {
+            reader.toSolution(wf);
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("Duplicate VM id 7"));
+        }
+
+        Solution sol = schedule(wf);
+        sol.keySet().iterator().next().setId(new ArrayList<VM>(sol.keySet()).get(1).getId());
+        try {
+            ScheduleFile.writeBinary(sol, new ByteArrayOutputStream());
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("Duplicate VM id"));
+        }
+    }
+
+    @Test
+    public void testByteOrderMarkAndSpaces() throws IOException {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        Solution sol = schedule(wf);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, ' ', '\n', '\t'});
+        ScheduleFile.writeJsonLines(sol, out);
+        assertRoundTrip(sol, wf, out.toByteArray());
+
+        try (ScheduleFile.Reader reader = new ScheduleFile.Reader(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}))) {
+            fail();
+        } catch (RuntimeException e) {
+            assertEquals("Not a schedule file", e.getMessage());
+        }
+    }
+
+    private static ScheduleFile.Reader reader(String text) throws IOException {
+        return new ScheduleFile.Reader(new ByteArrayInputStream(text.getBytes("UTF-8")));
+    }
+
+    @Test
+    public void testJsonSyntax() throws IOException {
+        String header = "{\"schedule\":1,\"vms\":1,\"tasks\":1,\"cost\":0.0,\"makespan\":1.0}\n";
+        String vm = "{ \"vm\" : 3, \"type\":2, \"extra\":{\"a\":[1,\"}\"]}, \"slots\":1 }\n";
+        try (ScheduleFile.Reader reader = reader(header + vm
+                + "{\"task\":0,\"name\":\"a,}\\\"b\\u0041\\n\",\"start\":0.0,\"finish\":1.0}\n")) {
+            assertTrue(reader.next());
+            assertEquals(3, reader.getVMId());
+            assertEquals("a,}\"bA\n", reader.getTaskName());
+            assertEquals(1.0, reader.getFinishTime(), 0);
+            assertFalse(reader.next());
+        }
+
+        for (String bad : new String[]{"{\"task\":0,\"name\":\"\\u12\",\"start\":0.0,\"finish\":1.0}\n",
+                "{\"task\":0,\"name\":\"x\",\"start\":0.0,,\"finish\":1.0}\n", "[1]\n"}) {
+            try (ScheduleFile.Reader reader = reader(header + vm + bad)) {
+                reader.next();
+                fail(bad);
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid schedule record"));
+            }
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testTruncated() throws IOException {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScheduleFile.writeJsonLines(schedule(wf), out);
+        byte[] bytes = Arrays.copyOf(out.toByteArray(), out.size() / 2);
+        try (ScheduleFile.Reader reader = new ScheduleFile.Reader(new ByteArrayInputStream(bytes))) {
+            reader.toSolution(wf);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import cloud.workflowScheduling.setting.ScheduleValidator.Kind;
+import cloud.workflowScheduling.setting.ScheduleValidator.Report;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ScheduleValidator
+ */
+public class ScheduleValidatorTest {
+
+    @Test
+    public void testViolations() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        VM[] pool = {new VM(0), new VM(1), new VM(2)};
+        Solution sol = Fixtures.schedule(wf, pool);
+        ScheduleValidator validator = new ScheduleValidator(wf.getGraph());
+        assertTrue(validator.validate(sol).isValid());
+        assertEquals(Arrays.asList(1), sol.validateId(wf));
+
+        Task task = wf.get(20);     // starts too early, i.e., before its parents finish, and overlaps the tasks before it
+        Allocation alloc = sol.getRevMapping().get(task);
+        alloc.setStartTime(alloc.getStartTime() - 100000);
+        sol.markDirty();
+        Report report = validator.validate(sol);
+        assertFalse(report.isValid());
+        assertEquals(wf.get(20).getInEdges().size(), report.count(Kind.PRECEDENCE));
+        assertTrue(report.count(Kind.OVERLAP) > 0);
+        for (ScheduleValidator.Violation v : report.getViolations()) {
+            assertTrue(v.getTask() == task || v.getOther() == task);
+            assertTrue(v.getAmount() > 0);
+        }
+        List<Integer> ids = sol.validateId(wf);
+        assertEquals(0, ids.get(0).intValue());
+        assertEquals(task.getId(), ids.get(2).intValue());      // parent, then child
+        assertFalse(sol.validate(wf));
+
+        Solution missing = Solution.deepcopy(Fixtures.schedule(wf, pool));
+        missing.removeTask(wf.get(wf.size() - 1));
+        missing.get(pool[0]).add(new Allocation(pool[0], wf.get(0), 1e9, 1e9));      // twice
+        report = validator.validate(missing);
+        assertEquals(1, report.count(Kind.MISSING));
+        assertEquals(1, report.count(Kind.DUPLICATE));
+        assertEquals(2, report.getViolations().size());
+    }
+
+    @Test
+    public void testSampledAndArraySolution() {
+        Workflow wf = new Workflow("dax/CyberShake_100.xml");
+        VM[] pool = Fixtures.pool(5);
+        ArraySolution arr = new ArraySolution(wf.getGraph(), pool);
+        for (int i = 0; i < wf.size(); i++)
+            arr.addTask(i, i % pool.length, arr.calcEST(i, i % pool.length));
+        ScheduleValidator validator = new ScheduleValidator(wf.getGraph());
+        Report report = validator.validate(arr);
+        assertTrue(report.isValid());
+        assertFalse(report.isSampled());
+        assertEquals(wf.getGraph().edgeCount(), report.getCheckedEdgeNum());
+        assertEquals(pool.length, report.getCheckedVMNum());
+
+        validator.setSampling(0.3, 1);
+        report = validator.validate(arr.toSolution());
+        assertTrue(report.isValid());
+        assertTrue(report.isSampled());
+        assertTrue(report.getCheckedEdgeNum() < wf.getGraph().edgeCount());
+        assertTrue(report.getCheckedEdgeNum() > 0);
+    }
+}
@@ -0,0 +1,281 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the aggregates kept by Solution
+ */
+public class SolutionTest {
+
+    // aggregates computed from scratch, by a copy which has not computed any
+    private static void assertFresh(Solution sol) {
+        Solution fresh = Solution.deepcopy(sol);
+        assertEquals(fresh.calcCost(), sol.calcCost(), 0);
+        assertEquals(fresh.calcMakespan(), sol.calcMakespan(), 0);
+        for (VM vm : sol.keySet()) {
+            assertEquals(fresh.getVMLeaseStartTime(vm), sol.getVMLeaseStartTime(vm), 0);
+            assertEquals(fresh.getVMLeaseEndTime(vm), sol.getVMLeaseEndTime(vm), 0);
+        }
+    }
+
+    @Test
+    public void testAggregatesFollowChanges() {
+        Workflow wf = new Workflow("dax/CyberShake_50.xml");
+        VM[] pool = Fixtures.pool(6);
+        Random rnd = new Random(3);
+        Solution sol = new Solution(0);
+        for (Task task : wf) {
+            VM vm = pool[rnd.nextInt(pool.length)];
+            sol.addTaskToVM(vm, task, sol.calcEST(task, vm), true);
+            assertFresh(sol);       // queried after every task, so that stale values would be seen
+        }
+        sol.updateVM(pool[0]);
+        assertFresh(sol);
+        VM upgraded = sol.updateVMForPCPandPSO2_1(pool[1]);
+        assertTrue(sol.containsKey(upgraded));
+        assertFresh(sol);
+    }
+
+    @Test
+    public void testMarkDirty() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        VM vm = new VM(0);
+        Solution sol = new Solution(0);
+        for (Task task : wf)
+            sol.addTaskToVM(vm, task, sol.calcEST(task, vm), true);
+        double makespan = sol.calcMakespan();
+
+        Allocation last = sol.get(vm).getLast();
+        last.setFinishTime(last.getFinishTime() + 5000);    // a direct change is not seen until markDirty
+        assertEquals(makespan, sol.calcMakespan(), 0);
+        sol.markDirty(vm);
+        assertEquals(makespan + 5000, sol.calcMakespan(), 0);
+        assertFresh(sol);
+
+        Solution copy = (Solution) sol.clone();
+        copy.remove(vm);
+        assertEquals(-1, copy.calcMakespan(), 0);
+        assertEquals(0, copy.calcCost(), 0);
+        assertEquals(makespan + 5000, sol.calcMakespan(), 0);
+    }
+
+    @Test
+    public void testRemoveTask() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        VM[] pool = Fixtures.pool(4);
+        Random rnd = new Random(4);
+        int[] vms = new int[wf.size()];
+        for (int i = 0; i < wf.size(); i++)
+            vms[i] = rnd.nextInt(pool.length);
+        Solution sol = new Solution(0);
+        for (int i = 0; i < wf.size(); i++)
+            sol.addTaskToVM(pool[vms[i]], wf.get(i), sol.calcEST(wf.get(i), pool[vms[i]]), true);
+        sol.calcCost();
+
+        int first = wf.size() / 2;      // decoded again from first, on other VMs
+        for (int i = wf.size() - 1; i >= first; i--)
+            sol.removeTask(wf.get(i));
+        assertFresh(sol);
+        for (int i = first; i < wf.size(); i++) {
+            vms[i] = rnd.nextInt(pool.length);
+            sol.addTaskToVM(pool[vms[i]], wf.get(i), sol.calcEST(wf.get(i), pool[vms[i]]), true);
+        }
+        Solution full = new Solution(0);
+        for (int i = 0; i < wf.size(); i++)
+            full.addTaskToVM(pool[vms[i]], wf.get(i), full.calcEST(wf.get(i), pool[vms[i]]), true);
+        assertEquals(new ArrayList<VM>(full.keySet()), new ArrayList<VM>(sol.keySet()));
+        assertEquals(full.calcCost(), sol.calcCost(), 0);
+        assertEquals(full.calcMakespan(), sol.calcMakespan(), 0);
+        assertFresh(sol);
+        assertTrue(sol.validate(wf));
+    }
+
+    private static String describe(Solution sol) {
+        StringBuilder sb = new StringBuilder();
+        for (VM vm : sol.keySet())
+            for (Allocation alloc : sol.get(vm))
+                sb.append(vm.getType()).append(' ').append(alloc.getTask().getId()).append(' ')
+                        .append(alloc.getStartTime()).append(' ').append(alloc.getFinishTime()).append('\n');
+        return sb.toString();
+    }
+
+    @Test
+    public void testFork() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        VM[] pool = new VM[4];
+        for (int i = 0; i < pool.length; i++)
+            pool[i] = new VM(i % 2);
+        Solution base = new Solution(0);
+        for (int i = 0; i < wf.size() - 5; i++)
+            base.addTaskToVM(pool[i % 3], wf.get(i), base.calcEST(wf.get(i), pool[i % 3]), true);
+        double cost = base.calcCost();
+        String before = describe(base);
+
+        Solution fork1 = base.fork(), fork2 = base.fork();
+        assertEquals(cost, fork1.calcCost(), 0);
+        for (int i = wf.size() - 5; i < wf.size(); i++)       // fork1 adds the other tasks to VM 3, and then moves one
+            fork1.addTaskToVM(pool[3], wf.get(i), fork1.calcEST(wf.get(i), pool[3]), true);
+        fork1.removeTask(wf.get(wf.size() - 1));
+        fork1.addTaskToVM(pool[0], wf.get(wf.size() - 1), fork1.calcEST(wf.get(wf.size() - 1), pool[0]), true);
+        VM upgraded = fork2.updateVMForPCPandPSO2_1(pool[1]);    // fork2 moves the tasks of VM 1 to a faster VM
+
+        assertEquals(before, describe(base));
+        assertEquals(cost, base.calcCost(), 0);
+        assertFresh(base);
+        assertFresh(fork1);
+        assertFresh(fork2);
+        assertTrue(fork1.validate(wf));
+        assertSame(base.get(pool[1]), fork1.get(pool[1]));      // not changed by fork1, still shared
+        assertNotSame(base.get(pool[0]), fork1.get(pool[0]));
+        assertSame(fork1.get(pool[0]).getLast(), fork1.getRevMapping().get(wf.get(wf.size() - 1)));
+        assertFalse(fork2.containsKey(pool[1]));
+        assertTrue(fork2.containsKey(upgraded));
+        assertSame(fork2.get(upgraded).getFirst(), fork2.getRevMapping().get(fork2.get(upgraded).getFirst().getTask()));
+        assertNotSame(base.get(pool[1]).getFirst(), fork2.get(upgraded).getFirst());
+
+        base.removeTask(wf.get(0));      // the base copies on change too
+        assertTrue(fork1.getRevMapping().containsKey(wf.get(0)));
+        assertEquals(1, fork1.get(pool[0]).stream().filter(a -> a.getTask() == wf.get(0)).count());
+    }
+
+    @Test
+    public void testForkUpdateVM() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        VM[] pool = {new VM(0), new VM(0), new VM(1)};
+        Solution base = new Solution(0);
+        for (int i = 0; i < wf.size(); i++)
+            base.addTaskToVM(pool[i % 3], wf.get(i), base.calcEST(wf.get(i), pool[i % 3]), true);
+        double cost = base.calcCost();
+        String before = describe(base);
+
+        Solution fork = base.fork();
+        fork.own(pool[0]);      // a copied list still refers to the shared VM
+        VM upgraded = fork.updateVM(pool[0]);
+        VM upgraded2 = fork.updateVM(pool[1]);
+        assertNotSame(pool[0], upgraded);
+        assertEquals(pool[0].getId(), upgraded.getId());
+        assertEquals(1, upgraded.getType());
+        assertEquals(0, pool[0].getType());
+        assertEquals(Arrays.asList(upgraded, upgraded2, pool[2]), new ArrayList<VM>(fork.keySet()));
+        for (Allocation alloc : fork.get(upgraded)) {
+            assertSame(upgraded, alloc.getVM());
+            assertEquals(alloc.getTask().getTaskSize() / upgraded.getSpeed(),
+                    alloc.getFinishTime() - alloc.getStartTime(), 1e-9);
+        }
+        assertSame(upgraded, fork.getRevMapping().get(fork.get(upgraded).getFirst().getTask()).getVM());
+        assertFresh(fork);
+        assertSame(upgraded, fork.updateVM(upgraded));      // no longer used by base: upgraded in place
+        assertEquals(2, upgraded.getType());
+
+        assertEquals(before, describe(base));
+        assertEquals(cost, base.calcCost(), 0);
+        for (Allocation alloc : base.get(pool[0]))
+            assertEquals(alloc.getTask().getTaskSize() / pool[0].getSpeed(),
+                    alloc.getFinishTime() - alloc.getStartTime(), 1e-9);
+        assertTrue(base.validate(wf));
+        assertFresh(base);
+
+        String forked = describe(fork);     // and the other way round
+        VM baseUpgraded = base.updateVM(pool[2]);
+        assertNotSame(pool[2], baseUpgraded);
+        assertEquals(1, pool[2].getType());
+        assertEquals(forked, describe(fork));
+    }
+
+    @Test
+    public void testManyForks() {
+        Workflow wf = new Workflow("dax/Montage_1000.xml");
+        VM[] pool = Fixtures.pool(8);
+        Solution base = Fixtures.schedule(wf, pool);
+        String before = describe(base);
+        Map<Task, Allocation> baseMapping = new HashMap<Task, Allocation>(base.getRevMapping());
+        Task last = wf.get(wf.size() - 1);
+        VM lastVm = base.getRevMapping().get(last).getVM();
+        for (int i = 0; i < 100; i++) {       // each fork moves the exit task to another VM
+            Solution fork = base.fork();
+            fork.removeTask(last);
+            VM vm = pool[i % pool.length];
+            fork.addTaskToVM(vm, last, fork.calcEST(last, vm), true);
+            assertTrue(fork.getRevMapping() instanceof LayeredMap);     // the changes only, over the map of base
+            assertEquals(wf.size(), fork.getRevMapping().size());
+            assertSame(vm, fork.getRevMapping().get(last).getVM());
+            assertTrue(fork.validate(wf));
+            for (VM other : pool)
+                if (other != vm && other != lastVm)
+                    assertSame(base.get(other), fork.get(other));
+        }
+        assertEquals(before, describe(base));
+        assertEquals(baseMapping, base.getRevMapping());
+        assertFresh(base);
+
+        Solution fork = base.fork();        // a fork changing every task has a plain map again
+        for (Task t : wf)
+            fork.own(fork.getRevMapping().get(t).getVM());
+        assertTrue(fork.getRevMapping() instanceof HashMap);
+        assertEquals(baseMapping.keySet(), fork.getRevMapping().keySet());
+    }
+
+    @Test
+    public void testConflict() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        VM vm = new VM(0);
+        Solution sol = new Solution(0);
+        sol.addTaskToVM(vm, wf.get(1), 100, true);
+        sol.addTaskToVM(vm, wf.get(2), 0, false);      // ends before task 1 starts
+        try {
+            sol.addTaskToVM(vm, wf.get(3), sol.get(vm).getLast().getStartTime() + 1, true);
+            fail();
+        } catch (RuntimeException e) {
+        }
+    }
+
+    @Test
+    public void testMultiSlotVM() {
+        Workflow wf = new Workflow("dax/CyberShake_30.xml");
+        VM quad = new VM(0, 4), single = new VM(0);
+        Solution sol = new Solution(0), serial = new Solution(0);
+        for (Task task : wf) {
+            sol.addTaskToVM(quad, task, sol.calcEST(task, quad), true);
+            serial.addTaskToVM(single, task, serial.calcEST(task, single), true);
+            assertFresh(sol);
+        }
+        assertTrue(sol.validate(wf));
+        assertTrue(sol.calcMakespan() < serial.calcMakespan());     // independent tasks run at the same time
+        double previous = -1;
+        for (Allocation alloc : sol.get(quad)) {        // in time order, on all the slots
+            assertTrue(alloc.getStartTime() >= previous);
+            previous = alloc.getStartTime();
+            assertTrue(alloc.getSlot() >= 0 && alloc.getSlot() < 4);
+        }
+        double lease = sol.getVMLeaseEndTime(quad) - sol.getVMLeaseStartTime(quad);
+        assertEquals(VM.UNIT_COSTS[0] * 4 * Math.ceil(lease / VM.INTERVAL), sol.calcCost(), 1e-9);
+        assertEquals(4, Solution.deepcopy(sol, new HashMap<VM, VM>()).keySet().iterator().next().getSlotNum());
+
+        // two slots: a third task at the same time conflicts, until one of the others is removed
+        VM dual = new VM(1, 2);
+        Solution two = new Solution(0);
+        Task a = wf.get(5), b = wf.get(6), c = wf.get(7);
+        two.addTaskToVM(dual, a, 100, true);
+        two.addTaskToVM(dual, b, 100, true);
+        assertNotEquals(two.getRevMapping().get(a).getSlot(), two.getRevMapping().get(b).getSlot());
+        assertEquals(Math.min(two.getRevMapping().get(a).getFinishTime(), two.getRevMapping().get(b).getFinishTime()),
+                two.getVMAvailableTime(dual), 0);
+        try {
+            two.addTaskToVM(dual, c, 100, true);
+            fail();
+        } catch (RuntimeException e) {
+        }
+        two.removeTask(a);
+        two.addTaskToVM(dual, c, 100, true);
+        assertEquals(two.getRevMapping().get(c).getSlot(), 1 - two.getRevMapping().get(b).getSlot());
+
+        Allocation alloc = two.getRevMapping().get(c);       // moved onto the slot of b, which it overlaps
+        alloc.setSlot(two.getRevMapping().get(b).getSlot());
+        two.markDirty(dual);
+        assertEquals(1, new ScheduleValidator(wf.getGraph()).validate(two).count(ScheduleValidator.Kind.OVERLAP));
+    }
+}
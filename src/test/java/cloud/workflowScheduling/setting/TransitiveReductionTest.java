@@ -0,0 +1,65 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import cloud.workflowScheduling.methods.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for TransitiveReduction
+ */
+public class TransitiveReductionTest {
+
+    private static Set<Integer> reachable(Task from) {
+        Set<Integer> reached = new HashSet<>();
+        Deque<Task> stack = new ArrayDeque<>(Collections.singleton(from));
+        while (!stack.isEmpty())
+            for (Edge e : stack.pop().getOutEdges())
+                if (reached.add(e.getDestination().getId()))
+                    stack.push(e.getDestination());
+        return reached;
+    }
+
+    @Test
+    public void testSameLevelsAndReachability() {
+        Workflow full = new Workflow("dax/Montage_50.xml"), reduced = new Workflow("dax/Montage_50.xml", true);
+        int removed = full.getGraph().edgeCount() - reduced.getGraph().edgeCount();
+        assertTrue(removed > 0);
+        assertEquals(removed, reduced.getRemovedEdgeNum());
+        long fullData = 0, reducedData = 0;
+        for (int i = 0; i < full.size(); i++) {
+            Task t1 = full.get(i), t2 = reduced.get(i);
+            assertEquals(t1.getId(), t2.getId());
+            assertEquals(t1.getbLevel(), t2.getbLevel(), 0);
+            assertEquals(t1.gettLevel(), t2.gettLevel(), 0);
+            assertEquals(t1.getALAP(), t2.getALAP(), 0);
+            assertEquals(reachable(t1), reachable(t2));
+            for (Edge e : t1.getOutEdges())
+                fullData += e.getDataSize();
+            for (Edge e : t2.getOutEdges())
+                reducedData += e.getDataSize();
+            assertFalse(t2.getInEdges().isEmpty() && i > 0);
+            assertFalse(t2.getOutEdges().isEmpty() && i < full.size() - 1);
+        }
+        assertEquals(fullData, reducedData);        // data flows are kept
+    }
+
+    @Test
+    public void testSameSchedules() {
+        Workflow full = new Workflow("dax/Epigenomics_100.xml"), reduced = new Workflow("dax/Epigenomics_100.xml", true);
+        double deadline = new Benchmarks(full).getFastSchedule().calcMakespan() * 1.5;
+        full.setDeadline(deadline);
+        reduced.setDeadline(deadline);
+        Solution s1 = new ICPCP().schedule(full), s2 = new ICPCP().schedule(reduced);
+        assertEquals(s1.calcCost(), s2.calcCost(), 0);
+        assertEquals(s1.calcMakespan(), s2.calcMakespan(), 0);
+        s1 = new ProLiS(Double.MAX_VALUE).schedule(full);
+        s2 = new ProLiS(Double.MAX_VALUE).schedule(reduced);
+        assertEquals(s1.calcCost(), s2.calcCost(), 0);
+        assertEquals(s1.calcMakespan(), s2.calcMakespan(), 0);
+        assertTrue(s2.validate(reduced));
+    }
+}
@@ -0,0 +1,52 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for VMTimeline
+ */
+public class VMTimelineTest {
+
+    private static Allocation alloc(double start, double finish) {
+        return new Allocation(null, null, start, finish);
+    }
+
+    @Test
+    public void testConflicts() {
+        VMTimeline timeline = new VMTimeline();
+        timeline.add(alloc(10, 20));
+        timeline.add(alloc(30, 40));
+        timeline.add(alloc(0, 5));          // inserted before the others
+        timeline.add(alloc(25, 25));        // zero length, not kept
+        assertEquals(3, timeline.size());
+        assertEquals(0, timeline.get(0).getStartTime(), 0);
+
+        assertFalse(timeline.conflicts(5, 10));     // fills a gap exactly
+        assertFalse(timeline.conflicts(20, 30));
+        assertFalse(timeline.conflicts(45, 50));
+        assertFalse(timeline.conflicts(15, 15));    // zero length never conflicts
+        assertTrue(timeline.conflicts(19, 21));
+        assertTrue(timeline.conflicts(21, 31));
+        assertTrue(timeline.conflicts(5, 45));
+        assertTrue(timeline.conflicts(12, 18));
+        assertTrue(timeline.conflicts(10, 20));
+
+        assertEquals(10, timeline.getBefore(15).getStartTime(), 0);
+        assertEquals(30, timeline.getAfter(15).getStartTime(), 0);
+        assertNull(timeline.getAfter(30));
+    }
+
+    @Test
+    public void testUnsortedList() {
+        List<Allocation> list = Arrays.asList(alloc(30, 40), alloc(0, 10), alloc(15, 20));
+        VMTimeline timeline = new VMTimeline(list);
+        for (int i = 1; i < timeline.size(); i++)
+            assertTrue(timeline.get(i - 1).getStartTime() < timeline.get(i).getStartTime());
+        assertFalse(timeline.conflicts(10, 15));
+        assertTrue(timeline.conflicts(10, 16));
+    }
+}
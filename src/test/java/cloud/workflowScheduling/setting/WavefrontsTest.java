@@ -0,0 +1,64 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for Wavefronts
+ */
+public class WavefrontsTest {
+
+    @Test
+    public void testWavesRespectEdges() {
+        WorkflowGraph g = new Workflow("dax/Epigenomics_100.xml").getGraph();
+        Wavefronts waves = new Wavefronts(g, ForkJoinPool.commonPool());
+        assertEquals(1, waves.getWaveSize(0));      // entry
+        int total = 0;
+        for (int w = 0; w < waves.waveCount(); w++)
+            total += waves.getWaveSize(w);
+        assertEquals(g.size(), total);
+
+        AtomicIntegerArray step = new AtomicIntegerArray(g.size());
+        int[] counter = {0};
+        waves.forward(j -> step.set(j, ++counter[0]));      // sequential, as the waves are small
+        for (int i = 0; i < g.size(); i++)
+            for (int k = g.getChildOffsets()[i]; k < g.getChildOffsets()[i + 1]; k++)
+                assertTrue(step.get(i) < step.get(g.getChildren()[k]));
+    }
+
+    @Test
+    public void testParallelLevelsAreIdentical() {
+        Workflow sequential = new Workflow("dax/CyberShake_1000.xml");
+        ScheduleContext c1 = new ScheduleContext(sequential);
+        sequential.calcPURank(Double.MAX_VALUE, c1);
+        int threshold = Wavefronts.parallelThreshold;
+        Wavefronts.parallelThreshold = 0;
+        try {
+            Workflow parallel = new Workflow("dax/CyberShake_1000.xml");
+            for (int i = 0; i < sequential.size(); i++) {
+                Task t1 = sequential.get(i), t2 = parallel.get(i);
+                assertEquals(t1.getId(), t2.getId());
+                assertEquals(t1.getbLevel(), t2.getbLevel(), 0);
+                assertEquals(t1.getsLevel(), t2.getsLevel(), 0);
+                assertEquals(t1.getALAP(), t2.getALAP(), 0);
+                assertEquals(t1.gettLevel(), t2.gettLevel(), 0);
+            }
+            ScheduleContext c2 = new ScheduleContext(parallel);
+            parallel.calcPURank(Double.MAX_VALUE, c2);
+            assertArrayEquals(c1.getpURanks(), c2.getpURanks(), 0);
+
+            parallel.calcPURank(1.5, c2);       // sampled: between sLevel and bLevel
+            WorkflowGraph g = parallel.getGraph();
+            for (int i = 0; i < g.size(); i++) {
+                assertTrue(c2.getpURanks()[i] >= g.getTask(i).getsLevel() - 1e-9);
+                assertTrue(c2.getpURanks()[i] <= g.getTask(i).getbLevel() + 1e-9);
+            }
+        } finally {
+            Wavefronts.parallelThreshold = threshold;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for WorkflowFile
+ */
+public class WorkflowFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameWorkflow(Workflow w1, Workflow w2) {
+        assertEquals(w1.size(), w2.size());
+        assertEquals(w1.getMaxParallel(), w2.getMaxParallel());
+        for (int i = 0; i < w1.size(); i++) {
+            Task t1 = w1.get(i), t2 = w2.get(i);
+            assertEquals(t1.getId(), t2.getId());
+            assertEquals(t1.getName(), t2.getName());
+            assertEquals(t1.getTaskSize(), t2.getTaskSize(), 0);
+            assertEquals(t1.getbLevel(), t2.getbLevel(), 0);
+            assertEquals(t1.gettLevel(), t2.gettLevel(), 0);
+            assertEquals(t1.getsLevel(), t2.getsLevel(), 0);
+            assertEquals(t1.getALAP(), t2.getALAP(), 0);
+            assertEquals(t1.getOutEdges().size(), t2.getOutEdges().size());
+            for (int k = 0; k < t1.getOutEdges().size(); k++) {
+                Edge e1 = t1.getOutEdges().get(k), e2 = t2.getOutEdges().get(k);
+                assertEquals(e1.getDestination().getId(), e2.getDestination().getId());
+                assertEquals(e1.getDataSize(), e2.getDataSize());
+            }
+            assertEquals(t1.getInEdges().size(), t2.getInEdges().size());
+            for (int k = 0; k < t1.getInEdges().size(); k++) {
+                Edge e2 = t2.getInEdges().get(k);
+                assertEquals(t1.getInEdges().get(k).getSource().getId(), e2.getSource().getId());
+                assertTrue(e2.getSource().getOutEdges().contains(e2));     // edges are shared by both lists
+            }
+            assertSame(t2, w2.idTaskMapping.get(t2.getId()));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        String file = folder.newFile("Montage_50.wfb").getPath();
+        WorkflowFile.write(wf, file);
+        WorkflowFile mapped = WorkflowFile.open(file);
+        assertEquals(wf.size(), mapped.size());
+        assertEquals(wf.getGraph().edgeCount(), mapped.edgeCount());
+        assertSameWorkflow(wf, mapped.toWorkflow());
+    }
+
+    @Test
+    public void testLoadWritesAndReusesBinaryFile() throws IOException {
+        File dax = folder.newFile("Inspiral_30.xml");
+        Files.copy(Paths.get("dax/Inspiral_30.xml"), dax.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Workflow parsed = WorkflowFile.load(dax.getPath());
+        File bin = new File(dax.getPath() + WorkflowFile.SUFFIX);
+        assertTrue(bin.exists());
+        assertSameWorkflow(parsed, WorkflowFile.load(dax.getPath()));
+    }
+
+    @Test
+    public void testReducedKeepsRemovedEdgeNum() throws IOException {
+        File dax = folder.newFile("Montage_50.xml");
+        Files.copy(Paths.get("dax/Montage_50.xml"), dax.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Workflow parsed = WorkflowFile.load(dax.getPath(), true);
+        assertTrue(parsed.getRemovedEdgeNum() > 0);
+        assertTrue(new File(dax.getPath() + WorkflowFile.REDUCED_SUFFIX).exists());
+        Workflow mapped = WorkflowFile.load(dax.getPath(), true);
+        assertSameWorkflow(parsed, mapped);
+        assertEquals(parsed.getRemovedEdgeNum(), mapped.getRemovedEdgeNum());
+        assertEquals(0, WorkflowFile.load(dax.getPath()).getRemovedEdgeNum());
+    }
+
+    @Test
+    public void testGraphInPlace() throws IOException {
+        Workflow wf = new Workflow("dax/CyberShake_50.xml");
+        String file = folder.newFile("CyberShake_50.wfb").getPath();
+        WorkflowFile.write(wf, file);
+        WorkflowGraph g = wf.getGraph(), mapped = WorkflowFile.open(file).getGraph();
+        assertFalse(mapped.hasTasks());
+        assertEquals(g.size(), mapped.size());
+        assertEquals(g.edgeCount(), mapped.edgeCount());
+        for (int i = 0; i < g.size(); i++) {
+            assertEquals(g.getId(i), mapped.getId(i));
+            assertEquals(g.getTaskSize(i), mapped.getTaskSize(i), 0);
+            assertEquals(g.getParentOffset(i), mapped.getParentOffset(i));
+            assertEquals(g.getChildOffset(i), mapped.getChildOffset(i));
+        }
+        for (int k = 0; k < g.edgeCount(); k++) {
+            assertEquals(g.getParent(k), mapped.getParent(k));
+            assertEquals(g.getParentTransferTime(k), mapped.getParentTransferTime(k), 0);
+            assertEquals(g.getChild(k), mapped.getChild(k));
+            assertEquals(g.getChildDataSize(k), mapped.getChildDataSize(k));
+            assertEquals(g.getChildTransferTime(k), mapped.getChildTransferTime(k), 0);
+        }
+        assertArrayEquals(g.getParents(), mapped.getParents());
+
+        // schedulers on graph indices run on the file without Task objects
+        VM[] pool = {new VM(0), new VM(1), new VM(2)};
+        double[] positions = new double[g.size()];
+        for (int j = 0; j < positions.length; j++)
+            positions[j] = j % pool.length;
+        double[] costs = new double[1], makespans = new double[1], mappedCosts = new double[1];
+        new BatchEvaluator(g, pool, false, 1000).evaluate(positions, 1, costs, makespans, new boolean[1]);
+        BatchEvaluator evaluator = new BatchEvaluator(mapped, pool, false, 1000);
+        evaluator.evaluate(positions, 1, mappedCosts, new double[1], new boolean[1]);
+        assertEquals(costs[0], mappedCosts[0], 0);
+        ArraySolution sol = new ArraySolution(mapped, pool);
+        evaluator.decode(positions, 0, sol);
+        assertEquals(costs[0], sol.calcCost(), 0);
+        assertEquals(makespans[0], sol.calcMakespan(), 0);
+        ScheduleValidator validator = new ScheduleValidator(mapped);
+        assertTrue(validator.validate(sol).isValid());
+        sol.removeTasks(g.size() - 1);
+        ScheduleValidator.Violation missing = validator.validate(sol).getViolations().get(0);
+        assertEquals(ScheduleValidator.Kind.MISSING, missing.getKind());
+        assertEquals(g.getId(g.size() - 1), missing.getTaskId());
+        assertNull(missing.getTask());
+
+        Workflow loaded = WorkflowFile.open(file).toWorkflow();     // its graph reads the file too, with Tasks
+        assertSame(loaded.get(3), loaded.getGraph().getTask(3));
+        assertEquals(3, loaded.getGraph().indexOf(loaded.get(3)));
+    }
+
+    @Test
+    public void testCorruptFileIsIgnored() throws IOException {
+        File dax = folder.newFile("Montage_30.xml");
+        Files.copy(Paths.get("dax/Montage_30.xml"), dax.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Workflow parsed = WorkflowFile.load(dax.getPath());
+        Path bin = Paths.get(dax.getPath() + WorkflowFile.SUFFIX);
+        byte[] bytes = Files.readAllBytes(bin);
+        bytes[88] = 100;        // the id of the first task, after the header of 88 bytes, out of 0 ... n-1
+        Files.write(bin, bytes);
+        try {
+            WorkflowFile.open(bin.toString());
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("Corrupt"));
+        }
+        assertSameWorkflow(parsed, WorkflowFile.load(dax.getPath()));      // parsed again, and the file rewritten
+        assertSameWorkflow(parsed, WorkflowFile.open(bin.toString()).toWorkflow());
+    }
+
+    @Test
+    public void testOtherVMSettingsAreIgnored() throws IOException {
+        File dax = folder.newFile("Montage_30.xml");
+        Files.copy(Paths.get("dax/Montage_30.xml"), dax.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Workflow parsed = WorkflowFile.load(dax.getPath());
+        Path bin = Paths.get(dax.getPath() + WorkflowFile.SUFFIX);
+        byte[] bytes = Files.readAllBytes(bin);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putDouble(24, VM.SPEEDS[VM.FASTEST] / 2);
+        Files.write(bin, bytes);
+        try {
+            WorkflowFile.open(bin.toString());
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().startsWith("Binary workflow file of other VM settings"));
+        }
+        assertSameWorkflow(parsed, WorkflowFile.load(dax.getPath()));      // levels of the current settings
+        assertSameWorkflow(parsed, WorkflowFile.open(bin.toString()).toWorkflow());
+    }
+
+    @Test
+    public void testChecksTheContentOfTheDax() throws IOException {
+        File dax = folder.newFile("Montage_30.xml");
+        Files.copy(Paths.get("dax/Montage_30.xml"), dax.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        WorkflowFile.load(dax.getPath());
+        File bin = new File(dax.getPath() + WorkflowFile.SUFFIX);
+        assertTrue(WorkflowFile.open(bin.getPath()).isOf(dax));
+
+        assertTrue(dax.setLastModified(bin.lastModified() + 10000));      // touched: the same content
+        assertTrue(WorkflowFile.open(bin.getPath()).isOf(dax));
+
+        Files.copy(Paths.get("dax/Montage_50.xml"), dax.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(dax.setLastModified(bin.lastModified() - 10000));      // replaced by an older file
+        assertFalse(WorkflowFile.open(bin.getPath()).isOf(dax));
+        assertEquals(new Workflow("dax/Montage_50.xml").size(), WorkflowFile.load(dax.getPath()).size());
+        assertTrue(WorkflowFile.open(bin.getPath()).isOf(dax));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        WorkflowFile.open("dax/Sipht_30.xml");
+    }
+}
@@ -0,0 +1,66 @@
+package cloud.workflowScheduling.setting;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for WorkflowGraph
+ */
+public class WorkflowGraphTest {
+
+    private static Workflow wf;
+
+    @BeforeClass
+    public static void setUp() {
+        wf = new Workflow("dax/Montage_30.xml");
+    }
+
+    @Test
+    public void testMatchesTaskList() {
+        WorkflowGraph g = wf.getGraph();
+        assertEquals(wf.size(), g.size());
+        int edgeNum = 0;
+        for (int i = 0; i < g.size(); i++) {
+            Task t = wf.get(i);
+            assertSame(t, g.getTask(i));
+            assertEquals(i, g.indexOf(t));
+            assertEquals(t.getTaskSize(), g.getTaskSize(i), 0);
+            assertEquals(t.getInEdges().size(), g.getParentNum(i));
+            assertEquals(t.getOutEdges().size(), g.getChildNum(i));
+
+            int k = g.getChildOffsets()[i];
+            for (Edge e : t.getOutEdges()) {
+                assertSame(e.getDestination(), g.getTask(g.getChildren()[k]));
+                assertEquals(e.getDataSize(), g.getChildDataSizes()[k]);
+                assertEquals((double) (e.getDataSize() / VM.NETWORK_SPEED), g.getChildTransferTimes()[k], 0);
+                k++;
+            }
+            k = g.getParentOffsets()[i];
+            for (Edge e : t.getInEdges()) {
+                assertSame(e.getSource(), g.getTask(g.getParents()[k]));
+                k++;
+            }
+            edgeNum += t.getOutEdges().size();
+        }
+        assertEquals(edgeNum, g.edgeCount());
+    }
+
+    @Test
+    public void testTopologicalIndices() {
+        WorkflowGraph g = wf.getGraph();
+        assertEquals("entry", g.getTask(0).getName());
+        assertEquals("exit", g.getTask(g.size() - 1).getName());
+        for (int i = 0; i < g.size(); i++)
+            for (int k = g.getChildOffsets()[i]; k < g.getChildOffsets()[i + 1]; k++)
+                assertTrue(g.getChildren()[k] > i);
+    }
+
+    @Test
+    public void testIndexOfForeignTask() {
+        Task foreign = new Workflow("dax/Montage_50.xml").get(1);
+        Workflow current = new Workflow("dax/Montage_30.xml");
+        assertEquals(-1, current.getGraph().indexOf(foreign));
+    }
+}
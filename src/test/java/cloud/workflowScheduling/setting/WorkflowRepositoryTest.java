@@ -0,0 +1,89 @@
+package cloud.workflowScheduling.setting;
+
+import java.io.*;
+import java.nio.file.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cloud.workflowScheduling.methods.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for WorkflowRepository
+ */
+public class WorkflowRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File copy(String dax, String name) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.copy(Paths.get(dax), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    @Test
+    public void testCopiesAreIsolated() throws IOException {
+        WorkflowRepository repository = new WorkflowRepository();
+        String file = copy("dax/Montage_30.xml", "Montage_30.xml").getPath();
+        Workflow w1 = repository.get(file), w2 = repository.get(file);
+        assertEquals(1, repository.getMisses());
+        assertEquals(1, repository.getHits());
+        assertNotSame(w1, w2);
+        assertSame(w1.get(5), w2.get(5));
+        assertSame(w1.getGraph(), w2.getGraph());
+
+        w1.setDeadline(100);
+        assertEquals(Double.MAX_VALUE, w2.getDeadline(), 0);
+        w1.idTaskMapping.clear();
+        assertSame(w2.get(5), w2.idTaskMapping.get(w2.get(5).getId()));
+    }
+
+    @Test
+    public void testCopyGivesSameSchedule() throws IOException {
+        WorkflowRepository repository = new WorkflowRepository();
+        String file = copy("dax/Sipht_30.xml", "Sipht_30.xml").getPath();
+        repository.get(file);
+        Workflow parsed = new Workflow("dax/Sipht_30.xml"), copied = repository.get(file);
+        double deadline = new Benchmarks(parsed).getFastSchedule().calcMakespan() * 1.5;
+        parsed.setDeadline(deadline);
+        copied.setDeadline(deadline);
+        assertEquals(new ICPCP().schedule(parsed).toString(), new ICPCP().schedule(copied).toString());
+        assertEquals(new ProLiS(Double.MAX_VALUE).schedule(parsed).toString(),
+                new ProLiS(Double.MAX_VALUE).schedule(copied).toString());
+    }
+
+    @Test
+    public void testChangedFileIsReadAgain() throws IOException {
+        WorkflowRepository repository = new WorkflowRepository();
+        File file = copy("dax/Montage_30.xml", "w.xml");
+        assertEquals(new Workflow("dax/Montage_30.xml").size(), repository.get(file.getPath()).size());
+        copy("dax/Montage_50.xml", "w.xml");
+        file.setLastModified(file.lastModified() + 2000);
+        assertEquals(new Workflow("dax/Montage_50.xml").size(), repository.get(file.getPath()).size());
+        assertEquals(2, repository.getMisses());
+    }
+
+    @Test
+    public void testParallelPreload() throws IOException {
+        copy("dax/Montage_30.xml", "a.xml");
+        copy("dax/Montage_30.xml", "b.xml");        // same content, one template
+        copy("dax/Inspiral_30.xml", "c.xml");
+        copy("dax/Sipht_30.xml", "d.xml");
+        WorkflowRepository repository = new WorkflowRepository();
+        assertEquals(4, repository.preload(folder.getRoot().getPath(), 4));
+        assertEquals(3, repository.size());
+
+        long misses = repository.getMisses();
+        Workflow preloaded = repository.get(new File(folder.getRoot(), "c.xml").getPath());
+        assertEquals(misses, repository.getMisses());
+        Workflow parsed = new Workflow("dax/Inspiral_30.xml");
+        for (int i = 0; i < parsed.size(); i++) {       // ids are dense per workflow although read in parallel
+            assertEquals(parsed.get(i).getId(), preloaded.get(i).getId());
+            assertEquals(parsed.get(i).getName(), preloaded.get(i).getName());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cloud.workflowScheduling.setting;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import cloud.workflowScheduling.methods.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the incremental changes of Workflow
+ */
+public class WorkflowTest {
+
+    // levels recalculated from scratch over the current topological sort, the same formulas as Workflow.calcTaskLevels
+    private static void assertLevels(Workflow wf) {
+        double speed = VM.SPEEDS[VM.FASTEST];
+        int n = wf.size();
+        Map<Task, double[]> levels = new HashMap<>();      // bLevel, sLevel, ALAP, tLevel
+        for (int j = n - 1; j >= 0; j--) {
+            Task t = wf.get(j);
+            double b = 0, s = 0;
+            for (Edge e : t.getOutEdges()) {
+                b = Math.max(b, levels.get(e.getDestination())[0] + WorkflowGraph.transferTime(e.getDataSize()));
+                s = Math.max(s, levels.get(e.getDestination())[1]);
+            }
+            levels.put(t, new double[]{b + t.getTaskSize() / speed, s + t.getTaskSize() / speed, 0, 0});
+        }
+        double cp = levels.get(wf.get(0))[0];
+        for (int j = n - 1; j >= 0; j--) {
+            Task t = wf.get(j);
+            double alap = cp;
+            for (Edge e : t.getOutEdges())
+                alap = Math.min(alap, levels.get(e.getDestination())[2] - WorkflowGraph.transferTime(e.getDataSize()));
+            levels.get(t)[2] = alap - t.getTaskSize() / speed;
+        }
+        for (int j = 0; j < n; j++) {
+            Task t = wf.get(j);
+            double at = 0;
+            for (Edge e : t.getInEdges()) {
+                Task p = e.getSource();
+                at = Math.max(at, levels.get(p)[3] + p.getTaskSize() / speed + WorkflowGraph.transferTime(e.getDataSize()));
+            }
+            levels.get(t)[3] = at;
+        }
+        for (int j = 0; j < n; j++) {
+            Task t = wf.get(j);
+            double[] l = levels.get(t);
+            assertEquals(l[0], t.getbLevel(), 0);
+            assertEquals(l[1], t.getsLevel(), 0);
+            assertEquals(l[2], t.getALAP(), 0);
+            assertEquals(l[3], t.gettLevel(), 0);
+            if (j > 1 && j < n - 1)
+                assertTrue(wf.get(j - 1).getbLevel() >= t.getbLevel());
+        }
+        assertEquals("entry", wf.get(0).getName());
+        assertEquals("exit", wf.get(n - 1).getName());
+        WorkflowGraph g = wf.getGraph();        // topological: every parent before its children
+        for (int i = 0; i < n; i++)
+            for (int k = g.getChildOffsets()[i]; k < g.getChildOffsets()[i + 1]; k++)
+                assertTrue(g.getChildren()[k] > i);
+    }
+
+    @Test
+    public void testRandomChanges() {
+        Workflow wf = new Workflow("dax/Montage_50.xml");
+        Random rnd = new Random(3);
+        for (int step = 0; step < 200; step++) {
+            Task t = wf.get(1 + rnd.nextInt(wf.size() - 2));
+            switch (rnd.nextInt(4)) {
+                case 0:
+                    wf.setTaskSize(t, t.getTaskSize() * (0.2 + 2 * rnd.nextDouble()));
+                    break;
+                case 1:
+                    Edge e = t.getOutEdges().get(rnd.nextInt(t.getOutEdges().size()));
+                    wf.setDataSize(e, rnd.nextInt(100_000_000));
+                    break;
+                case 2:
+                    wf.addTask("new" + step, 1 + rnd.nextInt(50));
+                    break;
+                default:
+                    Task u = wf.get(1 + rnd.nextInt(wf.size() - 2));
+                    Task source = u.getbLevel() > t.getbLevel() ? u : t, destination = source == u ? t : u;
+                    boolean exists = false;
+                    for (Edge out : source.getOutEdges())
+                        exists |= out.getDestination() == destination;
+                    if (source != destination && !exists)
+                        wf.addEdge(source, destination, rnd.nextInt(10_000_000));
+            }
+            assertLevels(wf);
+        }
+        for (int i = 0; i < wf.size(); i++)
+            assertSame(wf.get(i), wf.idTaskMapping.get(wf.get(i).getId()));
+    }
+
+    @Test
+    public void testChangedWorkflowCanBeScheduled() {
+        Workflow wf = new Workflow("dax/Inspiral_30.xml");
+        Task a = wf.addTask("a", 20), b = wf.addTask("b", 30);
+        wf.addEdge(a, b, 5_000_000);
+        wf.addEdge(wf.get(1), a, 1_000_000);
+        wf.setTaskSize(wf.get(2), 500);
+        assertLevels(wf);
+
+        Benchmarks benchmarks = new Benchmarks(wf);
+        wf.setDeadline(benchmarks.getFastSchedule().calcMakespan() * 2);
+        Solution s = new ProLiS(Double.MAX_VALUE).schedule(wf);
+        assertTrue(s.validate(wf));
+        assertEquals(wf.size(), new ScheduleContext(wf).getGraph().size());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCycleRejected() {
+        Workflow wf = new Workflow("dax/Montage_30.xml");
+        Task parent = wf.get(1), child = parent.getOutEdges().get(0).getDestination();
+        wf.addEdge(child, parent, 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCopyCannotBeChanged() {
+        Workflow wf = new Workflow(new Workflow("dax/Montage_30.xml"));
+        wf.setTaskSize(wf.get(1), 10);
+    }
+}